@@ -2,6 +2,8 @@ CREATE TABLE categories (
     category_id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(255) UNIQUE NOT NULL,
     parent_category_id BIGINT,
+    product_count BIGINT NOT NULL DEFAULT 0,
+    INDEX idx_categories_parent (parent_category_id),
     FOREIGN KEY (parent_category_id) REFERENCES categories(category_id)
 );
 
@@ -12,11 +14,26 @@ CREATE TABLE products (
     stock INT NOT NULL DEFAULT 0,
     category_id BIGINT NOT NULL,
     image_url VARCHAR(255),
+    version BIGINT NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    INDEX idx_products_category (category_id),
     FOREIGN KEY (category_id) REFERENCES categories(category_id)
 );
 
+CREATE TABLE flights (
+    flight_id VARCHAR(32) NOT NULL PRIMARY KEY,
+    status ENUM('OPEN', 'CLOSING', 'CLOSED') NOT NULL,
+    opened_at DATETIME,
+    closed_at DATETIME
+);
+
+-- Orders, their lines and their summaries are list-partitioned by flight. Partitioned tables
+-- cannot have foreign keys and need the partition column in every unique key, hence flight_id
+-- in the primary keys. FlightServiceImpl adds a partition when a flight opens and exchanges it
+-- into the archive tables when the flight closes.
 CREATE TABLE orders (
-    order_id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    order_id BIGINT NOT NULL AUTO_INCREMENT,
+    flight_id VARCHAR(32) NOT NULL,
     total_price DECIMAL(8,2) NOT NULL,
     card_token VARCHAR(255),
     payment_status ENUM('PENDING', 'PAID', 'FAILED','OFFLINE') NOT NULL,
@@ -25,33 +42,122 @@ CREATE TABLE orders (
     status ENUM('OPEN', 'DROPPED', 'FINISHED') NOT NULL,
     buyer_email VARCHAR(255) NOT NULL,
     seat_letter CHAR(1) NOT NULL,
-    seat_number INT NOT NULL
-);
+    seat_number INT NOT NULL,
+    closed_at DATETIME,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (order_id, flight_id),
+    INDEX idx_orders_flight (flight_id, status),
+    INDEX idx_orders_closed_at (closed_at)
+) PARTITION BY LIST COLUMNS (flight_id) (PARTITION f_IB3202 VALUES IN ('IB3202'));
 
 CREATE TABLE products_orders (
     product_id BIGINT NOT NULL,
     order_id BIGINT NOT NULL,
-    PRIMARY KEY (product_id, order_id),
-    FOREIGN KEY (product_id) REFERENCES products(product_id),
-    FOREIGN KEY (order_id) REFERENCES orders(order_id)
+    flight_id VARCHAR(32) NOT NULL,
+    PRIMARY KEY (product_id, order_id, flight_id),
+    INDEX idx_products_orders_order (order_id)
+) PARTITION BY LIST COLUMNS (flight_id) (PARTITION f_IB3202 VALUES IN ('IB3202'));
+
+-- Same layout as the live tables, so a closed flight's partitions can be exchanged in
+CREATE TABLE orders_archive LIKE orders;
+
+CREATE TABLE products_orders_archive LIKE products_orders;
+
+CREATE TABLE catalog_changes (
+    version BIGINT NOT NULL PRIMARY KEY,
+    entity_type ENUM('PRODUCT', 'CATEGORY') NOT NULL,
+    entity_id BIGINT NOT NULL,
+    change_type ENUM('UPSERT', 'DELETE') NOT NULL,
+    changed_at DATETIME,
+    INDEX idx_catalog_changes_entity (entity_type, entity_id)
+);
+
+-- One row; its lock orders catalog change versions across instances
+CREATE TABLE catalog_version (
+    id BIGINT NOT NULL PRIMARY KEY,
+    version BIGINT NOT NULL,
+    compacted_through BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE stock_ledger_checkpoints (
+    ledger_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    segment BIGINT NOT NULL,
+    flushed_at DATETIME
+);
+
+CREATE TABLE outbox_events (
+    event_id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    event_type ENUM('CREATED', 'FINISHED', 'DROPPED', 'CANCELLED', 'DELETED') NOT NULL,
+    payload TEXT NOT NULL,
+    created_at DATETIME
+);
+
+CREATE TABLE order_summaries (
+    order_id BIGINT NOT NULL,
+    flight_id VARCHAR(32) NOT NULL,
+    buyer_email VARCHAR(255),
+    seat_letter CHAR(1),
+    seat_number INT,
+    status ENUM('OPEN', 'DROPPED', 'FINISHED'),
+    payment_status ENUM('PENDING', 'PAID', 'FAILED','OFFLINE'),
+    total_price DECIMAL(8,2),
+    item_count INT NOT NULL,
+    product_names VARCHAR(2000),
+    updated_at DATETIME,
+    PRIMARY KEY (order_id, flight_id),
+    INDEX idx_order_summaries_seat (flight_id, seat_number, seat_letter),
+    INDEX idx_order_summaries_status (flight_id, status)
+) PARTITION BY LIST COLUMNS (flight_id) (PARTITION f_IB3202 VALUES IN ('IB3202'));
+
+CREATE TABLE sales_product_rollups (
+    flight_id VARCHAR(32) NOT NULL,
+    product_id BIGINT NOT NULL,
+    units BIGINT NOT NULL,
+    revenue DECIMAL(12,2) NOT NULL,
+    PRIMARY KEY (flight_id, product_id),
+    INDEX idx_sales_product_rollups_units (flight_id, units)
+);
+
+CREATE TABLE sales_hourly_rollups (
+    flight_id VARCHAR(32) NOT NULL,
+    hour_start DATETIME NOT NULL,
+    order_count BIGINT NOT NULL,
+    units BIGINT NOT NULL,
+    revenue DECIMAL(12,2) NOT NULL,
+    PRIMARY KEY (flight_id, hour_start),
+    INDEX idx_sales_hourly_rollups_hour (hour_start)
 );
 
 INSERT INTO categories (name, parent_category_id) VALUES ('Electronics', NULL);
 INSERT INTO categories (name, parent_category_id) VALUES ('Computers', 1);
-INSERT INTO categories (name, parent_category_id) VALUES ('Laptops', 1);
-INSERT INTO categories (name, parent_category_id) VALUES ('Smartphones', 1);
+INSERT INTO categories (name, parent_category_id, product_count) VALUES ('Laptops', 1, 2);
+INSERT INTO categories (name, parent_category_id, product_count) VALUES ('Smartphones', 1, 1);
+
+INSERT INTO products (name, price, stock, category_id, image_url, order_count) VALUES ('MacBook Pro', 2500.00, 10, 3, 'https://example.com/macbook.jpg', 1);
+INSERT INTO products (name, price, stock, category_id, image_url, order_count) VALUES ('iPhone 14', 1200.00, 15, 4, 'https://example.com/iphone14.jpg', 1);
+INSERT INTO products (name, price, stock, category_id, image_url, order_count) VALUES ('Dell XPS 13', 1800.00, 8, 3, 'https://example.com/dellxps.jpg', 1);
+
+INSERT INTO flights (flight_id, status, opened_at) VALUES ('IB3202', 'OPEN', NOW());
+
+INSERT INTO orders (flight_id, total_price, card_token, payment_status, payment_date, payment_gateway, status, buyer_email, seat_letter, seat_number, closed_at)
+VALUES ('IB3202', 3700.00, 'tok_visa_12345', 'PAID', NOW(), 'STRIPE', 'FINISHED', 'buyer1@example.com', 'A', 12, NOW());
+
+INSERT INTO orders (flight_id, total_price, card_token, payment_status, payment_date, payment_gateway, status, buyer_email, seat_letter, seat_number)
+VALUES ('IB3202', 1200.00, 'tok_visa_67890', 'PENDING', NOW(), 'PAYPAL', 'OPEN', 'buyer2@example.com', 'B', 5);
 
-INSERT INTO products (name, price, stock, category_id, image_url) VALUES ('MacBook Pro', 2500.00, 10, 3, 'https://example.com/macbook.jpg');
-INSERT INTO products (name, price, stock, category_id, image_url) VALUES ('iPhone 14', 1200.00, 15, 4, 'https://example.com/iphone14.jpg');
-INSERT INTO products (name, price, stock, category_id, image_url) VALUES ('Dell XPS 13', 1800.00, 8, 3, 'https://example.com/dellxps.jpg');
+INSERT INTO products_orders (product_id, order_id, flight_id) VALUES (1, 1, 'IB3202'); -- MacBook Pro en primer pedido
+INSERT INTO products_orders (product_id, order_id, flight_id) VALUES (3, 1, 'IB3202'); -- Dell XPS en primer pedido
+INSERT INTO products_orders (product_id, order_id, flight_id) VALUES (2, 2, 'IB3202'); -- iPhone 14 en segundo pedido
 
-INSERT INTO orders (total_price, card_token, payment_status, payment_date, payment_gateway, status, buyer_email, seat_letter, seat_number)
-VALUES (3700.00, 'tok_visa_12345', 'PAID', NOW(), 'STRIPE', 'FINISHED', 'buyer1@example.com', 'A', 12);
+INSERT INTO order_summaries (order_id, flight_id, buyer_email, seat_letter, seat_number, status, payment_status, total_price, item_count, product_names, updated_at)
+VALUES (1, 'IB3202', 'buyer1@example.com', 'A', 12, 'FINISHED', 'PAID', 3700.00, 2, 'MacBook Pro, Dell XPS 13', NOW());
 
-INSERT INTO orders (total_price, card_token, payment_status, payment_date, payment_gateway, status, buyer_email, seat_letter, seat_number)
-VALUES (1200.00, 'tok_visa_67890', 'PENDING', NOW(), 'PAYPAL', 'OPEN', 'buyer2@example.com', 'B', 5);
+INSERT INTO order_summaries (order_id, flight_id, buyer_email, seat_letter, seat_number, status, payment_status, total_price, item_count, product_names, updated_at)
+VALUES (2, 'IB3202', 'buyer2@example.com', 'B', 5, 'OPEN', 'PENDING', 1200.00, 1, 'iPhone 14', NOW());
 
-INSERT INTO products_orders (product_id, order_id) VALUES (1, 1); -- MacBook Pro en primer pedido
-INSERT INTO products_orders (product_id, order_id) VALUES (3, 1); -- Dell XPS en primer pedido
-INSERT INTO products_orders (product_id, order_id) VALUES (2, 2); -- iPhone 14 en segundo pedido
+INSERT INTO sales_product_rollups (flight_id, product_id, units, revenue) VALUES ('IB3202', 1, 1, 2500.00);
+INSERT INTO sales_product_rollups (flight_id, product_id, units, revenue) VALUES ('IB3202', 3, 1, 1800.00);
 
+INSERT INTO sales_hourly_rollups (flight_id, hour_start, order_count, units, revenue)
+SELECT flight_id, DATE_FORMAT(payment_date, '%Y-%m-%d %H:00:00'), 1, 2, total_price FROM orders WHERE order_id = 1;
@@ -0,0 +1,76 @@
+#!/usr/bin/env bash
+# Time to first request: from launching the process until POST /auth/login answers 200, which needs the web
+# server, security and the user lookup to be up. Builds the plain jar and the -Paot layout, then starts
+# each variant RUNS times on the default (H2) profile and prints the median and best time, and the median
+# resident set size (VmRSS) right after that first request.
+#
+#   scripts/time-to-first-request.sh [runs]
+#   NATIVE=1 scripts/time-to-first-request.sh [runs]    # also builds and measures the native executable
+#
+# PORT (default 18081) sets the port used for the runs. NATIVE=1 needs GraalVM as JAVA_HOME. Leaves target/
+# built with -Paot; run "mvn clean package" to go back to a regular build.
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18081}
+NATIVE=${NATIVE:-0}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAR=store-api-0.0.1-SNAPSHOT.jar
+OUT=$(mktemp -d)
+trap 'rm -rf "$OUT"' EXIT
+
+cd "$ROOT"
+echo "Building..." >&2
+mvn -B -q clean package -DskipTests >"$OUT/build.log" 2>&1
+cp "target/$JAR" "$OUT/baseline.jar"
+if [ "$NATIVE" = 1 ]; then
+  mvn -B -q -Pnative clean native:compile -DskipTests >>"$OUT/build.log" 2>&1
+  cp target/store-api "$OUT/store-api"
+fi
+# The CDS archive only matches the jars at the path it was recorded with, so the AOT layout stays in target/
+mvn -B -q -Paot clean package -DskipTests >>"$OUT/build.log" 2>&1
+
+# Prints the milliseconds until the first successful login and the resident set size in KB at that point
+measure() {
+  local start pid elapsed
+  start=$(date +%s%3N)
+  "$@" --server.port="$PORT" >"$OUT/app.log" 2>&1 &
+  pid=$!
+  until [ "$(curl -s -o /dev/null -w '%{http_code}' -X POST "http://localhost:$PORT/auth/login?username=admin&password=admin123")" = 200 ]; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      cat "$OUT/app.log" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  elapsed=$(($(date +%s%3N) - start))
+  echo "$elapsed $(awk '/^VmRSS/ { print $2 }' "/proc/$pid/status")"
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+}
+
+median() {
+  sort -n | sed -n "$(((RUNS + 1) / 2))p"
+}
+
+report() {
+  local name=$1 times=() rss=() result
+  shift
+  for _ in $(seq "$RUNS"); do
+    result=$(measure "$@")
+    times+=("${result% *}")
+    rss+=("${result#* }")
+  done
+  printf '%-10s median %6s ms   best %6s ms   rss %4s MB   (%s)\n' "$name" \
+    "$(printf '%s\n' "${times[@]}" | median)" "$(printf '%s\n' "${times[@]}" | sort -n | head -1)" \
+    "$(($(printf '%s\n' "${rss[@]}" | median) / 1024))" "${times[*]}"
+}
+
+echo "Time to first request over $RUNS runs, Java $(java -version 2>&1 | head -1 | cut -d'"' -f2)"
+report baseline java -jar "$OUT/baseline.jar"
+report aot java -jar "target/application/$JAR"
+# -Xshare:on fails instead of silently starting without the archive
+report aot+cds java -Xshare:on -XX:SharedArchiveFile=target/application/application.jsa -jar "target/application/$JAR"
+if [ "$NATIVE" = 1 ]; then
+  report native "$OUT/store-api"
+fi
@@ -1,13 +1,22 @@
 package com.immfly.storeapi;
 
+import com.immfly.storeapi.config.StoreApiRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(StoreApiRuntimeHints.class)
 public class StoreapiApplication {
 
+	// Startup steps kept for /actuator/startup; a cold start records about a thousand
+	private static final int STARTUP_STEPS_CAPACITY = 4096;
+
 	public static void main(String[] args) {
-		SpringApplication.run(StoreapiApplication.class, args);
+		SpringApplication application = new SpringApplication(StoreapiApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,19 @@
+package com.immfly.storeapi.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+
+@Configuration
+public class JacksonConfig {
+
+    // Picked up by Spring Boot's ObjectMapper; replaces reflective getter calls with generated lambdas.
+    // A native image cannot define classes at run time, so it keeps plain reflection there.
+    @Bean
+    public Module blackbirdModule() {
+        return NativeDetector.inNativeImage() ? new SimpleModule("blackbird-disabled") : new BlackbirdModule();
+    }
+}
@@ -0,0 +1,24 @@
+package com.immfly.storeapi.config;
+
+import com.immfly.storeapi.datasource.QueryCountingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Only the bean named dataSource is wrapped, so each statement is counted once, replicas or not
+@Configuration
+public class QueryCountingConfig {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                        ? new QueryCountingDataSource(dataSource) : bean;
+            }
+        };
+    }
+}
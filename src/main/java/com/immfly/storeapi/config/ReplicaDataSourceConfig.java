@@ -0,0 +1,80 @@
+package com.immfly.storeapi.config;
+
+import com.immfly.storeapi.datasource.ReadYourWrites;
+import com.immfly.storeapi.datasource.ReplicaRoutingDataSource;
+import com.immfly.storeapi.service.OrderService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Primary from spring.datasource.* plus one pool per replica when datasource.replicas.urls is set
+@Configuration
+@ConditionalOnExpression("!'${datasource.replicas.urls:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             ReadYourWrites readYourWrites,
+                                                             ObjectProvider<MeterRegistry> meterRegistry,
+                                                             @Value("${datasource.replicas.urls}") String urls,
+                                                             @Value("${datasource.replicas.username:}") String username,
+                                                             @Value("${datasource.replicas.password:}") String password,
+                                                             @Value("${datasource.replicas.maximum-pool-size:10}") int maximumPoolSize) {
+        List<String> replicaUrls = Arrays.stream(urls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            // Not started until the first connection request, so a replica that is down does not stop startup
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(primaryDataSource.getPoolName() + "-replica-" + i);
+            replica.setJdbcUrl(replicaUrls.get(i));
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(username.isEmpty() ? properties.determinePassword() : password);
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setMinimumIdle(Math.min(primaryDataSource.getMinimumIdle(), maximumPoolSize));
+            replica.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+            replica.setLeakDetectionThreshold(primaryDataSource.getLeakDetectionThreshold());
+            meterRegistry.ifAvailable(replica::setMetricRegistry);
+            replicas.add(replica);
+        }
+        // Only read-only transactions of the service layer go to replicas
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWrites, OrderService.class.getPackageName() + ".");
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,85 @@
+package com.immfly.storeapi.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.util.ClassUtils;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+
+// Hints AOT cannot infer; packages are scanned at build time, so new entities and DTOs need no change here
+public class StoreApiRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String MODEL_PACKAGE = "com.immfly.storeapi.model";
+    private static final String DTO_PACKAGE = "com.immfly.storeapi.dto";
+    private static final String ENUMS_PACKAGE = "com.immfly.storeapi.enums";
+
+    // jjwt-api instantiates its implementations by name, so the image builder cannot find them
+    static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Hibernate instantiates entities and reads and writes their fields reflectively
+        for (Class<?> type : findTypes(MODEL_PACKAGE, classLoader)) {
+            hints.reflection().registerType(type, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+
+        // DTOs are also written outside controllers (outbox, export) and built by JPQL constructor expressions
+        BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+        for (Class<?> type : findTypes(DTO_PACKAGE, classLoader)) {
+            bindings.registerReflectionHints(hints.reflection(), type);
+            hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        for (Class<?> type : findTypes(ENUMS_PACKAGE, classLoader)) {
+            bindings.registerReflectionHints(hints.reflection(), type);
+        }
+
+        for (String type : JJWT_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+        // jjwt finds its JSON serializer through ServiceLoader
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+        // Connections handed out by LazyConnectionDataSourceProxy when read replicas are configured, and by
+        // QueryCountingDataSource together with its statements
+        hints.proxies().registerJdkProxy(ConnectionProxy.class);
+        hints.proxies().registerJdkProxy(Statement.class);
+        hints.proxies().registerJdkProxy(PreparedStatement.class);
+        hints.proxies().registerJdkProxy(CallableStatement.class);
+    }
+
+    private static List<Class<?>> findTypes(String basePackage, ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return true;
+            }
+        };
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+        scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+        return scanner.findCandidateComponents(basePackage).stream()
+                .<Class<?>>map(definition -> ClassUtils.resolveClassName(definition.getBeanClassName(), classLoader))
+                .toList();
+    }
+}
@@ -0,0 +1,60 @@
+package com.immfly.storeapi.controller;
+
+import com.immfly.storeapi.dto.CategorySalesDTO;
+import com.immfly.storeapi.dto.HourlySalesDTO;
+import com.immfly.storeapi.dto.ProductSalesDTO;
+import com.immfly.storeapi.dto.SalesVerificationDTO;
+import com.immfly.storeapi.service.SalesAnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    public AnalyticsController(SalesAnalyticsService salesAnalyticsService) {
+        this.salesAnalyticsService = salesAnalyticsService;
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<List<ProductSalesDTO>> getProductSales(@RequestParam(required = false) String flightId) {
+        return ResponseEntity.ok(salesAnalyticsService.getProductSales(flightId));
+    }
+
+    @GetMapping("/best-sellers")
+    public ResponseEntity<List<ProductSalesDTO>> getBestSellers(
+            @RequestParam(required = false) String flightId,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(salesAnalyticsService.getBestSellers(flightId, limit));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategorySalesDTO>> getCategorySales(@RequestParam(required = false) String flightId) {
+        return ResponseEntity.ok(salesAnalyticsService.getCategorySales(flightId));
+    }
+
+    @GetMapping("/hourly")
+    public ResponseEntity<List<HourlySalesDTO>> getHourlySales(
+            @RequestParam(required = false) String flightId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(salesAnalyticsService.getHourlySales(flightId, from, to));
+    }
+
+    @GetMapping("/verify")
+    public ResponseEntity<SalesVerificationDTO> verify() {
+        return ResponseEntity.ok(salesAnalyticsService.verify());
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        salesAnalyticsService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.immfly.storeapi.controller;
+
+import com.immfly.storeapi.dto.CatalogChangesDTO;
+import com.immfly.storeapi.service.CatalogChangeService;
+import com.immfly.storeapi.service.CatalogSnapshotService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/catalog")
+public class CatalogController {
+
+    private final CatalogChangeService catalogChangeService;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    public CatalogController(CatalogChangeService catalogChangeService, CatalogSnapshotService catalogSnapshotService) {
+        this.catalogChangeService = catalogChangeService;
+        this.catalogSnapshotService = catalogSnapshotService;
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<CatalogChangesDTO> getChanges(@RequestParam(defaultValue = "0") long since) {
+        return ResponseEntity.ok(catalogChangeService.getChangesSince(since));
+    }
+
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> exportSnapshot() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("catalog.snapshot").build().toString())
+                .body(catalogSnapshotService.exportSnapshot());
+    }
+
+    @PutMapping(value = "/snapshot", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Void> importSnapshot(@RequestBody byte[] snapshot) {
+        catalogSnapshotService.importSnapshot(snapshot);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,11 +1,14 @@
 package com.immfly.storeapi.controller;
 
 import com.immfly.storeapi.dto.CategoryDTO;
+import com.immfly.storeapi.dto.CategoryProductCountDTO;
+import com.immfly.storeapi.service.CatalogVersionService;
 import com.immfly.storeapi.service.CategoryService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -14,14 +17,25 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogVersionService catalogVersionService;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CatalogVersionService catalogVersionService) {
         this.categoryService = categoryService;
+        this.catalogVersionService = catalogVersionService;
     }
 
     @GetMapping
-    public ResponseEntity<List<CategoryDTO>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<CategoryDTO>> getAllCategories(WebRequest request) {
+        String eTag = catalogETag();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(categoryService.getAllCategories());
+    }
+
+    @GetMapping("/product-counts")
+    public ResponseEntity<List<CategoryProductCountDTO>> getProductCounts() {
+        return ResponseEntity.ok(categoryService.getProductCounts());
     }
 
     @GetMapping("/{id}")
@@ -45,4 +59,8 @@ public class CategoryController {
         categoryService.deleteCategory(id);
         return ResponseEntity.noContent().build();
     }
+
+    private String catalogETag() {
+        return "\"" + catalogVersionService.getCurrentVersion() + "\"";
+    }
 }
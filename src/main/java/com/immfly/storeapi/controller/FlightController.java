@@ -0,0 +1,33 @@
+package com.immfly.storeapi.controller;
+
+import com.immfly.storeapi.dto.FlightDTO;
+import com.immfly.storeapi.service.FlightService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/flights")
+public class FlightController {
+
+    private final FlightService flightService;
+
+    public FlightController(FlightService flightService) {
+        this.flightService = flightService;
+    }
+
+    @GetMapping("/{flightId}")
+    public ResponseEntity<FlightDTO> getFlight(@PathVariable String flightId) {
+        return ResponseEntity.ok(flightService.getFlight(flightId));
+    }
+
+    @PostMapping("/{flightId}")
+    public ResponseEntity<FlightDTO> openFlight(@PathVariable String flightId) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(flightService.openFlight(flightId));
+    }
+
+    @PostMapping("/{flightId}/close")
+    public ResponseEntity<FlightDTO> closeFlight(@PathVariable String flightId) {
+        return ResponseEntity.ok(flightService.closeFlight(flightId));
+    }
+}
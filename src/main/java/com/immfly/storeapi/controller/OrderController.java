@@ -1,28 +1,96 @@
 package com.immfly.storeapi.controller;
 
 import com.immfly.storeapi.dto.FinishOrderRequest;
+import com.immfly.storeapi.dto.OrderBatchResultDTO;
 import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.dto.OrderSummaryDTO;
+import com.immfly.storeapi.dto.SeatSummaryDTO;
+import com.immfly.storeapi.enums.ExportFormat;
+import com.immfly.storeapi.enums.OrderStatus;
+import com.immfly.storeapi.exception.UnsupportedExportFormatException;
+import com.immfly.storeapi.service.OrderBatchService;
+import com.immfly.storeapi.service.OrderExportService;
 import com.immfly.storeapi.service.OrderService;
+import com.immfly.storeapi.service.OrderSummaryService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderBatchService orderBatchService;
+    private final OrderSummaryService orderSummaryService;
+    private final OrderExportService orderExportService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderBatchService orderBatchService, OrderSummaryService orderSummaryService, OrderExportService orderExportService) {
         this.orderService = orderService;
+        this.orderBatchService = orderBatchService;
+        this.orderSummaryService = orderSummaryService;
+        this.orderExportService = orderExportService;
     }
 
     @GetMapping
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<List<OrderDTO>> getAllOrders(@RequestParam(required = false) String flightId) {
+        return ResponseEntity.ok(orderService.getAllOrders(flightId));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "csv") String format,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                              @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat = switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> ExportFormat.CSV;
+            case "ndjson" -> ExportFormat.NDJSON;
+            default -> throw new UnsupportedExportFormatException("Unsupported export format: " + format);
+        };
+
+        String filename = "orders." + format.toLowerCase(Locale.ROOT) + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : exportFormat == ExportFormat.CSV ? MediaType.parseMediaType("text/csv") : MediaType.parseMediaType("application/x-ndjson");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 65536);
+                orderExportService.exportOrders(exportFormat, from, to, compressed);
+                compressed.finish();
+            } else {
+                orderExportService.exportOrders(exportFormat, from, to, out);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    @GetMapping("/summaries")
+    public ResponseEntity<List<OrderSummaryDTO>> getOrderSummaries(@RequestParam(required = false) String flightId,
+                                                                   @RequestParam(required = false) OrderStatus status,
+                                                                   @RequestParam(required = false) Character seatLetter,
+                                                                   @RequestParam(required = false) Integer seatNumber) {
+        return ResponseEntity.ok(orderSummaryService.findSummaries(flightId, status, seatLetter, seatNumber));
+    }
+
+    @GetMapping("/summaries/seats")
+    public ResponseEntity<List<SeatSummaryDTO>> getSeatTotals(@RequestParam(required = false) String flightId,
+                                                              @RequestParam(required = false) OrderStatus status) {
+        return ResponseEntity.ok(orderSummaryService.getSeatTotals(flightId, status));
     }
 
     @GetMapping("/{id}")
@@ -36,6 +104,11 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<OrderBatchResultDTO> createOrders(@RequestBody List<OrderDTO> orders) {
+        return ResponseEntity.ok(orderBatchService.createOrders(orders));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<OrderDTO> updateOrder(@PathVariable Long id, @RequestBody @Valid OrderDTO orderDTO) {
         return ResponseEntity.ok(orderService.updateOrder(id, orderDTO));
@@ -1,11 +1,18 @@
 package com.immfly.storeapi.controller;
 import com.immfly.storeapi.dto.ProductDTO;
+import com.immfly.storeapi.dto.ProductImportResultDTO;
+import com.immfly.storeapi.dto.ProductOrderCountDTO;
+import com.immfly.storeapi.service.CatalogVersionService;
+import com.immfly.storeapi.service.ProductImportService;
 import com.immfly.storeapi.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -13,14 +20,27 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final CatalogVersionService catalogVersionService;
+    private final ProductImportService productImportService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, CatalogVersionService catalogVersionService, ProductImportService productImportService) {
         this.productService = productService;
+        this.catalogVersionService = catalogVersionService;
+        this.productImportService = productImportService;
     }
 
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<List<ProductDTO>> getAllProducts(WebRequest request) {
+        String eTag = catalogETag();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(productService.getAllProducts());
+    }
+
+    @GetMapping("/order-counts")
+    public ResponseEntity<List<ProductOrderCountDTO>> getOrderCounts() {
+        return ResponseEntity.ok(productService.getOrderCounts());
     }
 
     @GetMapping("/{id}")
@@ -34,6 +54,16 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductImportResultDTO> importProductsJson(InputStream body) {
+        return ResponseEntity.ok(productImportService.importJson(body));
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<ProductImportResultDTO> importProductsCsv(InputStream body) {
+        return ResponseEntity.ok(productImportService.importCsv(body));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long id, @RequestBody @Valid ProductDTO productDTO) {
         return ResponseEntity.ok(productService.updateProduct(id, productDTO));
@@ -44,4 +74,8 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
+
+    private String catalogETag() {
+        return "\"" + catalogVersionService.getCurrentVersion() + "\"";
+    }
 }
@@ -0,0 +1,130 @@
+package com.immfly.storeapi.datasource;
+
+import com.immfly.storeapi.monitoring.QueryStats;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// A batch counts as one statement; fetching rows after execute returns is not timed
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    public QueryCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection countingConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new ConnectionHandler(target));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    private static Object unwrapOrIsWrapperFor(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        Class<?> iface = (Class<?>) args[0];
+        if (iface.isInstance(proxy)) {
+            return method.getName().equals("unwrap") ? proxy : true;
+        }
+        return invoke(target, method, args);
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                case "unwrap":
+                case "isWrapperFor":
+                    return unwrapOrIsWrapperFor(proxy, target, method, args);
+                default:
+                    break;
+            }
+
+            Object result = QueryCountingDataSource.invoke(target, method, args);
+            Class<?> statementType = result instanceof CallableStatement ? CallableStatement.class
+                    : result instanceof PreparedStatement ? PreparedStatement.class
+                    : result instanceof Statement ? Statement.class : null;
+            if (statementType == null) {
+                return result;
+            }
+            return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{statementType},
+                    new StatementHandler((Statement) result, (Connection) proxy));
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final Connection connection;
+
+        StatementHandler(Statement target, Connection connection) {
+            this.target = target;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return connection;
+                case "unwrap":
+                case "isWrapperFor":
+                    return unwrapOrIsWrapperFor(proxy, target, method, args);
+                default:
+                    break;
+            }
+
+            if (!name.startsWith("execute")) {
+                return QueryCountingDataSource.invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return QueryCountingDataSource.invoke(target, method, args);
+            } finally {
+                QueryStats.record(System.nanoTime() - start);
+            }
+        }
+    }
+}
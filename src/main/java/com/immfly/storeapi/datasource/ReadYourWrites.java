@@ -0,0 +1,67 @@
+package com.immfly.storeapi.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Callers are told apart by principal; work without one (schedulers, relays) is never pinned
+@Component
+public class ReadYourWrites {
+
+    @Value("${datasource.replicas.read-your-writes-ms:0}")
+    private long windowMs = 0;
+
+    private final ConcurrentHashMap<String, Long> pinnedUntilNanos = new ConcurrentHashMap<>();
+
+    // Inside a transaction the pin starts after commit, so a rolled-back write pins nothing
+    public void recordWrite() {
+        String principal = currentPrincipal();
+        if (windowMs <= 0 || principal == null) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pin(principal);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pin(principal);
+            }
+        });
+    }
+
+    public boolean isPinned() {
+        String principal = currentPrincipal();
+        if (principal == null) {
+            return false;
+        }
+
+        Long until = pinnedUntilNanos.get(principal);
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until < 0) {
+            return true;
+        }
+        pinnedUntilNanos.remove(principal, until);
+        return false;
+    }
+
+    private void pin(String principal) {
+        pinnedUntilNanos.put(principal, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs));
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+}
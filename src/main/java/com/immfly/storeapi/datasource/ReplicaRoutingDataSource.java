@@ -0,0 +1,123 @@
+package com.immfly.storeapi.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Routes by transaction name and read-only flag; must sit behind a LazyConnectionDataSourceProxy
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas = new LinkedHashMap<>();
+    private final Set<String> downReplicas = Collections.synchronizedSet(new HashSet<>());
+    private final ReadYourWrites readYourWrites;
+    private final String replicaTransactionPrefix;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile List<String> healthyReplicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReadYourWrites readYourWrites, String replicaTransactionPrefix) {
+        this.primary = primary;
+        this.readYourWrites = readYourWrites;
+        this.replicaTransactionPrefix = replicaTransactionPrefix;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.put("replica-" + i, replicas.get(i));
+            targets.put("replica-" + i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        healthyReplicas = List.copyOf(this.replicas.keySet());
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || readYourWrites.isPinned()) {
+            return PRIMARY;
+        }
+        String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (transactionName == null || !transactionName.startsWith(replicaTransactionPrefix)) {
+            return PRIMARY;
+        }
+
+        List<String> candidates = healthyReplicas;
+        if (candidates.isEmpty()) {
+            return PRIMARY;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String key = (String) determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return primary.getConnection();
+        }
+
+        try {
+            return replicas.get(key).getConnection();
+        } catch (SQLException ex) {
+            markDown(key, ex.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    // Returns the number of healthy replicas
+    public int checkReplicas(int timeoutSeconds) {
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            String failure;
+            try (Connection connection = replica.getValue().getConnection()) {
+                failure = connection.isValid(timeoutSeconds) ? null : "connection is not valid";
+            } catch (SQLException ex) {
+                failure = ex.getMessage();
+            }
+
+            if (failure != null) {
+                markDown(replica.getKey(), failure);
+            } else if (downReplicas.remove(replica.getKey())) {
+                log.info("Replica {} is healthy again and takes reads", replica.getKey());
+            }
+        }
+        updateHealthyReplicas();
+        return healthyReplicas.size();
+    }
+
+    public Map<String, Boolean> getReplicaHealth() {
+        Map<String, Boolean> health = new LinkedHashMap<>();
+        replicas.keySet().forEach(key -> health.put(key, !downReplicas.contains(key)));
+        return health;
+    }
+
+    // The primary belongs to the caller and is left open
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void markDown(String key, String reason) {
+        if (downReplicas.add(key)) {
+            log.warn("Replica {} is down, its reads go to the primary: {}", key, reason);
+            updateHealthyReplicas();
+        }
+    }
+
+    private void updateHealthyReplicas() {
+        healthyReplicas = replicas.keySet().stream().filter(key -> !downReplicas.contains(key)).toList();
+    }
+}
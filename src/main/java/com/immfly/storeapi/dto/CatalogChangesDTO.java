@@ -0,0 +1,75 @@
+package com.immfly.storeapi.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CatalogChangesDTO {
+
+    private long fromVersion;
+
+    private long toVersion;
+
+    private List<ProductDTO> products = new ArrayList<>();
+
+    private List<CategoryDTO> categories = new ArrayList<>();
+
+    private List<Long> deletedProductIds = new ArrayList<>();
+
+    private List<Long> deletedCategoryIds = new ArrayList<>();
+
+    public CatalogChangesDTO() {
+    }
+
+    public CatalogChangesDTO(long fromVersion, long toVersion) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+    }
+
+    public long getFromVersion() {
+        return fromVersion;
+    }
+
+    public void setFromVersion(long fromVersion) {
+        this.fromVersion = fromVersion;
+    }
+
+    public long getToVersion() {
+        return toVersion;
+    }
+
+    public void setToVersion(long toVersion) {
+        this.toVersion = toVersion;
+    }
+
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductDTO> products) {
+        this.products = products;
+    }
+
+    public List<CategoryDTO> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<CategoryDTO> categories) {
+        this.categories = categories;
+    }
+
+    public List<Long> getDeletedProductIds() {
+        return deletedProductIds;
+    }
+
+    public void setDeletedProductIds(List<Long> deletedProductIds) {
+        this.deletedProductIds = deletedProductIds;
+    }
+
+    public List<Long> getDeletedCategoryIds() {
+        return deletedCategoryIds;
+    }
+
+    public void setDeletedCategoryIds(List<Long> deletedCategoryIds) {
+        this.deletedCategoryIds = deletedCategoryIds;
+    }
+}
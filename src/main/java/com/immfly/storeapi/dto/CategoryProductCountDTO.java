@@ -0,0 +1,33 @@
+package com.immfly.storeapi.dto;
+
+public class CategoryProductCountDTO {
+
+    private Long categoryId;
+
+    private long productCount;
+
+    public CategoryProductCountDTO() {
+
+    }
+
+    public CategoryProductCountDTO(Long categoryId, long productCount) {
+        this.categoryId = categoryId;
+        this.productCount = productCount;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public long getProductCount() {
+        return productCount;
+    }
+
+    public void setProductCount(long productCount) {
+        this.productCount = productCount;
+    }
+}
@@ -0,0 +1,68 @@
+package com.immfly.storeapi.dto;
+
+import java.math.BigDecimal;
+
+public class CategorySalesDTO {
+
+    private Long categoryId;
+
+    private String name;
+
+    private Long parentCategoryId;
+
+    private long units;
+
+    private BigDecimal revenue;
+
+    public CategorySalesDTO() {
+
+    }
+
+    public CategorySalesDTO(Long categoryId, String name, Long parentCategoryId, long units, BigDecimal revenue) {
+        this.categoryId = categoryId;
+        this.name = name;
+        this.parentCategoryId = parentCategoryId;
+        this.units = units;
+        this.revenue = revenue;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getParentCategoryId() {
+        return parentCategoryId;
+    }
+
+    public void setParentCategoryId(Long parentCategoryId) {
+        this.parentCategoryId = parentCategoryId;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,61 @@
+package com.immfly.storeapi.dto;
+
+import com.immfly.storeapi.enums.FlightStatus;
+
+import java.time.LocalDateTime;
+
+public class FlightDTO {
+    // Upper case only: MySQL partition names, which are derived from flight ids, ignore case
+    public static final String ID_PATTERN = "[A-Z0-9-]{1,32}";
+
+    private String id;
+
+    private FlightStatus status;
+
+    private LocalDateTime openedAt;
+
+    private LocalDateTime closedAt;
+
+    public FlightDTO() {
+
+    }
+
+    public FlightDTO(String id, FlightStatus status, LocalDateTime openedAt, LocalDateTime closedAt) {
+        this.id = id;
+        this.status = status;
+        this.openedAt = openedAt;
+        this.closedAt = closedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public FlightStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(FlightStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getOpenedAt() {
+        return openedAt;
+    }
+
+    public void setOpenedAt(LocalDateTime openedAt) {
+        this.openedAt = openedAt;
+    }
+
+    public LocalDateTime getClosedAt() {
+        return closedAt;
+    }
+
+    public void setClosedAt(LocalDateTime closedAt) {
+        this.closedAt = closedAt;
+    }
+}
@@ -0,0 +1,58 @@
+package com.immfly.storeapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class HourlySalesDTO {
+
+    private LocalDateTime hourStart;
+
+    private long orderCount;
+
+    private long units;
+
+    private BigDecimal revenue;
+
+    public HourlySalesDTO() {
+
+    }
+
+    public HourlySalesDTO(LocalDateTime hourStart, long orderCount, long units, BigDecimal revenue) {
+        this.hourStart = hourStart;
+        this.orderCount = orderCount;
+        this.units = units;
+        this.revenue = revenue;
+    }
+
+    public LocalDateTime getHourStart() {
+        return hourStart;
+    }
+
+    public void setHourStart(LocalDateTime hourStart) {
+        this.hourStart = hourStart;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,46 @@
+package com.immfly.storeapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderBatchItemDTO {
+
+    private int index;
+
+    private OrderDTO order;
+
+    private String error;
+
+    public OrderBatchItemDTO() {
+    }
+
+    public OrderBatchItemDTO(int index, OrderDTO order, String error) {
+        this.index = index;
+        this.order = order;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public OrderDTO getOrder() {
+        return order;
+    }
+
+    public void setOrder(OrderDTO order) {
+        this.order = order;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
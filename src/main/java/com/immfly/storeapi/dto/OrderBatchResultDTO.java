@@ -0,0 +1,40 @@
+package com.immfly.storeapi.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderBatchResultDTO {
+
+    private int created;
+
+    private int failed;
+
+    private List<OrderBatchItemDTO> results = new ArrayList<>();
+
+    public OrderBatchResultDTO() {
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<OrderBatchItemDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<OrderBatchItemDTO> results) {
+        this.results = results;
+    }
+}
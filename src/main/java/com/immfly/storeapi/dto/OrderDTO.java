@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -24,6 +25,10 @@ public class OrderDTO {
 
     private OrderStatus status;
 
+    // Required on creation, where it must name an open flight; ignored on update
+    @Pattern(regexp = FlightDTO.ID_PATTERN, message = "Flight id must be 1 to 32 upper-case letters, digits or hyphens")
+    private String flightId;
+
     @NotBlank(message = "Buyer email must not be blank")
     @Email(message = "Buyer email must be a valid email address")
     private String buyerEmail;
@@ -62,6 +67,14 @@ public class OrderDTO {
         this.id = id;
     }
 
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public void setFlightId(String flightId) {
+        this.flightId = flightId;
+    }
+
     public BigDecimal getTotalPrice() {
         return totalPrice;
     }
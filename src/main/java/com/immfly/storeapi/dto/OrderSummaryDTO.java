@@ -0,0 +1,114 @@
+package com.immfly.storeapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.immfly.storeapi.enums.OrderStatus;
+import com.immfly.storeapi.enums.PaymentStatus;
+import java.math.BigDecimal;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderSummaryDTO {
+
+    private Long orderId;
+
+    private String flightId;
+
+    private String buyerEmail;
+
+    private Character seatLetter;
+
+    private Integer seatNumber;
+
+    private OrderStatus status;
+
+    private PaymentStatus paymentStatus;
+
+    private BigDecimal totalPrice;
+
+    private int itemCount;
+
+    private String productNames;
+
+    public OrderSummaryDTO() {
+
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public void setFlightId(String flightId) {
+        this.flightId = flightId;
+    }
+
+    public String getBuyerEmail() {
+        return buyerEmail;
+    }
+
+    public void setBuyerEmail(String buyerEmail) {
+        this.buyerEmail = buyerEmail;
+    }
+
+    public Character getSeatLetter() {
+        return seatLetter;
+    }
+
+    public void setSeatLetter(Character seatLetter) {
+        this.seatLetter = seatLetter;
+    }
+
+    public Integer getSeatNumber() {
+        return seatNumber;
+    }
+
+    public void setSeatNumber(Integer seatNumber) {
+        this.seatNumber = seatNumber;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public void setPaymentStatus(PaymentStatus paymentStatus) {
+        this.paymentStatus = paymentStatus;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(BigDecimal totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public String getProductNames() {
+        return productNames;
+    }
+
+    public void setProductNames(String productNames) {
+        this.productNames = productNames;
+    }
+}
@@ -0,0 +1,43 @@
+package com.immfly.storeapi.dto;
+
+public class ProductImportErrorDTO {
+
+    private long row;
+
+    private String name;
+
+    private String message;
+
+    public ProductImportErrorDTO() {
+    }
+
+    public ProductImportErrorDTO(long row, String name, String message) {
+        this.row = row;
+        this.name = name;
+        this.message = message;
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
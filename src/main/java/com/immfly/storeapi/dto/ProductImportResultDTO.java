@@ -0,0 +1,60 @@
+package com.immfly.storeapi.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductImportResultDTO {
+
+    private long processed;
+
+    private long created;
+
+    private long updated;
+
+    private long failed;
+
+    private List<ProductImportErrorDTO> errors = new ArrayList<>();
+
+    public ProductImportResultDTO() {
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<ProductImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ProductImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
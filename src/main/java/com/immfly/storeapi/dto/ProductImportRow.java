@@ -0,0 +1,78 @@
+package com.immfly.storeapi.dto;
+
+import java.math.BigDecimal;
+
+public class ProductImportRow {
+
+    private String name;
+
+    private BigDecimal price;
+
+    private Integer stock;
+
+    private String imageUrl;
+
+    private Long categoryId;
+
+    private String categoryName;
+
+    public ProductImportRow() {
+    }
+
+    public ProductImportRow(String name, BigDecimal price, Integer stock, String imageUrl, Long categoryId, String categoryName) {
+        this.name = name;
+        this.price = price;
+        this.stock = stock;
+        this.imageUrl = imageUrl;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+}
@@ -0,0 +1,33 @@
+package com.immfly.storeapi.dto;
+
+public class ProductOrderCountDTO {
+
+    private Long productId;
+
+    private long orderCount;
+
+    public ProductOrderCountDTO() {
+
+    }
+
+    public ProductOrderCountDTO(Long productId, long orderCount) {
+        this.productId = productId;
+        this.orderCount = orderCount;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+}
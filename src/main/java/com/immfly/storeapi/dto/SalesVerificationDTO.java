@@ -0,0 +1,35 @@
+package com.immfly.storeapi.dto;
+
+import java.util.List;
+
+public class SalesVerificationDTO {
+
+    private boolean consistent;
+
+    private List<String> mismatches;
+
+    public SalesVerificationDTO() {
+
+    }
+
+    public SalesVerificationDTO(boolean consistent, List<String> mismatches) {
+        this.consistent = consistent;
+        this.mismatches = mismatches;
+    }
+
+    public boolean isConsistent() {
+        return consistent;
+    }
+
+    public void setConsistent(boolean consistent) {
+        this.consistent = consistent;
+    }
+
+    public List<String> getMismatches() {
+        return mismatches;
+    }
+
+    public void setMismatches(List<String> mismatches) {
+        this.mismatches = mismatches;
+    }
+}
@@ -0,0 +1,70 @@
+package com.immfly.storeapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.math.BigDecimal;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SeatSummaryDTO {
+
+    private Character seatLetter;
+
+    private Integer seatNumber;
+
+    private long orderCount;
+
+    private long itemCount;
+
+    private BigDecimal totalAmount;
+
+    public SeatSummaryDTO() {
+
+    }
+
+    public SeatSummaryDTO(Character seatLetter, Integer seatNumber, long orderCount, long itemCount, BigDecimal totalAmount) {
+        this.seatLetter = seatLetter;
+        this.seatNumber = seatNumber;
+        this.orderCount = orderCount;
+        this.itemCount = itemCount;
+        this.totalAmount = totalAmount;
+    }
+
+    public Character getSeatLetter() {
+        return seatLetter;
+    }
+
+    public void setSeatLetter(Character seatLetter) {
+        this.seatLetter = seatLetter;
+    }
+
+    public Integer getSeatNumber() {
+        return seatNumber;
+    }
+
+    public void setSeatNumber(Integer seatNumber) {
+        this.seatNumber = seatNumber;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(long itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+}
@@ -0,0 +1,6 @@
+package com.immfly.storeapi.enums;
+
+public enum CatalogEntityType {
+    PRODUCT,
+    CATEGORY
+}
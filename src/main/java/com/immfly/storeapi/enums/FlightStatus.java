@@ -0,0 +1,7 @@
+package com.immfly.storeapi.enums;
+
+public enum FlightStatus {
+    OPEN,
+    CLOSING,
+    CLOSED
+}
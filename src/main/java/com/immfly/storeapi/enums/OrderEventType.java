@@ -0,0 +1,9 @@
+package com.immfly.storeapi.enums;
+
+public enum OrderEventType {
+    CREATED,
+    FINISHED,
+    DROPPED,
+    CANCELLED,
+    DELETED
+}
@@ -0,0 +1,26 @@
+package com.immfly.storeapi.exception;
+
+import org.springframework.http.HttpStatus;
+
+// Expected rejections: no stack trace unless exceptions.stack-traces or EXCEPTION_STACK_TRACES is true at startup
+public abstract class BusinessException extends RuntimeException {
+
+    private static final boolean STACK_TRACES = stackTracesEnabled(
+            System.getProperty("exceptions.stack-traces"), System.getenv("EXCEPTION_STACK_TRACES"));
+
+    private final HttpStatus status;
+
+    protected BusinessException(String message, HttpStatus status) {
+        super(message, null, false, STACK_TRACES);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    // The system property wins over the environment, as in Spring's property sources
+    static boolean stackTracesEnabled(String systemProperty, String environment) {
+        return Boolean.parseBoolean(systemProperty != null ? systemProperty : environment);
+    }
+}
@@ -0,0 +1,9 @@
+package com.immfly.storeapi.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class CatalogChangesExpiredException extends BusinessException {
+    public CatalogChangesExpiredException(String message) {
+        super(message, HttpStatus.GONE);
+    }
+}
@@ -1,7 +1,9 @@
 package com.immfly.storeapi.exception;
 
-public class CategoryAlreadyExistsException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class CategoryAlreadyExistsException extends BusinessException {
     public CategoryAlreadyExistsException(String message) {
-        super(message);
+        super(message, HttpStatus.CONFLICT);
     }
 }
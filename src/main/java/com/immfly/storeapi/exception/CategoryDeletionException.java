@@ -1,7 +1,9 @@
 package com.immfly.storeapi.exception;
 
-public class CategoryDeletionException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class CategoryDeletionException extends BusinessException {
     public CategoryDeletionException(String message) {
-        super(message);
+        super(message, HttpStatus.CONFLICT);
     }
 }
@@ -0,0 +1,9 @@
+package com.immfly.storeapi.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class FlightNotClosableException extends BusinessException {
+    public FlightNotClosableException(String message) {
+        super(message, HttpStatus.CONFLICT);
+    }
+}
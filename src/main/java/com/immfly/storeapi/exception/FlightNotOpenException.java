@@ -0,0 +1,9 @@
+package com.immfly.storeapi.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class FlightNotOpenException extends BusinessException {
+    public FlightNotOpenException(String message) {
+        super(message, HttpStatus.CONFLICT);
+    }
+}
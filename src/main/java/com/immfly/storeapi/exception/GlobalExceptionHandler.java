@@ -1,127 +1,44 @@
 package com.immfly.storeapi.exception;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
-
-    @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleResourceNotFound(ResourceNotFoundException ex) {
-        ErrorResponse error = new ErrorResponse(
-                List.of(ex.getMessage()),
-                HttpStatus.NOT_FOUND.value(),
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
-    }
-
-    @ExceptionHandler(OutOfStockException.class)
-    public ResponseEntity<ErrorResponse> handleOutOfStock(OutOfStockException ex) {
-        ErrorResponse error = new ErrorResponse(
-                List.of(ex.getMessage()),
-                HttpStatus.BAD_REQUEST.value(),
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
-    }
-
-    @ExceptionHandler(OrderNotUpdatableException.class)
-    public ResponseEntity<ErrorResponse> handleOrderNotUpdatable(OrderNotUpdatableException ex) {
-        ErrorResponse error = new ErrorResponse(
-                List.of(ex.getMessage()),
-                HttpStatus.CONFLICT.value(), // 409 Conflict
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
-    }
-
-    @ExceptionHandler(OrderNotDeletableException.class)
-    public ResponseEntity<ErrorResponse> handleOrderNotDeletable(OrderNotDeletableException ex) {
-        ErrorResponse error = new ErrorResponse(
-                List.of(ex.getMessage()),
-                HttpStatus.CONFLICT.value(), // 409 Conflict
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    // LocalDateTime.now() without a clock looks up and copies the default time zone on every call
+    private static final Clock CLOCK = Clock.systemDefaultZone();
+
+    // Every business rejection goes through here; its status comes with the exception
+    @ExceptionHandler(BusinessException.class)
+    public ResponseEntity<ErrorResponse> handleBusinessException(BusinessException ex) {
+        if (log.isDebugEnabled()) {
+            log.debug("Rejected with {}: {}", ex.getStatus().value(), ex.getMessage(), ex);
+        }
+        return errorResponse(ex.getStatus(), List.of(ex.getMessage()));
     }
 
     @ExceptionHandler(PaymentGatewayException.class)
     public ResponseEntity<ErrorResponse> handlePaymentGateway(PaymentGatewayException ex) {
-        ErrorResponse error = new ErrorResponse(
-                List.of(ex.getMessage()),
-                HttpStatus.BAD_GATEWAY.value(),
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.BAD_GATEWAY);
+        return errorResponse(HttpStatus.BAD_GATEWAY, List.of(ex.getMessage()));
     }
 
     @ExceptionHandler(PaymentStatusNullException.class)
     public ResponseEntity<ErrorResponse> handlePaymentStatusNull(PaymentStatusNullException ex) {
-        ErrorResponse error = new ErrorResponse(
-                List.of(ex.getMessage()),
-                HttpStatus.BAD_GATEWAY.value(),
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.BAD_GATEWAY);
-    }
-
-    @ExceptionHandler(UnsupportedPaymentGatewayException.class)
-    public ResponseEntity<ErrorResponse> handleUnsupportedPaymentGateway(UnsupportedPaymentGatewayException ex) {
-        ErrorResponse error = new ErrorResponse(
-                List.of(ex.getMessage()),
-                HttpStatus.BAD_REQUEST.value(),
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
-    }
-
-    @ExceptionHandler(InvalidCategoryHierarchyException.class)
-    public ResponseEntity<ErrorResponse> handleInvalidCategoryHierarchy(InvalidCategoryHierarchyException ex) {
-        ErrorResponse error = new ErrorResponse(
-                List.of(ex.getMessage()),
-                HttpStatus.BAD_REQUEST.value(),
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
-    }
-
-    @ExceptionHandler(CategoryDeletionException.class)
-    public ResponseEntity<ErrorResponse> handleCategoryDeletion(CategoryDeletionException ex) {
-        ErrorResponse error = new ErrorResponse(
-                List.of(ex.getMessage()),
-                HttpStatus.CONFLICT.value(),
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
-    }
-
-    @ExceptionHandler(CategoryAlreadyExistsException.class)
-    public ResponseEntity<ErrorResponse> handleCategoryAlreadyExistsException(CategoryAlreadyExistsException ex) {
-        ErrorResponse error = new ErrorResponse(
-                List.of(ex.getMessage()),
-                HttpStatus.CONFLICT.value(),
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
-    }
-
-    @ExceptionHandler(ProductAlreadyExistsException.class)
-    public ResponseEntity<ErrorResponse> handleProductAlreadyExistsException(ProductAlreadyExistsException ex) {
-        ErrorResponse error = new ErrorResponse(
-                List.of(ex.getMessage()),
-                HttpStatus.CONFLICT.value(),
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+        return errorResponse(HttpStatus.BAD_GATEWAY, List.of(ex.getMessage()));
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -132,31 +49,25 @@ public class GlobalExceptionHandler {
                 .map(DefaultMessageSourceResolvable::getDefaultMessage)
                 .collect(Collectors.toList());
 
-        ErrorResponse error = new ErrorResponse(
-                validationErrors,
-                HttpStatus.BAD_REQUEST.value(),
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        return errorResponse(HttpStatus.BAD_REQUEST, validationErrors);
     }
 
-    @ExceptionHandler(ProductDeletionException.class)
-    public ResponseEntity<ErrorResponse> handleProductDeletionException(ProductDeletionException ex) {
-        ErrorResponse error = new ErrorResponse(
-                List.of(ex.getMessage()),
-                HttpStatus.CONFLICT.value(),
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return errorResponse(HttpStatus.CONFLICT, List.of("The resource was modified concurrently, please retry"));
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
-        ErrorResponse error = new ErrorResponse(
-                List.of("Internal Server Error: " + ex.getMessage()),
-                HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                LocalDateTime.now()
-        );
-        return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+        return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, List.of("Internal Server Error: " + ex.getMessage()));
+    }
+
+    // Also used by servlet filters, which answer outside Spring MVC
+    public static ErrorResponse errorBody(HttpStatus status, List<String> errors) {
+        return new ErrorResponse(errors, status.value(), LocalDateTime.now(CLOCK));
+    }
+
+    private static ResponseEntity<ErrorResponse> errorResponse(HttpStatus status, List<String> errors) {
+        return new ResponseEntity<>(errorBody(status, errors), status);
     }
 }
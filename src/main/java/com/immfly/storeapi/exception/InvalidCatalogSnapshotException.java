@@ -0,0 +1,9 @@
+package com.immfly.storeapi.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidCatalogSnapshotException extends BusinessException {
+    public InvalidCatalogSnapshotException(String message) {
+        super(message, HttpStatus.BAD_REQUEST);
+    }
+}
@@ -1,7 +1,9 @@
 package com.immfly.storeapi.exception;
 
-public class InvalidCategoryHierarchyException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class InvalidCategoryHierarchyException extends BusinessException {
     public InvalidCategoryHierarchyException(String message) {
-        super(message);
+        super(message, HttpStatus.BAD_REQUEST);
     }
 }
@@ -0,0 +1,9 @@
+package com.immfly.storeapi.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidFlightIdException extends BusinessException {
+    public InvalidFlightIdException(String message) {
+        super(message, HttpStatus.BAD_REQUEST);
+    }
+}
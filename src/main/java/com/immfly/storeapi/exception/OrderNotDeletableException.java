@@ -1,7 +1,9 @@
 package com.immfly.storeapi.exception;
 
-public class OrderNotDeletableException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class OrderNotDeletableException extends BusinessException {
     public OrderNotDeletableException(String message) {
-        super(message);
+        super(message, HttpStatus.CONFLICT);
     }
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.immfly.storeapi.exception;
 
-public class OrderNotUpdatableException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class OrderNotUpdatableException extends BusinessException {
     public OrderNotUpdatableException(String message) {
-        super(message);
+        super(message, HttpStatus.CONFLICT);
     }
 }
\ No newline at end of file
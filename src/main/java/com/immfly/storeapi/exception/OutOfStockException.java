@@ -1,7 +1,9 @@
 package com.immfly.storeapi.exception;
 
-public class OutOfStockException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class OutOfStockException extends BusinessException {
     public OutOfStockException(String message) {
-        super(message);
+        super(message, HttpStatus.BAD_REQUEST);
     }
 }
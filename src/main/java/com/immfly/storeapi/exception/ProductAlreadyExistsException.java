@@ -1,7 +1,9 @@
 package com.immfly.storeapi.exception;
 
-public class ProductAlreadyExistsException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class ProductAlreadyExistsException extends BusinessException {
     public ProductAlreadyExistsException(String message) {
-        super(message);
+        super(message, HttpStatus.CONFLICT);
     }
 }
@@ -1,7 +1,9 @@
 package com.immfly.storeapi.exception;
 
-public class ProductDeletionException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class ProductDeletionException extends BusinessException {
     public ProductDeletionException(String message) {
-        super(message);
+        super(message, HttpStatus.CONFLICT);
     }
 }
@@ -0,0 +1,9 @@
+package com.immfly.storeapi.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class UnsupportedExportFormatException extends BusinessException {
+    public UnsupportedExportFormatException(String message) {
+        super(message, HttpStatus.BAD_REQUEST);
+    }
+}
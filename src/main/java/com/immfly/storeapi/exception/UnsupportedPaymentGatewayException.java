@@ -1,7 +1,9 @@
 package com.immfly.storeapi.exception;
 
-public class UnsupportedPaymentGatewayException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class UnsupportedPaymentGatewayException extends BusinessException {
     public UnsupportedPaymentGatewayException(String message) {
-        super(message);
+        super(message, HttpStatus.BAD_REQUEST);
     }
 }
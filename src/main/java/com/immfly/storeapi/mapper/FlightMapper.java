@@ -0,0 +1,15 @@
+package com.immfly.storeapi.mapper;
+
+import com.immfly.storeapi.dto.FlightDTO;
+import com.immfly.storeapi.model.Flight;
+
+public class FlightMapper {
+
+    public static FlightDTO toDto(Flight flight) {
+        if (flight == null) {
+            return null;
+        }
+
+        return new FlightDTO(flight.getId(), flight.getStatus(), flight.getOpenedAt(), flight.getClosedAt());
+    }
+}
@@ -1,6 +1,7 @@
 package com.immfly.storeapi.mapper;
 
 import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.model.ArchivedOrder;
 import com.immfly.storeapi.model.Order;
 import com.immfly.storeapi.model.Product;
 import com.immfly.storeapi.model.ProductOrder;
@@ -15,8 +16,41 @@ public class OrderMapper {
             return null;
         }
 
+        OrderDTO dto = toDtoWithoutProducts(order);
+
+        if (order.getProductOrders() != null && !order.getProductOrders().isEmpty()) {
+            dto.setProductIds(
+                    order.getProductOrders().stream()
+                            .map(productOrder -> productOrder.getProduct().getId())
+                            .collect(Collectors.toList())
+            );
+        }
+
+        return dto;
+    }
+
+    // For callers that changed the order lines with bulk statements, which leave the loaded collection stale
+    public static OrderDTO toDto(Order order, List<Long> productIds) {
+        if (order == null) {
+            return null;
+        }
+
+        OrderDTO dto = toDtoWithoutProducts(order);
+        if (productIds != null && !productIds.isEmpty()) {
+            dto.setProductIds(productIds);
+        }
+
+        return dto;
+    }
+
+    public static OrderDTO toDto(ArchivedOrder order, List<Long> productIds) {
+        if (order == null) {
+            return null;
+        }
+
         OrderDTO dto = new OrderDTO();
         dto.setId(order.getId());
+        dto.setFlightId(order.getFlightId());
         dto.setBuyerEmail(order.getBuyerEmail());
         dto.setPaymentDate(order.getPaymentDate());
         dto.setPaymentStatus(order.getPaymentStatus());
@@ -24,18 +58,27 @@ public class OrderMapper {
         dto.setSeatLetter(order.getSeatLetter());
         dto.setSeatNumber(order.getSeatNumber());
         dto.setTotalPrice(order.getTotalPrice());
-
-        if (order.getProductOrders() != null && !order.getProductOrders().isEmpty()) {
-            dto.setProductIds(
-                    order.getProductOrders().stream()
-                            .map(productOrder -> productOrder.getProduct().getId())
-                            .collect(Collectors.toList())
-            );
+        if (productIds != null && !productIds.isEmpty()) {
+            dto.setProductIds(productIds);
         }
 
         return dto;
     }
 
+    private static OrderDTO toDtoWithoutProducts(Order order) {
+        OrderDTO dto = new OrderDTO();
+        dto.setId(order.getId());
+        dto.setFlightId(order.getFlightId());
+        dto.setBuyerEmail(order.getBuyerEmail());
+        dto.setPaymentDate(order.getPaymentDate());
+        dto.setPaymentStatus(order.getPaymentStatus());
+        dto.setStatus(order.getStatus());
+        dto.setSeatLetter(order.getSeatLetter());
+        dto.setSeatNumber(order.getSeatNumber());
+        dto.setTotalPrice(order.getTotalPrice());
+        return dto;
+    }
+
     public static Order toEntity(OrderDTO dto) {
         if (dto == null) {
             return null;
@@ -43,6 +86,7 @@ public class OrderMapper {
 
         Order order = new Order();
         order.setId(dto.getId());
+        order.setFlightId(dto.getFlightId());
         order.setBuyerEmail(dto.getBuyerEmail());
         order.setPaymentDate(dto.getPaymentDate());
         order.setPaymentStatus(dto.getPaymentStatus());
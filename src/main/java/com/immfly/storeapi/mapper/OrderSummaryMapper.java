@@ -0,0 +1,27 @@
+package com.immfly.storeapi.mapper;
+
+import com.immfly.storeapi.dto.OrderSummaryDTO;
+import com.immfly.storeapi.model.OrderSummary;
+
+public class OrderSummaryMapper {
+
+    public static OrderSummaryDTO toDto(OrderSummary summary) {
+        if (summary == null) {
+            return null;
+        }
+
+        OrderSummaryDTO dto = new OrderSummaryDTO();
+        dto.setOrderId(summary.getOrderId());
+        dto.setFlightId(summary.getFlightId());
+        dto.setBuyerEmail(summary.getBuyerEmail());
+        dto.setSeatLetter(summary.getSeatLetter());
+        dto.setSeatNumber(summary.getSeatNumber());
+        dto.setStatus(summary.getStatus());
+        dto.setPaymentStatus(summary.getPaymentStatus());
+        dto.setTotalPrice(summary.getTotalPrice());
+        dto.setItemCount(summary.getItemCount());
+        dto.setProductNames(summary.getProductNames());
+
+        return dto;
+    }
+}
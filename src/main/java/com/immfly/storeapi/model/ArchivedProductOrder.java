@@ -0,0 +1,35 @@
+package com.immfly.storeapi.model;
+
+import jakarta.persistence.*;
+
+// Keeps the product id without a foreign key, so archived lines never slow down product writes
+@Entity
+@Table(name = "products_orders_archive", indexes = @Index(name = "idx_products_orders_archive_product", columnList = "product_id"))
+public class ArchivedProductOrder {
+
+    @EmbeddedId
+    private ProductOrderId id;
+
+    @Column(name = "flight_id", length = 32, nullable = false)
+    private String flightId;
+
+    public ArchivedProductOrder() {
+
+    }
+
+    public ProductOrderId getId() {
+        return id;
+    }
+
+    public void setId(ProductOrderId id) {
+        this.id = id;
+    }
+
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public void setFlightId(String flightId) {
+        this.flightId = flightId;
+    }
+}
@@ -0,0 +1,81 @@
+package com.immfly.storeapi.model;
+
+import com.immfly.storeapi.enums.CatalogChangeType;
+import com.immfly.storeapi.enums.CatalogEntityType;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "catalog_changes", indexes = @Index(name = "idx_catalog_changes_entity", columnList = "entity_type, entity_id"))
+public class CatalogChange {
+
+    // Assigned from CatalogVersion when the writing transaction commits
+    @Id
+    @Column(name = "version")
+    private Long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private CatalogEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false)
+    private CatalogChangeType changeType;
+
+    private LocalDateTime changedAt;
+
+    public CatalogChange() {
+
+    }
+
+    public CatalogChange(CatalogEntityType entityType, Long entityId, CatalogChangeType changeType) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.changeType = changeType;
+        this.changedAt = LocalDateTime.now();
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public CatalogEntityType getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(CatalogEntityType entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public CatalogChangeType getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(CatalogChangeType changeType) {
+        this.changeType = changeType;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+}
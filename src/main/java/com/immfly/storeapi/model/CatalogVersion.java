@@ -0,0 +1,53 @@
+package com.immfly.storeapi.model;
+
+import jakarta.persistence.*;
+
+// Single row handing out change log versions; writers hold its lock until they commit
+@Entity
+@Table(name = "catalog_version")
+public class CatalogVersion {
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Deltas from a version below this one may have lost compacted deletions
+    @Column(name = "compacted_through", nullable = false)
+    private long compactedThrough;
+
+    public CatalogVersion() {
+
+    }
+
+    public CatalogVersion(Long id, long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getCompactedThrough() {
+        return compactedThrough;
+    }
+
+    public void setCompactedThrough(long compactedThrough) {
+        this.compactedThrough = compactedThrough;
+    }
+}
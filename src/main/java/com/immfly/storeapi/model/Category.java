@@ -1,12 +1,13 @@
 package com.immfly.storeapi.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "categories")
+@Table(name = "categories", indexes = @Index(name = "idx_categories_parent", columnList = "parent_category_id"))
 public class Category {
 
     @Id
@@ -20,6 +21,11 @@ public class Category {
     @JoinColumn(name = "parent_category_id")
     private Category parentCategory;
 
+    // Products directly in this category; only changed by increments, never by saving the entity
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long productCount;
+
     @OneToMany(mappedBy = "parentCategory")
     private List<Category> subCategories = new ArrayList<>();
 
@@ -69,4 +75,12 @@ public class Category {
     public void setProducts(List<Product> products) {
         this.products = products;
     }
+
+    public long getProductCount() {
+        return productCount;
+    }
+
+    public void setProductCount(long productCount) {
+        this.productCount = productCount;
+    }
 }
@@ -0,0 +1,65 @@
+package com.immfly.storeapi.model;
+
+import com.immfly.storeapi.enums.FlightStatus;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "flights")
+public class Flight {
+
+    @Id
+    @Column(name = "flight_id", length = 32)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FlightStatus status;
+
+    private LocalDateTime openedAt;
+
+    private LocalDateTime closedAt;
+
+    public Flight() {
+
+    }
+
+    public Flight(String id) {
+        this.id = id;
+        this.status = FlightStatus.OPEN;
+        this.openedAt = LocalDateTime.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public FlightStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(FlightStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getOpenedAt() {
+        return openedAt;
+    }
+
+    public void setOpenedAt(LocalDateTime openedAt) {
+        this.openedAt = openedAt;
+    }
+
+    public LocalDateTime getClosedAt() {
+        return closedAt;
+    }
+
+    public void setClosedAt(LocalDateTime closedAt) {
+        this.closedAt = closedAt;
+    }
+}
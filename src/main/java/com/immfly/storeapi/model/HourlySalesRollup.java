@@ -0,0 +1,65 @@
+package com.immfly.storeapi.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "sales_hourly_rollups", indexes = @Index(name = "idx_sales_hourly_rollups_hour", columnList = "hour_start"))
+public class HourlySalesRollup {
+
+    @EmbeddedId
+    private HourlySalesRollupId id;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal revenue;
+
+    public HourlySalesRollup() {
+
+    }
+
+    public HourlySalesRollup(HourlySalesRollupId id, long orderCount, long units, BigDecimal revenue) {
+        this.id = id;
+        this.orderCount = orderCount;
+        this.units = units;
+        this.revenue = revenue;
+    }
+
+    public HourlySalesRollupId getId() {
+        return id;
+    }
+
+    public void setId(HourlySalesRollupId id) {
+        this.id = id;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,55 @@
+package com.immfly.storeapi.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Embeddable
+public class HourlySalesRollupId implements Serializable {
+    @Column(name = "flight_id", length = 32)
+    private String flightId;
+
+    @Column(name = "hour_start")
+    private LocalDateTime hourStart;
+
+    public HourlySalesRollupId() {
+
+    }
+
+    public HourlySalesRollupId(String flightId, LocalDateTime hourStart) {
+        this.flightId = flightId;
+        this.hourStart = hourStart;
+    }
+
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public void setFlightId(String flightId) {
+        this.flightId = flightId;
+    }
+
+    public LocalDateTime getHourStart() {
+        return hourStart;
+    }
+
+    public void setHourStart(LocalDateTime hourStart) {
+        this.hourStart = hourStart;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HourlySalesRollupId that)) return false;
+        return Objects.equals(flightId, that.flightId) &&
+                Objects.equals(hourStart, that.hourStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(flightId, hourStart);
+    }
+}
@@ -11,7 +11,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_flight", columnList = "flight_id, status"),
+        @Index(name = "idx_orders_closed_at", columnList = "closed_at")
+})
 public class Order {
 
     @Id
@@ -19,6 +22,9 @@ public class Order {
     @Column(name = "order_id")
     private Long id;
 
+    @Column(name = "flight_id", length = 32, nullable = false, updatable = false)
+    private String flightId;
+
     private String buyerEmail;
 
     private String cardToken;
@@ -40,6 +46,14 @@ public class Order {
 
     private BigDecimal totalPrice;
 
+    // Set when the order becomes FINISHED or DROPPED; the archiver moves orders by it
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "order")
     private List<ProductOrder> productOrders = new ArrayList<>();
 
@@ -55,6 +69,14 @@ public class Order {
         this.id = id;
     }
 
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public void setFlightId(String flightId) {
+        this.flightId = flightId;
+    }
+
     public String getBuyerEmail() {
         return buyerEmail;
     }
@@ -128,6 +150,14 @@ public class Order {
         this.totalPrice = totalPrice;
     }
 
+    public LocalDateTime getClosedAt() {
+        return closedAt;
+    }
+
+    public void setClosedAt(LocalDateTime closedAt) {
+        this.closedAt = closedAt;
+    }
+
     public List<ProductOrder> getProductOrders() {
         return productOrders;
     }
@@ -135,4 +165,12 @@ public class Order {
     public void setProductOrders(List<ProductOrder> productOrders) {
         this.productOrders = productOrders;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
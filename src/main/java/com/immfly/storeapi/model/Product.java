@@ -1,12 +1,14 @@
 package com.immfly.storeapi.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_category", columnList = "category_id"))
 public class Product {
 
     @Id
@@ -20,8 +22,19 @@ public class Product {
 
     private String imageUrl;
 
+    // Written on insert, then only by explicit stock updates (checkout, the stock ledger, imports), never by saving the entity
+    @Column(updatable = false)
     private Integer stock;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Order lines referencing this product; only changed by increments, never by saving the entity
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long orderCount;
+
     @ManyToOne
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
@@ -88,4 +101,20 @@ public class Product {
     public void setStock(Integer stock) {
         this.stock = stock;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
 }
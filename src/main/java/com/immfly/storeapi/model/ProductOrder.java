@@ -3,12 +3,19 @@ package com.immfly.storeapi.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "products_orders")
+@Table(name = "products_orders", indexes = {
+        @Index(name = "idx_products_orders_product", columnList = "product_id"),
+        @Index(name = "idx_products_orders_order", columnList = "order_id")
+})
 public class ProductOrder {
 
     @EmbeddedId
     private ProductOrderId id;
 
+    // Copied from the order, so the line lives in the same flight partition
+    @Column(name = "flight_id", length = 32, nullable = false)
+    private String flightId;
+
     @ManyToOne
     @JoinColumn(name = "product_id", insertable = false, updatable = false)
     private Product product;
@@ -29,6 +36,14 @@ public class ProductOrder {
         this.id = id;
     }
 
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public void setFlightId(String flightId) {
+        this.flightId = flightId;
+    }
+
     public Product getProduct() {
         return product;
     }
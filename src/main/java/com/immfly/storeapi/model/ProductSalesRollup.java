@@ -0,0 +1,53 @@
+package com.immfly.storeapi.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "sales_product_rollups", indexes = @Index(name = "idx_sales_product_rollups_units", columnList = "flight_id, units"))
+public class ProductSalesRollup {
+
+    @EmbeddedId
+    private ProductSalesRollupId id;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal revenue;
+
+    public ProductSalesRollup() {
+
+    }
+
+    public ProductSalesRollup(ProductSalesRollupId id, long units, BigDecimal revenue) {
+        this.id = id;
+        this.units = units;
+        this.revenue = revenue;
+    }
+
+    public ProductSalesRollupId getId() {
+        return id;
+    }
+
+    public void setId(ProductSalesRollupId id) {
+        this.id = id;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,54 @@
+package com.immfly.storeapi.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class ProductSalesRollupId implements Serializable {
+    @Column(name = "flight_id", length = 32)
+    private String flightId;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    public ProductSalesRollupId() {
+
+    }
+
+    public ProductSalesRollupId(String flightId, Long productId) {
+        this.flightId = flightId;
+        this.productId = productId;
+    }
+
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public void setFlightId(String flightId) {
+        this.flightId = flightId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProductSalesRollupId that)) return false;
+        return Objects.equals(flightId, that.flightId) &&
+                Objects.equals(productId, that.productId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(flightId, productId);
+    }
+}
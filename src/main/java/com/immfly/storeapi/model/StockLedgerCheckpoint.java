@@ -0,0 +1,53 @@
+package com.immfly.storeapi.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_ledger_checkpoints")
+public class StockLedgerCheckpoint {
+
+    @Id
+    @Column(name = "ledger_name")
+    private String ledgerName;
+
+    @Column(name = "segment", nullable = false)
+    private long segment;
+
+    private LocalDateTime flushedAt;
+
+    public StockLedgerCheckpoint() {
+
+    }
+
+    public StockLedgerCheckpoint(String ledgerName, long segment) {
+        this.ledgerName = ledgerName;
+        this.segment = segment;
+        this.flushedAt = LocalDateTime.now();
+    }
+
+    public String getLedgerName() {
+        return ledgerName;
+    }
+
+    public void setLedgerName(String ledgerName) {
+        this.ledgerName = ledgerName;
+    }
+
+    public long getSegment() {
+        return segment;
+    }
+
+    public void setSegment(long segment) {
+        this.segment = segment;
+    }
+
+    public LocalDateTime getFlushedAt() {
+        return flushedAt;
+    }
+
+    public void setFlushedAt(LocalDateTime flushedAt) {
+        this.flushedAt = flushedAt;
+    }
+}
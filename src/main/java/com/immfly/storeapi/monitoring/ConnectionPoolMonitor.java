@@ -0,0 +1,40 @@
+package com.immfly.storeapi.monitoring;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+// Hikari's pending gauge rarely catches short peaks between scrapes; sample it into a histogram
+@Component
+public class ConnectionPoolMonitor {
+
+    private final HikariDataSource hikariDataSource;
+    private final DistributionSummary pendingThreads;
+
+    public ConnectionPoolMonitor(DataSource dataSource, MeterRegistry meterRegistry) throws SQLException {
+        this.hikariDataSource = dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        this.pendingThreads = DistributionSummary.builder("hikaricp.connections.pending.sampled")
+                .description("Threads waiting for a connection, sampled every datasource.pool.sample-interval-ms")
+                .tag("pool", hikariDataSource == null || hikariDataSource.getPoolName() == null ? "default" : hikariDataSource.getPoolName())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedRateString = "${datasource.pool.sample-interval-ms:250}")
+    public void sample() {
+        if (hikariDataSource == null) {
+            return;
+        }
+        // Null until the pool has been started by the first connection request
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        if (pool != null) {
+            pendingThreads.record(pool.getThreadsAwaitingConnection());
+        }
+    }
+}
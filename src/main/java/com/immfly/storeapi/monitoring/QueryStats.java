@@ -0,0 +1,47 @@
+package com.immfly.storeapi.monitoring;
+
+// Per-thread counts between begin() and end(); an inner scope adds its counts to the outer one
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final QueryStats outer;
+    private int statements;
+    private long nanos;
+
+    private QueryStats(QueryStats outer) {
+        this.outer = outer;
+    }
+
+    public static QueryStats begin() {
+        QueryStats stats = new QueryStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void record(long nanos) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.nanos += nanos;
+        }
+    }
+
+    public void end() {
+        if (outer == null) {
+            CURRENT.remove();
+            return;
+        }
+        outer.statements += statements;
+        outer.nanos += nanos;
+        CURRENT.set(outer);
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,41 @@
+package com.immfly.storeapi.monitoring;
+
+import com.immfly.storeapi.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Stays UP while replicas are down: their reads go to the primary, which only costs capacity
+@Component
+@ConditionalOnExpression("!'${datasource.replicas.urls:}'.isBlank()")
+public class ReplicaHealthIndicator implements HealthIndicator {
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Value("${datasource.replicas.health-check-timeout-seconds:2}")
+    private int timeoutSeconds = 2;
+
+    public ReplicaHealthIndicator(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval-ms:5000}")
+    public void check() {
+        replicaRoutingDataSource.checkReplicas(timeoutSeconds);
+    }
+
+    @Override
+    public Health health() {
+        Map<String, Boolean> replicas = replicaRoutingDataSource.getReplicaHealth();
+        long healthy = replicas.values().stream().filter(Boolean::booleanValue).count();
+        return Health.up()
+                .withDetail("replicas", replicas)
+                .withDetail("reads", healthy == 0 ? "primary" : "replicas")
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.immfly.storeapi.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immfly.storeapi.model.OutboxEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private BufferedWriter writer;
+
+    public FileOutboxSink(ObjectMapper objectMapper, @Value("${outbox.sink.file.path:data/order-events.ndjson}") String path) {
+        this.objectMapper = objectMapper;
+        this.path = Path.of(path);
+    }
+
+    @Override
+    public synchronized void publish(OutboxEvent event) throws IOException {
+        if (writer == null) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("eventId", event.getId());
+        line.put("eventType", event.getEventType());
+        line.put("orderId", event.getOrderId());
+        line.put("createdAt", event.getCreatedAt());
+        line.put("order", objectMapper.readTree(event.getPayload()));
+
+        writer.write(objectMapper.writeValueAsString(line));
+        writer.newLine();
+        writer.flush();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.immfly.storeapi.outbox;
+
+import com.immfly.storeapi.model.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingOutboxSink implements OutboxSink {
+    private static final Logger log = LoggerFactory.getLogger(LoggingOutboxSink.class);
+
+    @Override
+    public void publish(OutboxEvent event) {
+        log.info("Order event {} #{} for order {}: {}", event.getEventType(), event.getId(), event.getOrderId(), event.getPayload());
+    }
+}
@@ -0,0 +1,8 @@
+package com.immfly.storeapi.outbox;
+
+import com.immfly.storeapi.model.OutboxEvent;
+
+// May see an event more than once; throwing stops the batch until the next poll
+public interface OutboxSink {
+    void publish(OutboxEvent event) throws Exception;
+}
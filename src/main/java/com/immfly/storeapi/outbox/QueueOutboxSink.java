@@ -0,0 +1,33 @@
+package com.immfly.storeapi.outbox;
+
+import com.immfly.storeapi.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// A full queue makes the relay back off; events then wait in the outbox table
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "queue")
+public class QueueOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<OutboxEvent> queue;
+
+    public QueueOutboxSink(@Value("${outbox.sink.queue.capacity:10000}") int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void publish(OutboxEvent event) {
+        if (!queue.offer(event)) {
+            throw new IllegalStateException("Outbox queue is full");
+        }
+    }
+
+    public OutboxEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+}
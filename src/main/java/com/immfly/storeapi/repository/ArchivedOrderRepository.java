@@ -0,0 +1,10 @@
+package com.immfly.storeapi.repository;
+
+import com.immfly.storeapi.model.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+}
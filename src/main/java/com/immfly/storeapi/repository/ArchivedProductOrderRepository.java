@@ -0,0 +1,18 @@
+package com.immfly.storeapi.repository;
+
+import com.immfly.storeapi.model.ArchivedProductOrder;
+import com.immfly.storeapi.model.ProductOrderId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedProductOrderRepository extends JpaRepository<ArchivedProductOrder, ProductOrderId> {
+    boolean existsByIdProductId(Long productId);
+
+    @Query("select po.id.productId from ArchivedProductOrder po where po.id.orderId = :orderId order by po.id.productId")
+    List<Long> findProductIdsByOrderId(@Param("orderId") Long orderId);
+}
@@ -0,0 +1,28 @@
+package com.immfly.storeapi.repository;
+
+import com.immfly.storeapi.enums.CatalogChangeType;
+import com.immfly.storeapi.model.CatalogChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+    List<CatalogChange> findByVersionBetweenOrderByVersionAsc(Long fromVersion, Long toVersion);
+
+    @Query("select coalesce(max(c.version), 0) from CatalogChange c")
+    long findLatestVersion();
+
+    // Selected first and deleted by id: MySQL rejects a DELETE whose subquery reads the same table
+    @Query("select c.version from CatalogChange c where exists (" +
+            "select n.version from CatalogChange n where n.entityType = c.entityType " +
+            "and n.entityId = c.entityId and n.version > c.version)")
+    List<Long> findSupersededVersions();
+
+    @Query("select c.version from CatalogChange c where c.changeType = :changeType and c.changedAt < :before")
+    List<Long> findVersionsByChangeTypeAndChangedAtBefore(@Param("changeType") CatalogChangeType changeType, @Param("before") LocalDateTime before);
+}
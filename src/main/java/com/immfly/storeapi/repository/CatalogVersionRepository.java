@@ -0,0 +1,24 @@
+package com.immfly.storeapi.repository;
+
+import com.immfly.storeapi.model.CatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, Long> {
+
+    // Takes the row lock, which the caller's transaction keeps until it ends
+    @Modifying
+    @Query("update CatalogVersion v set v.version = v.version + :count where v.id = :id")
+    int advance(@Param("id") Long id, @Param("count") long count);
+
+    @Query("select v.version from CatalogVersion v where v.id = :id")
+    long findVersion(@Param("id") Long id);
+
+    @Modifying
+    @Query("update CatalogVersion v set v.compactedThrough = :version where v.id = :id and v.compactedThrough < :version")
+    int raiseCompactedThrough(@Param("id") Long id, @Param("version") long version);
+}
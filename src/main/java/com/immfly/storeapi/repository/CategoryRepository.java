@@ -1,10 +1,14 @@
 package com.immfly.storeapi.repository;
 
+import com.immfly.storeapi.dto.CategoryProductCountDTO;
 import com.immfly.storeapi.model.Category;
-import com.immfly.storeapi.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,12 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     boolean existsByName(String name);
     Optional<Category> findByName(String name);
 
+    boolean existsByParentCategoryId(Long parentCategoryId);
+
+    @Query("select new com.immfly.storeapi.dto.CategoryProductCountDTO(c.id, c.productCount) from Category c order by c.id")
+    List<CategoryProductCountDTO> findProductCounts();
+
+    @Modifying
+    @Query("update Category c set c.productCount = c.productCount + :delta where c.id = :id")
+    int adjustProductCount(@Param("id") Long id, @Param("delta") long delta);
 }
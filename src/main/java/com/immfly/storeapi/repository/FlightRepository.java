@@ -0,0 +1,24 @@
+package com.immfly.storeapi.repository;
+
+import com.immfly.storeapi.enums.FlightStatus;
+import com.immfly.storeapi.model.Flight;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FlightRepository extends JpaRepository<Flight, String> {
+    // Held until the caller commits, so closing the flight waits for orders being placed on it
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select f from Flight f where f.id = :id")
+    Optional<Flight> findForShareById(@Param("id") String id);
+
+    List<Flight> findByIdInAndStatus(Collection<String> ids, FlightStatus status);
+}
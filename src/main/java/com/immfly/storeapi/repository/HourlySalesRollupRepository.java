@@ -0,0 +1,23 @@
+package com.immfly.storeapi.repository;
+
+import com.immfly.storeapi.dto.HourlySalesDTO;
+import com.immfly.storeapi.model.HourlySalesRollup;
+import com.immfly.storeapi.model.HourlySalesRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface HourlySalesRollupRepository extends JpaRepository<HourlySalesRollup, HourlySalesRollupId> {
+    // A null flight sums every flight's rollups
+    @Query("select new com.immfly.storeapi.dto.HourlySalesDTO(h.id.hourStart, sum(h.orderCount), sum(h.units), sum(h.revenue)) " +
+            "from HourlySalesRollup h " +
+            "where h.id.hourStart between :from and :to and (:flightId is null or h.id.flightId = :flightId) " +
+            "group by h.id.hourStart " +
+            "order by h.id.hourStart asc")
+    List<HourlySalesDTO> findHourlySales(@Param("flightId") String flightId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
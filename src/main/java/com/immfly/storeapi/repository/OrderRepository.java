@@ -1,10 +1,17 @@
 package com.immfly.storeapi.repository;
 
+import com.immfly.storeapi.enums.OrderStatus;
 import com.immfly.storeapi.model.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    List<Order> findByFlightIdOrderById(String flightId);
+
+    long countByFlightIdAndStatus(String flightId, OrderStatus status);
 
+    boolean existsByFlightId(String flightId);
 }
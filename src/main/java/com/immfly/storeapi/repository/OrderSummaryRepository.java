@@ -0,0 +1,30 @@
+package com.immfly.storeapi.repository;
+
+import com.immfly.storeapi.dto.SeatSummaryDTO;
+import com.immfly.storeapi.enums.OrderStatus;
+import com.immfly.storeapi.model.OrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+    @Query("select s from OrderSummary s where (:flightId is null or s.flightId = :flightId) " +
+            "and (:status is null or s.status = :status) " +
+            "and (:seatLetter is null or s.seatLetter = :seatLetter) " +
+            "and (:seatNumber is null or s.seatNumber = :seatNumber) " +
+            "order by s.seatNumber, s.seatLetter, s.orderId")
+    List<OrderSummary> findByFilters(@Param("flightId") String flightId,
+                                     @Param("status") OrderStatus status,
+                                     @Param("seatLetter") Character seatLetter,
+                                     @Param("seatNumber") Integer seatNumber);
+
+    @Query("select new com.immfly.storeapi.dto.SeatSummaryDTO(s.seatLetter, s.seatNumber, count(s), sum(s.itemCount), sum(s.totalPrice)) " +
+            "from OrderSummary s where (:flightId is null or s.flightId = :flightId) " +
+            "and (:status is null or s.status = :status) " +
+            "group by s.seatNumber, s.seatLetter order by s.seatNumber, s.seatLetter")
+    List<SeatSummaryDTO> findSeatTotals(@Param("flightId") String flightId, @Param("status") OrderStatus status);
+}
@@ -4,9 +4,24 @@ import com.immfly.storeapi.model.Order;
 import com.immfly.storeapi.model.ProductOrder;
 import com.immfly.storeapi.model.ProductOrderId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface ProductOrderRepository extends JpaRepository<ProductOrder, ProductOrderId> {
+public interface ProductOrderRepository extends JpaRepository<ProductOrder, ProductOrderId>, ProductOrderRepositoryCustom {
     void deleteAllByOrder(Order order);
+
+    boolean existsByIdProductId(Long productId);
+
+    @Query("select po.id.productId from ProductOrder po where po.id.orderId = :orderId")
+    List<Long> findProductIdsByOrderId(@Param("orderId") Long orderId);
+
+    @Modifying
+    @Query("delete from ProductOrder po where po.id.orderId = :orderId and po.id.productId in :productIds")
+    int deleteByOrderIdAndProductIdIn(@Param("orderId") Long orderId, @Param("productIds") Collection<Long> productIds);
 }
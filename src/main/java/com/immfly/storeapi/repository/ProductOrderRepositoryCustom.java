@@ -0,0 +1,7 @@
+package com.immfly.storeapi.repository;
+
+import java.util.Collection;
+
+public interface ProductOrderRepositoryCustom {
+    void insertLinks(Long orderId, String flightId, Collection<Long> productIds);
+}
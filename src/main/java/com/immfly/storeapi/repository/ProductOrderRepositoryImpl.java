@@ -0,0 +1,27 @@
+package com.immfly.storeapi.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// One JDBC batch; saving ProductOrder entities costs a select and an insert per line, as their ids are assigned
+public class ProductOrderRepositoryImpl implements ProductOrderRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductOrderRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertLinks(Long orderId, String flightId, Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        jdbcTemplate.batchUpdate("INSERT INTO products_orders (order_id, product_id, flight_id) VALUES (?, ?, ?)", ids, ids.size(), (ps, productId) -> {
+            ps.setLong(1, orderId);
+            ps.setLong(2, productId);
+            ps.setString(3, flightId);
+        });
+    }
+}
@@ -1,13 +1,33 @@
 package com.immfly.storeapi.repository;
 
+import com.immfly.storeapi.dto.ProductOrderCountDTO;
 import com.immfly.storeapi.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     boolean existsByName(String name);
     Optional<Product> findByName(String name);
+
+    boolean existsByCategoryId(Long categoryId);
+
+    // Does not bump the version: the counter is not part of what a product edit can conflict with
+    @Modifying
+    @Query("update Product p set p.orderCount = p.orderCount + :delta where p.id in :ids")
+    int adjustOrderCount(@Param("ids") Collection<Long> ids, @Param("delta") long delta);
+
+    @Query("select new com.immfly.storeapi.dto.ProductOrderCountDTO(p.id, p.orderCount) from Product p order by p.id")
+    List<ProductOrderCountDTO> findOrderCounts();
+
+    @Modifying
+    @Query("update Product p set p.stock = p.stock - 1, p.version = p.version + 1 where p.id = :id and p.stock > 0")
+    int decrementStock(@Param("id") Long id);
 }
@@ -0,0 +1,30 @@
+package com.immfly.storeapi.repository;
+
+import com.immfly.storeapi.dto.ProductSalesDTO;
+import com.immfly.storeapi.model.ProductSalesRollup;
+import com.immfly.storeapi.model.ProductSalesRollupId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductSalesRollupRepository extends JpaRepository<ProductSalesRollup, ProductSalesRollupId> {
+    // A null flight sums every flight's rollups
+    @Query("select new com.immfly.storeapi.dto.ProductSalesDTO(r.id.productId, p.name, sum(r.units), sum(r.revenue)) " +
+            "from ProductSalesRollup r left join Product p on p.id = r.id.productId " +
+            "where :flightId is null or r.id.flightId = :flightId " +
+            "group by r.id.productId, p.name " +
+            "order by sum(r.units) desc, r.id.productId asc")
+    List<ProductSalesDTO> findProductSales(@Param("flightId") String flightId, Pageable pageable);
+
+    // One row per category that has sales of its own; subtree totals are summed by the caller
+    @Query("select p.category.id, sum(r.units), sum(r.revenue) " +
+            "from ProductSalesRollup r join Product p on p.id = r.id.productId " +
+            "where p.category is not null and (:flightId is null or r.id.flightId = :flightId) " +
+            "group by p.category.id")
+    List<Object[]> sumByCategory(@Param("flightId") String flightId);
+}
@@ -0,0 +1,9 @@
+package com.immfly.storeapi.repository;
+
+import com.immfly.storeapi.model.StockLedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockLedgerCheckpointRepository extends JpaRepository<StockLedgerCheckpoint, String> {
+}
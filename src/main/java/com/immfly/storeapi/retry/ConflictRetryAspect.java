@@ -0,0 +1,77 @@
+package com.immfly.storeapi.retry;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Ordered ahead of the transaction interceptor, so each attempt re-reads in a fresh transaction
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConflictRetryAspect {
+    private static final Logger log = LoggerFactory.getLogger(ConflictRetryAspect.class);
+
+    @Value("${retry.conflict.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${retry.conflict.initial-backoff-ms:20}")
+    private long initialBackoffMs = 20;
+
+    @Value("${retry.conflict.max-backoff-ms:200}")
+    private long maxBackoffMs = 200;
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    @Around("@annotation(com.immfly.storeapi.retry.RetryOnConflict)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint) throws Throwable {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException ex) {
+                // Inside a caller's transaction the stale state is the caller's; only the outermost call can retry
+                if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                    throw ex;
+                }
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    log.warn("Giving up on {} after {} conflicting attempts", joinPoint.getSignature().toShortString(), attempt);
+                    throw ex;
+                }
+
+                retries.increment();
+                backoff(attempt, ex);
+            }
+        }
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    private void backoff(int attempt, OptimisticLockingFailureException conflict) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.immfly.storeapi.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immfly.storeapi.exception.GlobalExceptionHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    private final List<Rule> rules;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public RateLimitFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           @Value("${ratelimit.enabled:true}") boolean enabled,
+                           @Value("${ratelimit.login.burst:10}") int loginBurst,
+                           @Value("${ratelimit.login.per-minute:30}") long loginPerMinute,
+                           @Value("${ratelimit.finish.burst:3}") int finishBurst,
+                           @Value("${ratelimit.finish.per-minute:12}") long finishPerMinute,
+                           @Value("${ratelimit.default.burst:100}") int defaultBurst,
+                           @Value("${ratelimit.default.per-minute:1200}") long defaultPerMinute) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        // First match wins
+        this.rules = List.of(
+                new Rule("login", "/auth/login", loginBurst, loginPerMinute),
+                new Rule("finish", "/orders/*/finish", finishBurst, finishPerMinute),
+                new Rule("default", "/**", defaultBurst, defaultPerMinute));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Stand-in for the external payment gateway, called by this service itself
+        return !enabled || request.getServletPath().startsWith("/mock-payment");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Rule rule = ruleFor(request.getServletPath());
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(rule.name() + ':' + clientKey(request),
+                key -> new TokenBucket(rule.burst(), rule.perMinute(), now));
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        meterRegistry.counter("http.server.requests.rate.limited", "rule", rule.name()).increment();
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), GlobalExceptionHandler.errorBody(
+                HttpStatus.TOO_MANY_REQUESTS, List.of("Too many requests, retry in " + retryAfterSeconds + " s")));
+    }
+
+    @Scheduled(fixedDelayString = "${ratelimit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        // A request that still holds an evicted bucket only spends from a bucket that was full anyway
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private Rule ruleFor(String path) {
+        for (Rule rule : rules) {
+            if (PATHS.match(rule.pattern(), path)) {
+                return rule;
+            }
+        }
+        throw new IllegalStateException("No rate limit rule matches " + path);
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private record Rule(String name, String pattern, int burst, long perMinute) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.immfly.storeapi.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Generic cell rate algorithm: the bucket is the instant it will be full again, moved by compare-and-set
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong fullAtNanos;
+
+    public TokenBucket(int burst, long perMinute, long nowNanos) {
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+        this.toleranceNanos = (burst - 1) * intervalNanos;
+        this.fullAtNanos = new AtomicLong(nowNanos);
+    }
+
+    // 0 if the request may go ahead, otherwise the nanoseconds until a token is available
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long fullAt = fullAtNanos.get();
+            long from = fullAt - nowNanos < 0 ? nowNanos : fullAt;
+            long wait = from - nowNanos - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAtNanos.compareAndSet(fullAt, from + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    // A full bucket behaves like a new one, so it can be dropped and recreated on demand
+    public boolean isFull(long nowNanos) {
+        return fullAtNanos.get() - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.CatalogChangesDTO;
+import com.immfly.storeapi.enums.CatalogEntityType;
+
+import java.util.List;
+
+public interface CatalogChangeService {
+    void recordUpsert(CatalogEntityType entityType, Long entityId);
+    void recordUpserts(CatalogEntityType entityType, List<Long> entityIds);
+    void recordDeletion(CatalogEntityType entityType, Long entityId);
+    CatalogChangesDTO getChangesSince(long sinceVersion);
+    int compact();
+}
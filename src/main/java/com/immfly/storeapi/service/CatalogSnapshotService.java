@@ -0,0 +1,16 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.CategoryDTO;
+import com.immfly.storeapi.dto.ProductDTO;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CatalogSnapshotService {
+    byte[] exportSnapshot();
+    void importSnapshot(byte[] snapshot);
+    Optional<ProductDTO> findProduct(Long id);
+    Optional<List<ProductDTO>> getProducts();
+    Optional<CategoryDTO> findCategory(Long id);
+    Optional<List<CategoryDTO>> getCategories();
+}
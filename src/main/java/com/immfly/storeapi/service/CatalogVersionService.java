@@ -0,0 +1,10 @@
+package com.immfly.storeapi.service;
+
+public interface CatalogVersionService {
+    long getCurrentVersion();
+    long getCompactedThrough();
+    long reserveVersions(int count);
+    void publishVersion(long version);
+    void raiseCompactedThrough(long version);
+    void refresh();
+}
@@ -1,6 +1,7 @@
 package com.immfly.storeapi.service;
 
 import com.immfly.storeapi.dto.CategoryDTO;
+import com.immfly.storeapi.dto.CategoryProductCountDTO;
 
 import java.util.List;
 
@@ -8,6 +9,7 @@ public interface CategoryService {
     CategoryDTO getCategoryById(Long id);
     CategoryDTO createCategory(CategoryDTO categoryDTO);
     List<CategoryDTO> getAllCategories();
+    List<CategoryProductCountDTO> getProductCounts();
     CategoryDTO updateCategory(Long id, CategoryDTO categoryDTO);
     void deleteCategory(Long id);
 }
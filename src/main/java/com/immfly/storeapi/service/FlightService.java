@@ -0,0 +1,14 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.FlightDTO;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface FlightService {
+    FlightDTO getFlight(String flightId);
+    FlightDTO openFlight(String flightId);
+    FlightDTO closeFlight(String flightId);
+    void requireOpen(String flightId);
+    Set<String> findOpenFlights(Collection<String> flightIds);
+}
@@ -0,0 +1,11 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.OrderDTO;
+
+import java.util.Optional;
+
+public interface OrderArchiveService {
+    int archive();
+    int archiveFlight(String flightId);
+    Optional<OrderDTO> findOrder(Long id);
+}
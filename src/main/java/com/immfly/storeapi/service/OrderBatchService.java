@@ -0,0 +1,10 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.OrderBatchResultDTO;
+import com.immfly.storeapi.dto.OrderDTO;
+
+import java.util.List;
+
+public interface OrderBatchService {
+    OrderBatchResultDTO createOrders(List<OrderDTO> orders);
+}
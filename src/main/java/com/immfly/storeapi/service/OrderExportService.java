@@ -0,0 +1,11 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface OrderExportService {
+    long exportOrders(ExportFormat format, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException;
+}
@@ -8,7 +8,7 @@ import java.util.List;
 public interface OrderService {
     OrderDTO getOrderById(Long id);
     OrderDTO createOrder(OrderDTO order);
-    List<OrderDTO> getAllOrders();
+    List<OrderDTO> getAllOrders(String flightId);
     OrderDTO updateOrder(Long id, OrderDTO order);
     void deleteOrder(Long id);
     OrderDTO finishOrder(Long id, FinishOrderRequest request);
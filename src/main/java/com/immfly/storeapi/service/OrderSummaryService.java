@@ -0,0 +1,17 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.dto.OrderSummaryDTO;
+import com.immfly.storeapi.dto.SeatSummaryDTO;
+import com.immfly.storeapi.enums.OrderStatus;
+import com.immfly.storeapi.model.Product;
+
+import java.util.List;
+
+public interface OrderSummaryService {
+    void recordOrder(OrderDTO order, List<Product> products);
+    void recordStatus(OrderDTO order);
+    void removeOrder(Long orderId);
+    List<OrderSummaryDTO> findSummaries(String flightId, OrderStatus status, Character seatLetter, Integer seatNumber);
+    List<SeatSummaryDTO> getSeatTotals(String flightId, OrderStatus status);
+}
@@ -0,0 +1,9 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.enums.OrderEventType;
+
+public interface OutboxService {
+    void recordOrderEvent(OrderEventType eventType, OrderDTO order);
+    int relay();
+}
@@ -0,0 +1,10 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.ProductImportResultDTO;
+
+import java.io.InputStream;
+
+public interface ProductImportService {
+    ProductImportResultDTO importJson(InputStream input);
+    ProductImportResultDTO importCsv(InputStream input);
+}
@@ -1,6 +1,7 @@
 package com.immfly.storeapi.service;
 
 import com.immfly.storeapi.dto.ProductDTO;
+import com.immfly.storeapi.dto.ProductOrderCountDTO;
 
 import java.util.List;
 
@@ -8,6 +9,7 @@ public interface ProductService {
     ProductDTO getProductById(Long id);
     ProductDTO createProduct(ProductDTO productDTO);
     List<ProductDTO> getAllProducts();
+    List<ProductOrderCountDTO> getOrderCounts();
     ProductDTO updateProduct(Long id, ProductDTO productDTO);
     void deleteProduct(Long id);
 }
@@ -0,0 +1,21 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.CategorySalesDTO;
+import com.immfly.storeapi.dto.HourlySalesDTO;
+import com.immfly.storeapi.dto.ProductSalesDTO;
+import com.immfly.storeapi.dto.SalesVerificationDTO;
+import com.immfly.storeapi.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SalesAnalyticsService {
+    void recordSale(String flightId, LocalDateTime paidAt, BigDecimal totalPrice, List<Product> products);
+    List<ProductSalesDTO> getProductSales(String flightId);
+    List<ProductSalesDTO> getBestSellers(String flightId, int limit);
+    List<CategorySalesDTO> getCategorySales(String flightId);
+    List<HourlySalesDTO> getHourlySales(String flightId, LocalDateTime from, LocalDateTime to);
+    SalesVerificationDTO verify();
+    void rebuild();
+}
@@ -0,0 +1,9 @@
+package com.immfly.storeapi.service;
+
+public interface StockLedgerService {
+    boolean isEnabled();
+    Integer getStock(Long productId);
+    boolean tryDecrement(Long productId, int quantity);
+    void evict(Long productId);
+    int flush();
+}
@@ -0,0 +1,13 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.model.Product;
+
+import java.util.List;
+
+public interface StockReservationService {
+    void reserve(Long orderId, List<Product> products);
+    void release(Long orderId);
+    void confirm(Long orderId);
+    int getReserved(Long productId);
+    int expireReservations();
+}
@@ -0,0 +1,235 @@
+package com.immfly.storeapi.service.impl;
+
+import com.immfly.storeapi.dto.CatalogChangesDTO;
+import com.immfly.storeapi.enums.CatalogChangeType;
+import com.immfly.storeapi.enums.CatalogEntityType;
+import com.immfly.storeapi.exception.CatalogChangesExpiredException;
+import com.immfly.storeapi.mapper.CategoryMapper;
+import com.immfly.storeapi.mapper.ProductMapper;
+import com.immfly.storeapi.model.CatalogChange;
+import com.immfly.storeapi.model.Category;
+import com.immfly.storeapi.model.Product;
+import com.immfly.storeapi.repository.CatalogChangeRepository;
+import com.immfly.storeapi.repository.CategoryRepository;
+import com.immfly.storeapi.repository.ProductRepository;
+import com.immfly.storeapi.service.CatalogChangeService;
+import com.immfly.storeapi.service.CatalogVersionService;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+public class CatalogChangeServiceImpl implements CatalogChangeService {
+    private static final Logger log = LoggerFactory.getLogger(CatalogChangeServiceImpl.class);
+
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final CatalogVersionService catalogVersionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    @Value("${catalog.changes.compaction-batch-size:500}")
+    private int compactionBatchSize = 500;
+
+    @Value("${catalog.changes.tombstone-retention-days:30}")
+    private long tombstoneRetentionDays = 30;
+
+    public CatalogChangeServiceImpl(CatalogChangeRepository catalogChangeRepository, ProductRepository productRepository, CategoryRepository categoryRepository, CatalogVersionService catalogVersionService, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, EntityManager entityManager) {
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.catalogVersionService = catalogVersionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void recordUpsert(CatalogEntityType entityType, Long entityId) {
+        record(entityType, List.of(entityId), CatalogChangeType.UPSERT);
+    }
+
+    @Override
+    public void recordUpserts(CatalogEntityType entityType, List<Long> entityIds) {
+        if (!entityIds.isEmpty()) {
+            record(entityType, entityIds, CatalogChangeType.UPSERT);
+        }
+    }
+
+    @Override
+    public void recordDeletion(CatalogEntityType entityType, Long entityId) {
+        record(entityType, List.of(entityId), CatalogChangeType.DELETE);
+    }
+
+    @Override
+    public CatalogChangesDTO getChangesSince(long sinceVersion) {
+        // Deletions up to compactedThrough may be gone, including those a device holding the seeded catalog (version 0) missed
+        long compactedThrough = catalogVersionService.getCompactedThrough();
+        if (sinceVersion < compactedThrough) {
+            throw new CatalogChangesExpiredException("Catalog changes since version " + sinceVersion
+                    + " are no longer available, reload the catalog and sync from its ETag version");
+        }
+
+        long toVersion = catalogVersionService.getCurrentVersion();
+        CatalogChangesDTO changes = new CatalogChangesDTO(sinceVersion, toVersion);
+
+        if (sinceVersion >= toVersion) {
+            return changes;
+        }
+
+        // Only the latest change of each entity matters to the device
+        Map<Long, CatalogChangeType> productChanges = new LinkedHashMap<>();
+        Map<Long, CatalogChangeType> categoryChanges = new LinkedHashMap<>();
+        for (CatalogChange change : catalogChangeRepository.findByVersionBetweenOrderByVersionAsc(sinceVersion + 1, toVersion)) {
+            Map<Long, CatalogChangeType> target = change.getEntityType() == CatalogEntityType.PRODUCT ? productChanges : categoryChanges;
+            target.remove(change.getEntityId());
+            target.put(change.getEntityId(), change.getChangeType());
+        }
+
+        Set<Long> upsertedProductIds = idsWithChange(productChanges, CatalogChangeType.UPSERT);
+        Map<Long, Product> products = productRepository.findAllById(upsertedProductIds).stream()
+                .collect(Collectors.toMap(Product::getId, p -> p));
+        for (Long id : upsertedProductIds) {
+            if (products.containsKey(id)) {
+                changes.getProducts().add(ProductMapper.toDto(products.get(id)));
+            } else {
+                // Deleted after the change we are reporting; its tombstone is past toVersion
+                changes.getDeletedProductIds().add(id);
+            }
+        }
+        changes.getDeletedProductIds().addAll(idsWithChange(productChanges, CatalogChangeType.DELETE));
+
+        Set<Long> upsertedCategoryIds = idsWithChange(categoryChanges, CatalogChangeType.UPSERT);
+        Map<Long, Category> categories = categoryRepository.findAllById(upsertedCategoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, c -> c));
+        for (Long id : upsertedCategoryIds) {
+            if (categories.containsKey(id)) {
+                changes.getCategories().add(CategoryMapper.toDto(categories.get(id)));
+            } else {
+                changes.getDeletedCategoryIds().add(id);
+            }
+        }
+        changes.getDeletedCategoryIds().addAll(idsWithChange(categoryChanges, CatalogChangeType.DELETE));
+
+        return changes;
+    }
+
+    // Keeps the latest change per entity; deletions only until the tombstone retention
+    @Override
+    @Scheduled(fixedDelayString = "${catalog.changes.compaction-interval-ms:3600000}")
+    public int compact() {
+        List<Long> supersededVersions = catalogChangeRepository.findSupersededVersions();
+        deleteInBatches(supersededVersions);
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(tombstoneRetentionDays);
+        List<Long> expiredTombstones = catalogChangeRepository.findVersionsByChangeTypeAndChangedAtBefore(CatalogChangeType.DELETE, cutoff);
+        if (!expiredTombstones.isEmpty()) {
+            // Raised before deleting: if the deletion fails, devices reload without need rather than miss a deletion
+            catalogVersionService.raiseCompactedThrough(Collections.max(expiredTombstones));
+            deleteInBatches(expiredTombstones);
+        }
+
+        int compacted = supersededVersions.size() + expiredTombstones.size();
+        if (compacted > 0) {
+            log.info("Compacted {} superseded catalog changes and {} expired deletions", supersededVersions.size(), expiredTombstones.size());
+        }
+        return compacted;
+    }
+
+    private void deleteInBatches(List<Long> versions) {
+        for (int from = 0; from < versions.size(); from += compactionBatchSize) {
+            catalogChangeRepository.deleteAllByIdInBatch(versions.subList(from, Math.min(from + compactionBatchSize, versions.size())));
+        }
+    }
+
+    // Versioned and written just before commit, so the version lock is taken last
+    private void record(CatalogEntityType entityType, List<Long> entityIds, CatalogChangeType changeType) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status -> record(entityType, entityIds, changeType));
+            return;
+        }
+
+        PendingChanges pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(PendingChanges.class::isInstance)
+                .map(PendingChanges.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    PendingChanges created = new PendingChanges();
+                    TransactionSynchronizationManager.registerSynchronization(created);
+                    return created;
+                });
+        for (Long entityId : entityIds) {
+            pending.changes.add(new CatalogChange(entityType, entityId, changeType));
+        }
+    }
+
+    private void insert(List<CatalogChange> changes, long firstVersion) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO catalog_changes (version, entity_type, entity_id, change_type, changed_at) VALUES (?, ?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        CatalogChange change = changes.get(i);
+                        ps.setLong(1, firstVersion + i);
+                        ps.setString(2, change.getEntityType().name());
+                        ps.setLong(3, change.getEntityId());
+                        ps.setString(4, change.getChangeType().name());
+                        ps.setTimestamp(5, Timestamp.valueOf(change.getChangedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return changes.size();
+                    }
+                });
+    }
+
+    private Set<Long> idsWithChange(Map<Long, CatalogChangeType> changes, CatalogChangeType changeType) {
+        return changes.entrySet().stream()
+                .filter(e -> e.getValue() == changeType)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private class PendingChanges implements TransactionSynchronization {
+        private final List<CatalogChange> changes = new ArrayList<>();
+        private long lastVersion;
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (entityManager.isJoinedToTransaction()) {
+                entityManager.flush();
+            }
+            lastVersion = catalogVersionService.reserveVersions(changes.size());
+            insert(changes, lastVersion - changes.size() + 1);
+        }
+
+        @Override
+        public void afterCommit() {
+            catalogVersionService.publishVersion(lastVersion);
+        }
+    }
+}
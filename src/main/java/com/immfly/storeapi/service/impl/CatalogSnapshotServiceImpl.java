@@ -0,0 +1,144 @@
+package com.immfly.storeapi.service.impl;
+
+import com.immfly.storeapi.dto.CategoryDTO;
+import com.immfly.storeapi.dto.ProductDTO;
+import com.immfly.storeapi.exception.InvalidCatalogSnapshotException;
+import com.immfly.storeapi.mapper.CategoryMapper;
+import com.immfly.storeapi.mapper.ProductMapper;
+import com.immfly.storeapi.repository.CategoryRepository;
+import com.immfly.storeapi.repository.ProductRepository;
+import com.immfly.storeapi.service.CatalogSnapshotService;
+import com.immfly.storeapi.service.CatalogVersionService;
+import com.immfly.storeapi.snapshot.CatalogSnapshot;
+import com.immfly.storeapi.snapshot.CatalogSnapshotWriter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Serves a matching snapshot only at the catalog version it was checked against
+@Service
+public class CatalogSnapshotServiceImpl implements CatalogSnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotServiceImpl.class);
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final CatalogVersionService catalogVersionService;
+
+    @Value("${catalog.snapshot.path:}")
+    private String snapshotPath = "";
+
+    private volatile VerifiedSnapshot activeSnapshot;
+
+    public CatalogSnapshotServiceImpl(ProductRepository productRepository, CategoryRepository categoryRepository, CatalogVersionService catalogVersionService) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.catalogVersionService = catalogVersionService;
+    }
+
+    @PostConstruct
+    public void loadSnapshot() {
+        if (snapshotPath.isBlank() || !Files.exists(Path.of(snapshotPath))) {
+            return;
+        }
+
+        try {
+            activate(CatalogSnapshot.open(Path.of(snapshotPath)));
+        } catch (IOException | InvalidCatalogSnapshotException ex) {
+            log.warn("Ignoring catalog snapshot at {}: {}", snapshotPath, ex.getMessage());
+        }
+    }
+
+    @Override
+    public byte[] exportSnapshot() {
+        // Read the version first: if a change lands meanwhile the snapshot is labelled older than its content, never newer
+        return buildSnapshot(catalogVersionService.getCurrentVersion());
+    }
+
+    @Override
+    public void importSnapshot(byte[] snapshot) {
+        CatalogSnapshot validated = CatalogSnapshot.wrap(snapshot);
+
+        if (snapshotPath.isBlank()) {
+            activate(validated);
+            return;
+        }
+
+        try {
+            Path target = Path.of(snapshotPath);
+            Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "catalog", ".tmp");
+            Files.write(temp, snapshot);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            activate(CatalogSnapshot.open(target));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not store catalog snapshot at " + snapshotPath, ex);
+        }
+    }
+
+    @Override
+    public Optional<ProductDTO> findProduct(Long id) {
+        return currentSnapshot().flatMap(s -> s.findProduct(id));
+    }
+
+    @Override
+    public Optional<List<ProductDTO>> getProducts() {
+        return currentSnapshot().map(CatalogSnapshot::getProducts);
+    }
+
+    @Override
+    public Optional<CategoryDTO> findCategory(Long id) {
+        return currentSnapshot().flatMap(s -> s.findCategory(id));
+    }
+
+    @Override
+    public Optional<List<CategoryDTO>> getCategories() {
+        return currentSnapshot().map(CatalogSnapshot::getCategories);
+    }
+
+    private Optional<CatalogSnapshot> currentSnapshot() {
+        VerifiedSnapshot verified = activeSnapshot;
+        if (verified == null || verified.liveVersion() != catalogVersionService.getCurrentVersion()) {
+            return Optional.empty();
+        }
+        return Optional.of(verified.snapshot());
+    }
+
+    private byte[] buildSnapshot(long catalogVersion) {
+        List<CategoryDTO> categories = categoryRepository.findAll().stream()
+                .map(CategoryMapper::toDto)
+                .collect(Collectors.toList());
+        List<ProductDTO> products = productRepository.findAll().stream()
+                .map(ProductMapper::toDto)
+                .collect(Collectors.toList());
+
+        return CatalogSnapshotWriter.write(catalogVersion, categories, products);
+    }
+
+    // The snapshot's own version belongs to the database it was built from, so only its content is compared
+    private void activate(CatalogSnapshot snapshot) {
+        long liveVersion = catalogVersionService.getCurrentVersion();
+        byte[] liveHash = CatalogSnapshot.wrap(buildSnapshot(liveVersion)).getContentHash();
+
+        if (liveVersion == catalogVersionService.getCurrentVersion() && Arrays.equals(liveHash, snapshot.getContentHash())) {
+            activeSnapshot = new VerifiedSnapshot(snapshot, liveVersion);
+            log.info("Serving catalog reads from snapshot with {} products at catalog version {}", snapshot.getProductCount(), liveVersion);
+        } else {
+            activeSnapshot = null;
+            log.info("Catalog snapshot with {} products does not match the live catalog, reads stay on the database", snapshot.getProductCount());
+        }
+    }
+
+    private record VerifiedSnapshot(CatalogSnapshot snapshot, long liveVersion) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.immfly.storeapi.service.impl;
+
+import com.immfly.storeapi.model.CatalogVersion;
+import com.immfly.storeapi.repository.CatalogChangeRepository;
+import com.immfly.storeapi.repository.CatalogVersionRepository;
+import com.immfly.storeapi.service.CatalogVersionService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class CatalogVersionServiceImpl implements CatalogVersionService {
+    static final Long COUNTER_ID = 1L;
+
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final AtomicLong publishedVersion;
+    private final AtomicLong compactedThrough;
+
+    public CatalogVersionServiceImpl(CatalogVersionRepository catalogVersionRepository, CatalogChangeRepository catalogChangeRepository) {
+        this.catalogVersionRepository = catalogVersionRepository;
+        CatalogVersion counter = catalogVersionRepository.findById(COUNTER_ID)
+                .orElseGet(() -> createCounter(catalogChangeRepository.findLatestVersion()));
+        this.publishedVersion = new AtomicLong(counter.getVersion());
+        this.compactedThrough = new AtomicLong(counter.getCompactedThrough());
+    }
+
+    @Override
+    public long getCurrentVersion() {
+        return publishedVersion.get();
+    }
+
+    @Override
+    public long getCompactedThrough() {
+        return compactedThrough.get();
+    }
+
+    // Call last in the writing transaction: the row lock is held until it ends
+    @Override
+    public long reserveVersions(int count) {
+        catalogVersionRepository.advance(COUNTER_ID, count);
+        return catalogVersionRepository.findVersion(COUNTER_ID);
+    }
+
+    @Override
+    public void publishVersion(long version) {
+        publishedVersion.accumulateAndGet(version, Math::max);
+    }
+
+    @Override
+    @Transactional
+    public void raiseCompactedThrough(long version) {
+        catalogVersionRepository.raiseCompactedThrough(COUNTER_ID, version);
+        compactedThrough.accumulateAndGet(version, Math::max);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${catalog.version.refresh-interval-ms:1000}")
+    public void refresh() {
+        catalogVersionRepository.findById(COUNTER_ID).ifPresent(counter -> {
+            publishedVersion.accumulateAndGet(counter.getVersion(), Math::max);
+            compactedThrough.accumulateAndGet(counter.getCompactedThrough(), Math::max);
+        });
+    }
+
+    private CatalogVersion createCounter(long latestLoggedVersion) {
+        try {
+            return catalogVersionRepository.saveAndFlush(new CatalogVersion(COUNTER_ID, latestLoggedVersion));
+        } catch (DataIntegrityViolationException ex) {
+            // Another instance created it first
+            return catalogVersionRepository.findById(COUNTER_ID).orElseThrow(() -> ex);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.immfly.storeapi.service.impl;
 
 import com.immfly.storeapi.dto.CategoryDTO;
+import com.immfly.storeapi.dto.CategoryProductCountDTO;
+import com.immfly.storeapi.enums.CatalogEntityType;
 import com.immfly.storeapi.exception.CategoryAlreadyExistsException;
 import com.immfly.storeapi.exception.CategoryDeletionException;
 import com.immfly.storeapi.exception.InvalidCategoryHierarchyException;
@@ -8,28 +10,45 @@ import com.immfly.storeapi.exception.ResourceNotFoundException;
 import com.immfly.storeapi.mapper.CategoryMapper;
 import com.immfly.storeapi.model.Category;
 import com.immfly.storeapi.repository.CategoryRepository;
+import com.immfly.storeapi.repository.ProductRepository;
+import com.immfly.storeapi.service.CatalogChangeService;
+import com.immfly.storeapi.service.CatalogSnapshotService;
 import com.immfly.storeapi.service.CategoryService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CatalogChangeService catalogChangeService;
+    private final CatalogSnapshotService catalogSnapshotService;
 
-    public CategoryServiceImpl(CategoryRepository categoryRepository) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, ProductRepository productRepository, CatalogChangeService catalogChangeService, CatalogSnapshotService catalogSnapshotService) {
         this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.catalogChangeService = catalogChangeService;
+        this.catalogSnapshotService = catalogSnapshotService;
     }
 
     @Override
     public CategoryDTO getCategoryById(Long id) {
+        Optional<CategoryDTO> snapshotCategory = catalogSnapshotService.findCategory(id);
+        if (snapshotCategory.isPresent()) {
+            return snapshotCategory.get();
+        }
+
         return categoryRepository.findById(id)
                 .map(CategoryMapper::toDto)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
     }
 
     @Override
+    @Transactional
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
         if (categoryRepository.existsByName(categoryDTO.getName())) {
             throw new CategoryAlreadyExistsException("Category with name '" + categoryDTO.getName() + "' already exists");
@@ -46,17 +65,29 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         Category savedCategory = categoryRepository.save(category);
+        catalogChangeService.recordUpsert(CatalogEntityType.CATEGORY, savedCategory.getId());
         return CategoryMapper.toDto(savedCategory);
     }
 
     @Override
     public List<CategoryDTO> getAllCategories() {
+        Optional<List<CategoryDTO>> snapshotCategories = catalogSnapshotService.getCategories();
+        if (snapshotCategories.isPresent()) {
+            return snapshotCategories.get();
+        }
+
         return categoryRepository.findAll().stream()
                 .map(CategoryMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     @Override
+    public List<CategoryProductCountDTO> getProductCounts() {
+        return categoryRepository.findProductCounts();
+    }
+
+    @Override
+    @Transactional
     public CategoryDTO updateCategory(Long id, CategoryDTO categoryDTO) {
         Category existingCategory = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
@@ -81,22 +112,25 @@ public class CategoryServiceImpl implements CategoryService {
         existingCategory.setName(categoryDTO.getName());
 
         Category updatedCategory = categoryRepository.save(existingCategory);
+        catalogChangeService.recordUpsert(CatalogEntityType.CATEGORY, updatedCategory.getId());
         return CategoryMapper.toDto(updatedCategory);
     }
 
     @Override
+    @Transactional
     public void deleteCategory(Long id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
 
-        if (!category.getSubCategories().isEmpty()) {
+        if (categoryRepository.existsByParentCategoryId(id)) {
             throw new CategoryDeletionException("Cannot delete a category that has subcategories.");
         }
 
-        if (!category.getProducts().isEmpty()) {
+        if (productRepository.existsByCategoryId(id)) {
             throw new CategoryDeletionException("Cannot delete a category that has products.");
         }
 
         categoryRepository.delete(category);
+        catalogChangeService.recordDeletion(CatalogEntityType.CATEGORY, category.getId());
     }
 }
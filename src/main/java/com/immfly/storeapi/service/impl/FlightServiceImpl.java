@@ -0,0 +1,197 @@
+package com.immfly.storeapi.service.impl;
+
+import com.immfly.storeapi.dto.FlightDTO;
+import com.immfly.storeapi.enums.FlightStatus;
+import com.immfly.storeapi.enums.OrderStatus;
+import com.immfly.storeapi.exception.FlightNotClosableException;
+import com.immfly.storeapi.exception.FlightNotOpenException;
+import com.immfly.storeapi.exception.InvalidFlightIdException;
+import com.immfly.storeapi.exception.ResourceNotFoundException;
+import com.immfly.storeapi.mapper.FlightMapper;
+import com.immfly.storeapi.model.Flight;
+import com.immfly.storeapi.repository.FlightRepository;
+import com.immfly.storeapi.repository.OrderRepository;
+import com.immfly.storeapi.service.FlightService;
+import com.immfly.storeapi.service.OrderArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class FlightServiceImpl implements FlightService {
+    private static final Logger log = LoggerFactory.getLogger(FlightServiceImpl.class);
+
+    private static final List<String> PARTITIONED_TABLES = List.of("orders", "products_orders", "order_summaries");
+
+    private final FlightRepository flightRepository;
+    private final OrderRepository orderRepository;
+    private final OrderArchiveService orderArchiveService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${flights.partitioning.enabled:false}")
+    private boolean partitioningEnabled = false;
+
+    public FlightServiceImpl(FlightRepository flightRepository, OrderRepository orderRepository, OrderArchiveService orderArchiveService, JdbcTemplate jdbcTemplate) {
+        this.flightRepository = flightRepository;
+        this.orderRepository = orderRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public FlightDTO getFlight(String flightId) {
+        return flightRepository.findById(flightId)
+                .map(FlightMapper::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Flight not found with id: " + flightId));
+    }
+
+    // Opening an open flight does nothing; a closed flight's orders are archived, so it cannot reopen
+    @Override
+    public FlightDTO openFlight(String flightId) {
+        if (flightId == null || !flightId.matches(FlightDTO.ID_PATTERN)) {
+            throw new InvalidFlightIdException("Flight id must be 1 to 32 upper-case letters, digits or hyphens");
+        }
+
+        Flight existing = flightRepository.findById(flightId).orElse(null);
+        if (existing != null) {
+            if (existing.getStatus() != FlightStatus.OPEN) {
+                throw new FlightNotOpenException("Flight " + flightId + " is closed and cannot be reopened");
+            }
+            return FlightMapper.toDto(existing);
+        }
+
+        // Partitions first: an order for the flight can only arrive once it is recorded as open
+        if (partitioningEnabled) {
+            for (String table : PARTITIONED_TABLES) {
+                addPartition(table, flightId);
+            }
+        }
+        return FlightMapper.toDto(flightRepository.save(new Flight(flightId)));
+    }
+
+    // A close that fails half way leaves the flight CLOSING; calling again resumes it
+    @Override
+    public FlightDTO closeFlight(String flightId) {
+        Flight flight = flightRepository.findById(flightId)
+                .orElseThrow(() -> new ResourceNotFoundException("Flight not found with id: " + flightId));
+        if (flight.getStatus() == FlightStatus.CLOSED) {
+            return FlightMapper.toDto(flight);
+        }
+
+        // Waits for orders still being placed on the flight, and keeps new ones out
+        flight.setStatus(FlightStatus.CLOSING);
+        flight = flightRepository.save(flight);
+
+        long openOrders = orderRepository.countByFlightIdAndStatus(flightId, OrderStatus.OPEN);
+        if (openOrders > 0) {
+            flight.setStatus(FlightStatus.OPEN);
+            flightRepository.save(flight);
+            throw new FlightNotClosableException("Cannot close flight " + flightId + ": " + openOrders + " orders are still open");
+        }
+
+        if (partitioningEnabled) {
+            detachPartition("orders", "orders_archive", flightId);
+            detachPartition("products_orders", "products_orders_archive", flightId);
+            dropPartition("order_summaries", flightId);
+        } else {
+            orderArchiveService.archiveFlight(flightId);
+            if (orderRepository.existsByFlightId(flightId)) {
+                throw new FlightNotClosableException("Flight " + flightId + " was only partly archived; close it again to finish");
+            }
+        }
+
+        flight.setStatus(FlightStatus.CLOSED);
+        flight.setClosedAt(LocalDateTime.now());
+        log.info("Closed flight {}", flightId);
+        return FlightMapper.toDto(flightRepository.save(flight));
+    }
+
+    // Must run in the transaction placing the order: the flight row stays share-locked until it commits
+    @Override
+    @Transactional
+    public void requireOpen(String flightId) {
+        if (flightId == null) {
+            throw new FlightNotOpenException("Orders must name an open flight");
+        }
+        Flight flight = flightRepository.findForShareById(flightId).orElse(null);
+        if (flight == null || flight.getStatus() != FlightStatus.OPEN) {
+            throw new FlightNotOpenException("Flight " + flightId + " is not open");
+        }
+    }
+
+    @Override
+    public Set<String> findOpenFlights(Collection<String> flightIds) {
+        if (flightIds.isEmpty()) {
+            return Set.of();
+        }
+        return flightRepository.findByIdInAndStatus(flightIds, FlightStatus.OPEN).stream()
+                .map(Flight::getId)
+                .collect(Collectors.toSet());
+    }
+
+    // Two metadata-only swaps through an empty staging table; each step checks what is already done
+    private void detachPartition(String table, String archiveTable, String flightId) {
+        String partition = partitionName(flightId);
+        String staging = table + "_" + partition;
+
+        if (!tableExists(staging) && partitionExists(table, partition)) {
+            jdbcTemplate.execute("CREATE TABLE " + staging + " LIKE " + table);
+            jdbcTemplate.execute("ALTER TABLE " + staging + " REMOVE PARTITIONING");
+            jdbcTemplate.execute("ALTER TABLE " + table + " EXCHANGE PARTITION " + partition + " WITH TABLE " + staging);
+        }
+
+        if (tableExists(staging)) {
+            addPartition(archiveTable, flightId);
+            Boolean staged = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + staging + ")", Boolean.class);
+            if (Boolean.TRUE.equals(staged)) {
+                // The rows came out of this very partition, so they need no checking
+                jdbcTemplate.execute("ALTER TABLE " + archiveTable + " EXCHANGE PARTITION " + partition + " WITH TABLE " + staging + " WITHOUT VALIDATION");
+            }
+            jdbcTemplate.execute("DROP TABLE " + staging);
+        }
+
+        dropPartition(table, flightId);
+    }
+
+    private void addPartition(String table, String flightId) {
+        String partition = partitionName(flightId);
+        if (!partitionExists(table, partition)) {
+            // The flight id is validated against FlightDTO.ID_PATTERN, so it is safe to inline
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD PARTITION (PARTITION " + partition + " VALUES IN ('" + flightId + "'))");
+        }
+    }
+
+    private void dropPartition(String table, String flightId) {
+        String partition = partitionName(flightId);
+        if (partitionExists(table, partition)) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP PARTITION " + partition);
+        }
+    }
+
+    private boolean partitionExists(String table, String partition) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME = ?",
+                Integer.class, table, partition);
+        return count != null && count > 0;
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    static String partitionName(String flightId) {
+        return "f_" + flightId.replace('-', '_');
+    }
+}
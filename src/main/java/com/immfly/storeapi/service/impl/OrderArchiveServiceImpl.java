@@ -0,0 +1,159 @@
+package com.immfly.storeapi.service.impl;
+
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.mapper.OrderMapper;
+import com.immfly.storeapi.repository.ArchivedOrderRepository;
+import com.immfly.storeapi.repository.ArchivedProductOrderRepository;
+import com.immfly.storeapi.service.OrderArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class OrderArchiveServiceImpl implements OrderArchiveService {
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveServiceImpl.class);
+
+    // Oldest first; locks the chosen rows so a concurrent delete of a dropped order waits for the chunk
+    private static final String SELECT_AGED_CHUNK_SQL =
+            "SELECT order_id FROM orders WHERE status IN ('FINISHED', 'DROPPED') AND closed_at < :cutoff " +
+                    "ORDER BY closed_at, order_id LIMIT :limit FOR UPDATE";
+    private static final String SELECT_FLIGHT_CHUNK_SQL =
+            "SELECT order_id FROM orders WHERE flight_id = :flightId AND status IN ('FINISHED', 'DROPPED') " +
+                    "ORDER BY order_id LIMIT :limit FOR UPDATE";
+    private static final String COPY_ORDERS_SQL =
+            "INSERT INTO orders_archive (order_id, flight_id, buyer_email, card_token, payment_date, payment_gateway, payment_status, " +
+                    "seat_letter, seat_number, status, total_price, closed_at, version) " +
+                    "SELECT order_id, flight_id, buyer_email, card_token, payment_date, payment_gateway, payment_status, " +
+                    "seat_letter, seat_number, status, total_price, closed_at, version FROM orders WHERE order_id IN (:ids)";
+    private static final String COPY_LINES_SQL =
+            "INSERT INTO products_orders_archive (order_id, product_id, flight_id) " +
+                    "SELECT order_id, product_id, flight_id FROM products_orders WHERE order_id IN (:ids)";
+    private static final String DELETE_LINES_SQL = "DELETE FROM products_orders WHERE order_id IN (:ids)";
+    private static final String DELETE_SUMMARIES_SQL = "DELETE FROM order_summaries WHERE order_id IN (:ids)";
+    private static final String DELETE_ORDERS_SQL = "DELETE FROM orders WHERE order_id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedProductOrderRepository archivedProductOrderRepository;
+
+    @Value("${orders.archive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${orders.archive.min-age-days:30}")
+    private int minAgeDays = 30;
+
+    @Value("${orders.archive.chunk-size:200}")
+    private int chunkSize = 200;
+
+    @Value("${orders.archive.pause-ms:200}")
+    private long pauseMs = 200;
+
+    @Value("${orders.archive.chunk-timeout-seconds:5}")
+    private int chunkTimeoutSeconds = 5;
+
+    @Value("${orders.archive.max-chunks-per-run:1000}")
+    private int maxChunksPerRun = 1000;
+
+    public OrderArchiveServiceImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ArchivedOrderRepository archivedOrderRepository, ArchivedProductOrderRepository archivedProductOrderRepository) {
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionManager = transactionManager;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.archivedProductOrderRepository = archivedProductOrderRepository;
+    }
+
+    // A failed chunk is rolled back whole and ends the run; the next run picks its orders up again
+    @Override
+    @Scheduled(fixedDelayString = "${orders.archive.interval-ms:3600000}", initialDelayString = "${orders.archive.interval-ms:3600000}")
+    public int archive() {
+        if (!enabled) {
+            return 0;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+        int archived = moveInChunks(SELECT_AGED_CHUNK_SQL, new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff)), maxChunksPerRun);
+        if (archived > 0) {
+            log.info("Archived {} orders closed before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    // Closes a flight when the tables are not partitioned: every chunk, whatever the orders' age
+    @Override
+    public int archiveFlight(String flightId) {
+        int archived = moveInChunks(SELECT_FLIGHT_CHUNK_SQL, new MapSqlParameterSource("flightId", flightId), Integer.MAX_VALUE);
+        log.info("Archived {} orders of flight {}", archived, flightId);
+        return archived;
+    }
+
+    @Override
+    public Optional<OrderDTO> findOrder(Long id) {
+        return archivedOrderRepository.findById(id)
+                .map(order -> OrderMapper.toDto(order, archivedProductOrderRepository.findProductIdsByOrderId(id)));
+    }
+
+    private int moveInChunks(String selectSql, MapSqlParameterSource selectParams, int maxChunks) {
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        // No gap locks, so inserts of new order lines next to archived ones are never blocked
+        chunkTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        chunkTransaction.setTimeout(chunkTimeoutSeconds);
+        selectParams.addValue("limit", chunkSize);
+
+        int archived = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            int moved;
+            try {
+                moved = chunkTransaction.execute(status -> archiveChunk(selectSql, selectParams));
+            } catch (DataAccessException | TransactionException ex) {
+                log.warn("Order archiving stopped after {} orders: {}", archived, ex.getMessage());
+                break;
+            }
+
+            archived += moved;
+            if (moved < chunkSize || !pause()) {
+                break;
+            }
+        }
+        return archived;
+    }
+
+    private int archiveChunk(String selectSql, MapSqlParameterSource selectParams) {
+        List<Long> ids = namedParameterJdbcTemplate.queryForList(selectSql, selectParams, Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        namedParameterJdbcTemplate.update(COPY_ORDERS_SQL, params);
+        namedParameterJdbcTemplate.update(COPY_LINES_SQL, params);
+        namedParameterJdbcTemplate.update(DELETE_LINES_SQL, params);
+        namedParameterJdbcTemplate.update(DELETE_SUMMARIES_SQL, params);
+        namedParameterJdbcTemplate.update(DELETE_ORDERS_SQL, params);
+        return ids.size();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.immfly.storeapi.service.impl;
+
+import com.immfly.storeapi.dto.OrderBatchItemDTO;
+import com.immfly.storeapi.dto.OrderBatchResultDTO;
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.enums.OrderEventType;
+import com.immfly.storeapi.enums.OrderStatus;
+import com.immfly.storeapi.enums.PaymentStatus;
+import com.immfly.storeapi.exception.FlightNotOpenException;
+import com.immfly.storeapi.exception.OutOfStockException;
+import com.immfly.storeapi.model.Product;
+import com.immfly.storeapi.service.FlightService;
+import com.immfly.storeapi.service.OrderBatchService;
+import com.immfly.storeapi.service.OrderSummaryService;
+import com.immfly.storeapi.service.OutboxService;
+import com.immfly.storeapi.service.StockLedgerService;
+import com.immfly.storeapi.service.StockReservationService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+public class OrderBatchServiceImpl implements OrderBatchService {
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO orders (flight_id, total_price, payment_status, status, buyer_email, seat_letter, seat_number, payment_date, version) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_PRODUCT_ORDER_SQL =
+            "INSERT INTO products_orders (order_id, product_id, flight_id) VALUES (?, ?, ?)";
+    private static final String UPDATE_ORDER_COUNT_SQL =
+            "UPDATE products SET order_count = order_count + ? WHERE product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final StockReservationService stockReservationService;
+    private final StockLedgerService stockLedgerService;
+    private final OutboxService outboxService;
+    private final OrderSummaryService orderSummaryService;
+    private final FlightService flightService;
+
+    @Value("${orders.batch.chunk-size:100}")
+    private int chunkSize = 100;
+
+    public OrderBatchServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, Validator validator, StockReservationService stockReservationService, StockLedgerService stockLedgerService, OutboxService outboxService, OrderSummaryService orderSummaryService, FlightService flightService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.stockReservationService = stockReservationService;
+        this.stockLedgerService = stockLedgerService;
+        this.outboxService = outboxService;
+        this.orderSummaryService = orderSummaryService;
+        this.flightService = flightService;
+    }
+
+    @Override
+    public OrderBatchResultDTO createOrders(List<OrderDTO> orders) {
+        OrderBatchItemDTO[] results = new OrderBatchItemDTO[orders.size()];
+        Map<Long, Product> products = findProducts(orders);
+        Set<String> openFlights = findOpenFlights(orders);
+
+        List<PendingOrder> chunk = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            OrderDTO order = orders.get(i);
+            String error = validate(order, products, openFlights);
+            if (error != null) {
+                results[i] = new OrderBatchItemDTO(i, null, error);
+                continue;
+            }
+
+            chunk.add(new PendingOrder(i, order, linkedProducts(order, products)));
+            if (chunk.size() >= chunkSize) {
+                flush(chunk, results);
+            }
+        }
+        flush(chunk, results);
+
+        OrderBatchResultDTO result = new OrderBatchResultDTO();
+        result.setResults(Arrays.asList(results));
+        for (OrderBatchItemDTO item : results) {
+            if (item.getError() == null) {
+                result.setCreated(result.getCreated() + 1);
+            } else {
+                result.setFailed(result.getFailed() + 1);
+            }
+        }
+        return result;
+    }
+
+    private Map<Long, Product> findProducts(List<OrderDTO> orders) {
+        Set<Long> ids = orders.stream()
+                .filter(Objects::nonNull)
+                .map(OrderDTO::getProductIds)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<Long, Product> products = new HashMap<>();
+        if (ids.isEmpty()) {
+            return products;
+        }
+
+        namedParameterJdbcTemplate.query(
+                "SELECT product_id, name, price, stock FROM products WHERE product_id IN (:ids)",
+                Map.of("ids", ids),
+                rs -> {
+                    Product product = new Product();
+                    product.setId(rs.getLong("product_id"));
+                    product.setName(rs.getString("name"));
+                    product.setPrice(rs.getBigDecimal("price"));
+                    product.setStock(rs.getInt("stock"));
+                    products.put(product.getId(), product);
+                });
+        return products;
+    }
+
+    // Checked again, under lock, when each chunk is written
+    private Set<String> findOpenFlights(List<OrderDTO> orders) {
+        Set<String> flightIds = orders.stream()
+                .filter(Objects::nonNull)
+                .map(OrderDTO::getFlightId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return flightService.findOpenFlights(flightIds);
+    }
+
+    private String validate(OrderDTO order, Map<Long, Product> products, Set<String> openFlights) {
+        if (order == null) {
+            return "Order must not be null";
+        }
+
+        Set<ConstraintViolation<OrderDTO>> violations = validator.validate(order);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        if (order.getFlightId() == null) {
+            return "Orders must name an open flight";
+        }
+        if (!openFlights.contains(order.getFlightId())) {
+            return "Flight " + order.getFlightId() + " is not open";
+        }
+
+        if (order.getProductIds() != null) {
+            Set<Long> distinctIds = new HashSet<>();
+            for (Long productId : order.getProductIds()) {
+                if (!distinctIds.add(productId)) {
+                    return "Product listed more than once in the order: " + productId;
+                }
+                Product product = productId == null ? null : products.get(productId);
+                if (product == null) {
+                    return "Product not found with id: " + productId;
+                }
+                // The row lags the ledger's counters when the ledger is enabled
+                Integer stock = stockLedgerService.isEnabled() ? stockLedgerService.getStock(productId) : product.getStock();
+                if (stock == null || stock <= 0) {
+                    return "Product out of stock: " + product.getName();
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<Product> linkedProducts(OrderDTO order, Map<Long, Product> products) {
+        if (order.getProductIds() == null) {
+            return List.of();
+        }
+        return order.getProductIds().stream().map(products::get).toList();
+    }
+
+    private void flush(List<PendingOrder> chunk, OrderBatchItemDTO[] results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        List<PendingOrder> orders = new ArrayList<>(chunk);
+        chunk.clear();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(orders));
+            orders.forEach(o -> results[o.index] = new OrderBatchItemDTO(o.index, o.toDto(), null));
+        } catch (DataAccessException | OutOfStockException | FlightNotOpenException ex) {
+            // The chunk was rolled back as a whole; retry its orders one at a time so only the bad ones fail
+            for (PendingOrder order : orders) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(order)));
+                    results[order.index] = new OrderBatchItemDTO(order.index, order.toDto(), null);
+                } catch (DataAccessException orderEx) {
+                    String cause = NestedExceptionUtils.getMostSpecificCause(orderEx).getMessage();
+                    results[order.index] = new OrderBatchItemDTO(order.index, null, "Order rejected by the database: " + cause);
+                } catch (OutOfStockException | FlightNotOpenException orderEx) {
+                    results[order.index] = new OrderBatchItemDTO(order.index, null, orderEx.getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<PendingOrder> orders) {
+        // Holds the flights open until the chunk commits
+        orders.stream().map(order -> order.order.getFlightId()).distinct().sorted().forEach(flightService::requireOpen);
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_ORDER_SQL, new String[]{"order_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingOrder order = orders.get(i);
+                        ps.setString(1, order.order.getFlightId());
+                        ps.setBigDecimal(2, order.totalPrice);
+                        ps.setString(3, PaymentStatus.PENDING.name());
+                        ps.setString(4, OrderStatus.OPEN.name());
+                        ps.setString(5, order.order.getBuyerEmail());
+                        ps.setString(6, String.valueOf(order.order.getSeatLetter()));
+                        ps.setInt(7, order.order.getSeatNumber());
+                        ps.setNull(8, Types.TIMESTAMP);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return orders.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<ProductLink> links = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            PendingOrder order = orders.get(i);
+            order.orderId = ((Number) keys.get(i).values().iterator().next()).longValue();
+            for (Long productId : order.productIds()) {
+                links.add(new ProductLink(order.orderId, productId, order.order.getFlightId()));
+            }
+        }
+
+        if (!links.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT_ORDER_SQL, links, links.size(), (ps, link) -> {
+                ps.setLong(1, link.orderId());
+                ps.setLong(2, link.productId());
+                ps.setString(3, link.flightId());
+            });
+
+            // One counter update per product for the whole chunk, in id order so concurrent chunks lock rows alike
+            Map<Long, Integer> lineCounts = new TreeMap<>();
+            links.forEach(link -> lineCounts.merge(link.productId(), 1, Integer::sum));
+            List<Map.Entry<Long, Integer>> counts = new ArrayList<>(lineCounts.entrySet());
+            jdbcTemplate.batchUpdate(UPDATE_ORDER_COUNT_SQL, counts, counts.size(), (ps, count) -> {
+                ps.setInt(1, count.getValue());
+                ps.setLong(2, count.getKey());
+            });
+        }
+
+        // Rolled back with the chunk if a later order in it fails
+        for (PendingOrder order : orders) {
+            stockReservationService.reserve(order.orderId, order.products);
+            OrderDTO created = order.toDto();
+            outboxService.recordOrderEvent(OrderEventType.CREATED, created);
+            orderSummaryService.recordOrder(created, order.products);
+        }
+    }
+
+    private record ProductLink(long orderId, long productId, String flightId) {
+    }
+
+    private static final class PendingOrder {
+        final int index;
+        final OrderDTO order;
+        final List<Product> products;
+        final BigDecimal totalPrice;
+        Long orderId;
+
+        PendingOrder(int index, OrderDTO order, List<Product> products) {
+            this.index = index;
+            this.order = order;
+            this.products = products;
+            this.totalPrice = products.stream().map(Product::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+
+        // Validated to hold each product once
+        List<Long> productIds() {
+            return order.getProductIds() == null ? List.of() : order.getProductIds();
+        }
+
+        OrderDTO toDto() {
+            OrderDTO dto = new OrderDTO(orderId, totalPrice, PaymentStatus.PENDING, null, OrderStatus.OPEN,
+                    order.getBuyerEmail(), order.getSeatLetter(), order.getSeatNumber(),
+                    List.copyOf(productIds()));
+            dto.setFlightId(order.getFlightId());
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.immfly.storeapi.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.enums.ExportFormat;
+import com.immfly.storeapi.enums.OrderStatus;
+import com.immfly.storeapi.enums.PaymentStatus;
+import com.immfly.storeapi.service.OrderExportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class OrderExportServiceImpl implements OrderExportService {
+    private static final String CSV_HEADER = "id,buyerEmail,seatLetter,seatNumber,status,paymentStatus,paymentDate,totalPrice,productIds";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter orderWriter;
+
+    // On MySQL the cursor only streams with useCursorFetch=true on the connection URL
+    @Value("${orders.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    public OrderExportServiceImpl(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Built once; rows go straight into the response writer, which stays open and is flushed once at the end
+        this.orderWriter = objectMapper.writerFor(OrderDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public long exportOrders(ExportFormat format, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer, orderWriter);
+        rowWriter.start();
+
+        // An order is either live or archived, never both, so the two halves never repeat an order
+        StringBuilder sql = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        appendSelect(sql, args, "orders", "products_orders", from, to);
+        sql.append(" UNION ALL ");
+        appendSelect(sql, args, "orders_archive", "products_orders_archive", from, to);
+        sql.append(" ORDER BY order_id, product_id");
+
+        OrderAssembler assembler = new OrderAssembler(rowWriter);
+        try {
+            jdbcTemplate.query(
+                    con -> {
+                        PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                        ps.setFetchSize(fetchSize);
+                        for (int i = 0; i < args.size(); i++) {
+                            ps.setObject(i + 1, args.get(i));
+                        }
+                        return ps;
+                    },
+                    assembler::accept);
+            assembler.flush();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        writer.flush();
+        return assembler.written;
+    }
+
+    private static void appendSelect(StringBuilder sql, List<Object> args, String ordersTable, String linesTable,
+                                     LocalDateTime from, LocalDateTime to) {
+        sql.append("SELECT o.order_id, o.buyer_email, o.seat_letter, o.seat_number, o.status, o.payment_status, ")
+                .append("o.payment_date, o.total_price, po.product_id ")
+                .append("FROM ").append(ordersTable).append(" o LEFT JOIN ").append(linesTable)
+                .append(" po ON po.order_id = o.order_id WHERE 1 = 1");
+        if (from != null) {
+            sql.append(" AND o.payment_date >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND o.payment_date < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+    }
+
+    // Collects the rows of one order and hands it on when the next order's first row arrives
+    private static final class OrderAssembler {
+        final RowWriter rowWriter;
+        OrderDTO current;
+        long written;
+
+        OrderAssembler(RowWriter rowWriter) {
+            this.rowWriter = rowWriter;
+        }
+
+        void accept(ResultSet rs) throws SQLException {
+            long orderId = rs.getLong("order_id");
+            if (current == null || current.getId() != orderId) {
+                flush();
+                current = toOrder(rs, orderId);
+            }
+
+            long productId = rs.getLong("product_id");
+            if (!rs.wasNull()) {
+                current.getProductIds().add(productId);
+            }
+        }
+
+        void flush() {
+            if (current == null) {
+                return;
+            }
+            try {
+                rowWriter.write(current);
+            } catch (IOException ex) {
+                // Usually the client went away; stop reading the cursor
+                throw new UncheckedIOException(ex);
+            }
+            written++;
+            current = null;
+        }
+
+        private static OrderDTO toOrder(ResultSet rs, long orderId) throws SQLException {
+            Timestamp paymentDate = rs.getTimestamp("payment_date");
+            String seatLetter = rs.getString("seat_letter");
+            String paymentStatus = rs.getString("payment_status");
+            String status = rs.getString("status");
+            return new OrderDTO(orderId, rs.getBigDecimal("total_price"),
+                    paymentStatus == null ? null : PaymentStatus.valueOf(paymentStatus),
+                    paymentDate == null ? null : paymentDate.toLocalDateTime(),
+                    status == null ? null : OrderStatus.valueOf(status),
+                    rs.getString("buyer_email"),
+                    seatLetter == null || seatLetter.isEmpty() ? null : seatLetter.charAt(0),
+                    rs.getInt("seat_number"),
+                    new ArrayList<>());
+        }
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+        void write(OrderDTO order) throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(OrderDTO order) throws IOException {
+            writer.write(String.valueOf(order.getId()));
+            writer.write(',');
+            writer.write(escape(order.getBuyerEmail()));
+            writer.write(',');
+            writer.write(order.getSeatLetter() == null ? "" : escape(order.getSeatLetter().toString()));
+            writer.write(',');
+            writer.write(String.valueOf(order.getSeatNumber()));
+            writer.write(',');
+            writer.write(order.getStatus() == null ? "" : order.getStatus().name());
+            writer.write(',');
+            writer.write(order.getPaymentStatus() == null ? "" : order.getPaymentStatus().name());
+            writer.write(',');
+            writer.write(order.getPaymentDate() == null ? "" : order.getPaymentDate().toString());
+            writer.write(',');
+            writer.write(order.getTotalPrice() == null ? "" : order.getTotalPrice().toPlainString());
+            writer.write(',');
+            writer.write(order.getProductIds().stream().map(String::valueOf).collect(Collectors.joining(";")));
+            writer.write('\n');
+        }
+
+        static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final ObjectWriter orderWriter;
+
+        NdjsonRowWriter(Writer writer, ObjectWriter orderWriter) {
+            this.writer = writer;
+            this.orderWriter = orderWriter;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void write(OrderDTO order) throws IOException {
+            orderWriter.writeValue(writer, order);
+            writer.write('\n');
+        }
+    }
+}
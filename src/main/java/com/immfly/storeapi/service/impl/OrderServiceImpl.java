@@ -1,8 +1,11 @@
 package com.immfly.storeapi.service.impl;
 
+import com.immfly.storeapi.datasource.ReadYourWrites;
 import com.immfly.storeapi.dto.FinishOrderRequest;
 import com.immfly.storeapi.dto.OrderDTO;
 import com.immfly.storeapi.dto.PaymentResponse;
+import com.immfly.storeapi.enums.CatalogEntityType;
+import com.immfly.storeapi.enums.OrderEventType;
 import com.immfly.storeapi.enums.OrderStatus;
 import com.immfly.storeapi.enums.PaymentStatus;
 import com.immfly.storeapi.exception.*;
@@ -11,15 +14,24 @@ import com.immfly.storeapi.model.*;
 import com.immfly.storeapi.repository.OrderRepository;
 import com.immfly.storeapi.repository.ProductOrderRepository;
 import com.immfly.storeapi.repository.ProductRepository;
+import com.immfly.storeapi.retry.RetryOnConflict;
+import com.immfly.storeapi.service.CatalogChangeService;
+import com.immfly.storeapi.service.FlightService;
+import com.immfly.storeapi.service.OrderArchiveService;
 import com.immfly.storeapi.service.OrderService;
-import jakarta.transaction.Transactional;
+import com.immfly.storeapi.service.OrderSummaryService;
+import com.immfly.storeapi.service.OutboxService;
+import com.immfly.storeapi.service.SalesAnalyticsService;
+import com.immfly.storeapi.service.StockLedgerService;
+import com.immfly.storeapi.service.StockReservationService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,51 +40,84 @@ public class OrderServiceImpl implements OrderService {
     private final ProductRepository productRepository;
     private final ProductOrderRepository productOrderRepository;
     private final RestTemplate restTemplate;
-
-    public OrderServiceImpl(OrderRepository orderRepository, ProductRepository productRepository, ProductOrderRepository productOrderRepository, RestTemplate restTemplate) {
+    private final CatalogChangeService catalogChangeService;
+    private final StockLedgerService stockLedgerService;
+    private final StockReservationService stockReservationService;
+    private final OutboxService outboxService;
+    private final OrderSummaryService orderSummaryService;
+    private final SalesAnalyticsService salesAnalyticsService;
+    private final ReadYourWrites readYourWrites;
+    private final OrderArchiveService orderArchiveService;
+    private final FlightService flightService;
+
+    public OrderServiceImpl(OrderRepository orderRepository, ProductRepository productRepository, ProductOrderRepository productOrderRepository, RestTemplate restTemplate, CatalogChangeService catalogChangeService, StockLedgerService stockLedgerService, StockReservationService stockReservationService, OutboxService outboxService, OrderSummaryService orderSummaryService, SalesAnalyticsService salesAnalyticsService, ReadYourWrites readYourWrites, OrderArchiveService orderArchiveService, FlightService flightService) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
         this.productOrderRepository = productOrderRepository;
         this.restTemplate = restTemplate;
+        this.catalogChangeService = catalogChangeService;
+        this.stockLedgerService = stockLedgerService;
+        this.stockReservationService = stockReservationService;
+        this.outboxService = outboxService;
+        this.orderSummaryService = orderSummaryService;
+        this.salesAnalyticsService = salesAnalyticsService;
+        this.readYourWrites = readYourWrites;
+        this.orderArchiveService = orderArchiveService;
+        this.flightService = flightService;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OrderDTO getOrderById(Long id) {
         return orderRepository.findById(id)
                 .map(OrderMapper::toDto)
+                .or(() -> orderArchiveService.findOrder(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
     }
 
     @Override
     @Transactional
     public OrderDTO createOrder(OrderDTO orderDTO) {
+        flightService.requireOpen(orderDTO.getFlightId());
+
         Order order = OrderMapper.toEntity(orderDTO);
         order.setStatus(OrderStatus.OPEN);
         order.setPaymentStatus(PaymentStatus.PENDING);
         order.setPaymentDate(null);
         order.setTotalPrice(BigDecimal.ZERO);
 
+        List<Product> products = findProducts(orderDTO.getProductIds());
         Order savedOrder = orderRepository.save(order);
 
-        BigDecimal totalPrice = linkProductsAndCalculateTotalPrice(savedOrder, orderDTO.getProductIds());
+        // One batch for all lines, whatever the number of products
+        List<Long> linkedIds = products.stream().map(Product::getId).toList();
+        if (!linkedIds.isEmpty()) {
+            productOrderRepository.insertLinks(savedOrder.getId(), savedOrder.getFlightId(), linkedIds);
+        }
+        adjustOrderCounts(linkedIds, 1);
+        stockReservationService.reserve(savedOrder.getId(), products);
 
-        savedOrder.setTotalPrice(totalPrice);
-        orderRepository.save(savedOrder);
+        savedOrder.setTotalPrice(calculateTotalPrice(products));
+        OrderDTO createdOrder = OrderMapper.toDto(orderRepository.save(savedOrder), linkedIds);
 
-        return orderRepository.findById(savedOrder.getId())
-                .map(OrderMapper::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found after creation with id: " + savedOrder.getId()));
+        outboxService.recordOrderEvent(OrderEventType.CREATED, createdOrder);
+        orderSummaryService.recordOrder(createdOrder, products);
+        readYourWrites.recordWrite();
+        return createdOrder;
     }
 
     @Override
-    public List<OrderDTO> getAllOrders() {
-        return orderRepository.findAll().stream()
+    @Transactional(readOnly = true)
+    public List<OrderDTO> getAllOrders(String flightId) {
+        List<Order> orders = flightId == null ? orderRepository.findAll() : orderRepository.findByFlightIdOrderById(flightId);
+        return orders.stream()
                 .map(OrderMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional
+    @RetryOnConflict
     public OrderDTO updateOrder(Long id, OrderDTO orderDTO) {
         Order existingOrder = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
@@ -83,14 +128,34 @@ public class OrderServiceImpl implements OrderService {
 
         existingOrder.setBuyerEmail(orderDTO.getBuyerEmail());
 
-        productOrderRepository.deleteAllByOrder(existingOrder);
+        List<Product> products = findProducts(orderDTO.getProductIds());
+        stockReservationService.reserve(existingOrder.getId(), products);
+
+        // Only the lines that changed are written
+        Set<Long> requestedIds = products.stream()
+                .map(Product::getId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<Long> currentIds = new HashSet<>(productOrderRepository.findProductIdsByOrderId(id));
 
-        BigDecimal totalPrice = linkProductsAndCalculateTotalPrice(existingOrder, orderDTO.getProductIds());
+        List<Long> removedIds = currentIds.stream().filter(productId -> !requestedIds.contains(productId)).toList();
+        List<Long> addedIds = requestedIds.stream().filter(productId -> !currentIds.contains(productId)).toList();
+        if (!removedIds.isEmpty()) {
+            productOrderRepository.deleteByOrderIdAndProductIdIn(id, removedIds);
+        }
+        if (!addedIds.isEmpty()) {
+            productOrderRepository.insertLinks(id, existingOrder.getFlightId(), addedIds);
+        }
+        adjustOrderCounts(removedIds, -1);
+        adjustOrderCounts(addedIds, 1);
 
-        existingOrder.setTotalPrice(totalPrice);
+        existingOrder.setTotalPrice(calculateTotalPrice(products));
 
         Order updatedOrder = orderRepository.save(existingOrder);
-        return OrderMapper.toDto(updatedOrder);
+
+        OrderDTO updatedOrderDTO = OrderMapper.toDto(updatedOrder, List.copyOf(requestedIds));
+        orderSummaryService.recordOrder(updatedOrderDTO, products);
+        readYourWrites.recordWrite();
+        return updatedOrderDTO;
     }
 
     @Transactional
@@ -103,11 +168,19 @@ public class OrderServiceImpl implements OrderService {
             throw new OrderNotDeletableException("Cannot delete a finished order with id: " + id);
         }
 
+        List<Long> linkedIds = productOrderRepository.findProductIdsByOrderId(id);
         productOrderRepository.deleteAllByOrder(existingOrder);
+        adjustOrderCounts(linkedIds, -1);
 
+        OrderDTO deletedOrder = OrderMapper.toDto(existingOrder, linkedIds);
         orderRepository.delete(existingOrder);
+        stockReservationService.release(existingOrder.getId());
+        outboxService.recordOrderEvent(OrderEventType.DELETED, deletedOrder);
+        orderSummaryService.removeOrder(existingOrder.getId());
+        readYourWrites.recordWrite();
     }
 
+    // Not retried on conflict: the payment gateway call is not idempotent
     @Override
     @Transactional
     public OrderDTO finishOrder(Long id, FinishOrderRequest request) {
@@ -133,7 +206,12 @@ public class OrderServiceImpl implements OrderService {
             processPaymentResponse(existingOrder, paymentResponse);
 
             orderRepository.save(existingOrder);
-            return OrderMapper.toDto(existingOrder);
+
+            OrderDTO finishedOrder = OrderMapper.toDto(existingOrder);
+            outboxService.recordOrderEvent(existingOrder.getStatus() == OrderStatus.FINISHED ? OrderEventType.FINISHED : OrderEventType.DROPPED, finishedOrder);
+            orderSummaryService.recordStatus(finishedOrder);
+            readYourWrites.recordWrite();
+            return finishedOrder;
 
         } catch (RestClientException ex) {
             throw new PaymentGatewayException("Error calling payment gateway: " + ex.getMessage(), ex);
@@ -142,6 +220,7 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     @Transactional
+    @RetryOnConflict
     public OrderDTO cancelOrder(Long id) {
         Order existingOrder = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
@@ -151,35 +230,61 @@ public class OrderServiceImpl implements OrderService {
         }
 
         existingOrder.setStatus(OrderStatus.DROPPED);
+        existingOrder.setClosedAt(LocalDateTime.now());
 
         Order cancelledOrder = orderRepository.save(existingOrder);
+        stockReservationService.release(existingOrder.getId());
 
-        return OrderMapper.toDto(cancelledOrder);
+        OrderDTO cancelledOrderDTO = OrderMapper.toDto(cancelledOrder);
+        outboxService.recordOrderEvent(OrderEventType.CANCELLED, cancelledOrderDTO);
+        orderSummaryService.recordStatus(cancelledOrderDTO);
+        readYourWrites.recordWrite();
+        return cancelledOrderDTO;
     }
 
-    private BigDecimal linkProductsAndCalculateTotalPrice(Order orderEntity, List<Long> productIds) {
-        BigDecimal totalPrice = BigDecimal.ZERO;
-
-        if (productIds != null && !productIds.isEmpty()) {
-            for (Long productId : productIds) {
-                Product product = productRepository.findById(productId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+    private void adjustOrderCounts(Collection<Long> productIds, long delta) {
+        if (!productIds.isEmpty()) {
+            productRepository.adjustOrderCount(productIds, delta);
+        }
+    }
 
-                if (product.getStock() == null || product.getStock() <= 0) {
-                    throw new OutOfStockException("Product out of stock: " + product.getName());
-                }
+    // One query for all products, returned in request order. An order holds each product once, so the
+    // same list is linked, priced, reserved and sold
+    private List<Product> findProducts(List<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return List.of();
+        }
 
-                ProductOrder productOrder = new ProductOrder();
-                productOrder.setId(new ProductOrderId(orderEntity.getId(), product.getId()));
-                productOrder.setOrder(orderEntity);
-                productOrder.setProduct(product);
+        Set<Long> distinctIds = new HashSet<>();
+        for (Long productId : productIds) {
+            if (!distinctIds.add(productId)) {
+                throw new DuplicateOrderProductException("Product listed more than once in the order: " + productId);
+            }
+        }
 
-                productOrderRepository.save(productOrder);
+        Map<Long, Product> productsById = productRepository.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
 
-                totalPrice = totalPrice.add(product.getPrice());
+        List<Product> products = new ArrayList<>();
+        for (Long productId : productIds) {
+            Product product = productsById.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found with id: " + productId);
+            }
+            Integer stock = stockLedgerService.isEnabled() ? stockLedgerService.getStock(productId) : product.getStock();
+            if (stock == null || stock <= 0) {
+                throw new OutOfStockException("Product out of stock: " + product.getName());
             }
+            products.add(product);
         }
+        return products;
+    }
 
+    private BigDecimal calculateTotalPrice(List<Product> products) {
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (Product product : products) {
+            totalPrice = totalPrice.add(product.getPrice());
+        }
         return totalPrice;
     }
 
@@ -198,26 +303,48 @@ public class OrderServiceImpl implements OrderService {
 
         if (paymentResult.equals("success") || paymentResult.equals("offline")) {
             reduceStockForProducts(order);
+            stockReservationService.confirm(order.getId());
 
             order.setPaymentStatus(paymentResult.equals("success") ? PaymentStatus.PAID : PaymentStatus.OFFLINE);
             order.setStatus(OrderStatus.FINISHED);
             order.setPaymentDate(LocalDateTime.now());
+            order.setClosedAt(order.getPaymentDate());
+
+            List<Product> soldProducts = order.getProductOrders().stream()
+                    .map(ProductOrder::getProduct)
+                    .toList();
+            salesAnalyticsService.recordSale(order.getFlightId(), order.getPaymentDate(), order.getTotalPrice(), soldProducts);
         } else {
             order.setPaymentStatus(PaymentStatus.FAILED);
             order.setStatus(OrderStatus.DROPPED);
+            order.setClosedAt(LocalDateTime.now());
+            stockReservationService.release(order.getId());
         }
     }
 
     private void reduceStockForProducts(Order order) {
+        if (stockLedgerService.isEnabled()) {
+            // The ledger owns stock and writes it back to the products table on its own schedule
+            for (ProductOrder productOrder : order.getProductOrders()) {
+                Product product = productOrder.getProduct();
+                if (!stockLedgerService.tryDecrement(product.getId(), 1)) {
+                    throw new OutOfStockException("Product " + product.getName() + " is out of stock when finalizing the order");
+                }
+            }
+            return;
+        }
+
         for (ProductOrder productOrder : order.getProductOrders()) {
             Product product = productOrder.getProduct();
 
-            if (product.getStock() == null || product.getStock() <= 0) {
+            // Stock is not written by saving the entity, so a stale copy can never overwrite it
+            if (productRepository.decrementStock(product.getId()) == 0) {
                 throw new OutOfStockException("Product " + product.getName() + " is out of stock when finalizing the order");
             }
-
             product.setStock(product.getStock() - 1);
-            productRepository.save(product);
+
+            // Stock is part of the catalog synced to devices
+            catalogChangeService.recordUpsert(CatalogEntityType.PRODUCT, product.getId());
         }
     }
 }
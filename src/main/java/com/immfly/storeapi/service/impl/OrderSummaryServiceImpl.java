@@ -0,0 +1,84 @@
+package com.immfly.storeapi.service.impl;
+
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.dto.OrderSummaryDTO;
+import com.immfly.storeapi.dto.SeatSummaryDTO;
+import com.immfly.storeapi.enums.OrderStatus;
+import com.immfly.storeapi.mapper.OrderSummaryMapper;
+import com.immfly.storeapi.model.OrderSummary;
+import com.immfly.storeapi.model.Product;
+import com.immfly.storeapi.repository.OrderSummaryRepository;
+import com.immfly.storeapi.service.OrderSummaryService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class OrderSummaryServiceImpl implements OrderSummaryService {
+    static final int MAX_PRODUCT_NAMES_LENGTH = 2000;
+
+    private final OrderSummaryRepository orderSummaryRepository;
+
+    public OrderSummaryServiceImpl(OrderSummaryRepository orderSummaryRepository) {
+        this.orderSummaryRepository = orderSummaryRepository;
+    }
+
+    @Override
+    public void recordOrder(OrderDTO order, List<Product> products) {
+        OrderSummary summary = orderSummaryRepository.findById(order.getId()).orElseGet(OrderSummary::new);
+        summary.setOrderId(order.getId());
+        summary.setFlightId(order.getFlightId());
+        summary.setBuyerEmail(order.getBuyerEmail());
+        summary.setSeatLetter(order.getSeatLetter());
+        summary.setSeatNumber(order.getSeatNumber());
+        summary.setItemCount(products.size());
+        summary.setProductNames(joinNames(products));
+        applyStatus(summary, order);
+        orderSummaryRepository.save(summary);
+    }
+
+    @Override
+    public void recordStatus(OrderDTO order) {
+        // Orders created before the read table existed have no row until they are next edited
+        orderSummaryRepository.findById(order.getId()).ifPresent(summary -> {
+            applyStatus(summary, order);
+            orderSummaryRepository.save(summary);
+        });
+    }
+
+    @Override
+    public void removeOrder(Long orderId) {
+        orderSummaryRepository.deleteById(orderId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDTO> findSummaries(String flightId, OrderStatus status, Character seatLetter, Integer seatNumber) {
+        return orderSummaryRepository.findByFilters(flightId, status, seatLetter, seatNumber).stream()
+                .map(OrderSummaryMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SeatSummaryDTO> getSeatTotals(String flightId, OrderStatus status) {
+        return orderSummaryRepository.findSeatTotals(flightId, status);
+    }
+
+    private static void applyStatus(OrderSummary summary, OrderDTO order) {
+        summary.setStatus(order.getStatus());
+        summary.setPaymentStatus(order.getPaymentStatus());
+        summary.setTotalPrice(order.getTotalPrice());
+        summary.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private static String joinNames(List<Product> products) {
+        String names = products.stream()
+                .map(Product::getName)
+                .collect(Collectors.joining(", "));
+        return names.length() <= MAX_PRODUCT_NAMES_LENGTH ? names : names.substring(0, MAX_PRODUCT_NAMES_LENGTH - 3) + "...";
+    }
+}
@@ -0,0 +1,77 @@
+package com.immfly.storeapi.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.enums.OrderEventType;
+import com.immfly.storeapi.model.OutboxEvent;
+import com.immfly.storeapi.outbox.OutboxSink;
+import com.immfly.storeapi.repository.OutboxEventRepository;
+import com.immfly.storeapi.service.OutboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class OutboxServiceImpl implements OutboxService {
+    private static final Logger log = LoggerFactory.getLogger(OutboxServiceImpl.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink outboxSink;
+    private final ObjectWriter orderWriter;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize = 100;
+
+    public OutboxServiceImpl(OutboxEventRepository outboxEventRepository, OutboxSink outboxSink, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSink = outboxSink;
+        this.orderWriter = objectMapper.writerFor(OrderDTO.class);
+    }
+
+    @Override
+    public void recordOrderEvent(OrderEventType eventType, OrderDTO order) {
+        String payload;
+        try {
+            payload = orderWriter.writeValueAsString(order);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize order " + order.getId() + " for the outbox", ex);
+        }
+        outboxEventRepository.save(new OutboxEvent(order.getId(), eventType, payload));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:1000}")
+    public int relay() {
+        int published = 0;
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+            List<Long> publishedIds = new ArrayList<>();
+
+            for (OutboxEvent event : batch) {
+                try {
+                    outboxSink.publish(event);
+                } catch (Exception ex) {
+                    // Stop here: skipping ahead could deliver a later event of the same order first
+                    log.warn("Outbox sink rejected event {}, retrying on next poll: {}", event.getId(), ex.getMessage());
+                    outboxEventRepository.deleteAllByIdInBatch(publishedIds);
+                    return published + publishedIds.size();
+                }
+                publishedIds.add(event.getId());
+            }
+
+            outboxEventRepository.deleteAllByIdInBatch(publishedIds);
+            published += publishedIds.size();
+        } while (batch.size() == batchSize);
+
+        return published;
+    }
+}
@@ -0,0 +1,443 @@
+package com.immfly.storeapi.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immfly.storeapi.dto.ProductImportErrorDTO;
+import com.immfly.storeapi.dto.ProductImportResultDTO;
+import com.immfly.storeapi.dto.ProductImportRow;
+import com.immfly.storeapi.enums.CatalogEntityType;
+import com.immfly.storeapi.service.CatalogChangeService;
+import com.immfly.storeapi.service.ProductImportService;
+import com.immfly.storeapi.service.StockLedgerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+    private static final String UPDATE_SQL =
+            "UPDATE products SET price = ?, stock = ?, category_id = ?, image_url = ?, version = version + 1 WHERE product_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, price, stock, category_id, image_url, version) VALUES (?, ?, ?, ?, ?, 0)";
+    private static final String UPDATE_PRODUCT_COUNT_SQL =
+            "UPDATE categories SET product_count = product_count + ? WHERE category_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CatalogChangeService catalogChangeService;
+    private final StockLedgerService stockLedgerService;
+
+    @Value("${products.import.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${products.import.max-reported-errors:1000}")
+    private int maxReportedErrors = 1000;
+
+    public ProductImportServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ObjectMapper objectMapper, CatalogChangeService catalogChangeService, StockLedgerService stockLedgerService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.catalogChangeService = catalogChangeService;
+        this.stockLedgerService = stockLedgerService;
+    }
+
+    @Override
+    public ProductImportResultDTO importJson(InputStream input) {
+        ImportRun run = new ImportRun();
+        long row = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                run.reject(0, null, "Expected a JSON array of products");
+                return run.finish();
+            }
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("Unexpected end of input");
+                }
+                row++;
+                // Read the element as a tree first so a bad value fails this row without desynchronising the parser
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    run.add(row, objectMapper.treeToValue(node, ProductImportRow.class));
+                } catch (JsonProcessingException ex) {
+                    run.reject(row, node.path("name").asText(null), "Malformed product: " + ex.getOriginalMessage());
+                }
+            }
+        } catch (IOException ex) {
+            run.reject(row + 1, null, "Malformed JSON, import stopped: " + ex.getMessage());
+        }
+
+        return run.finish();
+    }
+
+    @Override
+    public ProductImportResultDTO importCsv(InputStream input) {
+        ImportRun run = new ImportRun();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<String> header = readCsvRecord(reader);
+            if (header == null) {
+                run.reject(0, null, "CSV file is empty");
+                return run.finish();
+            }
+
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("name")) {
+                run.reject(0, null, "CSV header must contain a 'name' column");
+                return run.finish();
+            }
+
+            long row = 0;
+            while (true) {
+                row++;
+                List<String> fields;
+                try {
+                    fields = readCsvRecord(reader);
+                } catch (IllegalArgumentException ex) {
+                    run.reject(row, null, "Malformed row: " + ex.getMessage());
+                    break;
+                }
+                if (fields == null) {
+                    break;
+                }
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                try {
+                    run.add(row, toRow(fields, columns));
+                } catch (IllegalArgumentException ex) {
+                    run.reject(row, null, "Malformed row: " + ex.getMessage());
+                }
+            }
+        } catch (IOException ex) {
+            run.reject(0, null, "Could not read CSV, import stopped: " + ex.getMessage());
+        }
+
+        return run.finish();
+    }
+
+    private ProductImportRow toRow(List<String> fields, Map<String, Integer> columns) {
+        String price = field(fields, columns, "price");
+        String stock = field(fields, columns, "stock");
+        String categoryId = field(fields, columns, "categoryid");
+
+        return new ProductImportRow(
+                field(fields, columns, "name"),
+                price == null ? null : new BigDecimal(price),
+                stock == null ? null : Integer.valueOf(stock),
+                field(fields, columns, "imageurl"),
+                categoryId == null ? null : Long.valueOf(categoryId),
+                field(fields, columns, "categoryname")
+        );
+    }
+
+    private String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // One CSV record, which may span lines inside quotes; null at the end of the input
+    static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (; c != -1; c = reader.read()) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        current.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    current.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                break;
+            } else {
+                current.append((char) c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private Map<String, ExistingProduct> findProductsByName(Collection<String> names) {
+        Map<String, ExistingProduct> products = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT product_id, name, category_id FROM products WHERE name IN (:names)",
+                Map.of("names", names),
+                rs -> {
+                    products.put(rs.getString("name"), new ExistingProduct(rs.getLong("product_id"), rs.getLong("category_id")));
+                });
+        return products;
+    }
+
+    private static long firstKey(Map<String, Object> keys) {
+        return ((Number) keys.values().iterator().next()).longValue();
+    }
+
+    private static final class PendingRow {
+        final long row;
+        final ProductImportRow product;
+        final long categoryId;
+        long productId;
+        Long previousCategoryId;
+
+        PendingRow(long row, ProductImportRow product, long categoryId) {
+            this.row = row;
+            this.product = product;
+            this.categoryId = categoryId;
+        }
+    }
+
+    private static final class ExistingProduct {
+        final long id;
+        final long categoryId;
+
+        ExistingProduct(long id, long categoryId) {
+            this.id = id;
+            this.categoryId = categoryId;
+        }
+    }
+
+    // State of one import: the category lookup, the current batch and the running result
+    private final class ImportRun {
+        private final Set<Long> categoryIds = new HashSet<>();
+        private final Map<String, Long> categoryIdsByName = new HashMap<>();
+        private final ProductImportResultDTO result = new ProductImportResultDTO();
+        private final Map<String, PendingRow> batch = new LinkedHashMap<>();
+
+        ImportRun() {
+            jdbcTemplate.query("SELECT category_id, name FROM categories", rs -> {
+                categoryIds.add(rs.getLong("category_id"));
+                categoryIdsByName.put(rs.getString("name"), rs.getLong("category_id"));
+            });
+        }
+
+        void add(long row, ProductImportRow product) {
+            String error = validate(product);
+            if (error != null) {
+                reject(row, product.getName(), error);
+                return;
+            }
+
+            Long categoryId = product.getCategoryId() != null ? product.getCategoryId() : categoryIdsByName.get(product.getCategoryName());
+
+            // A name repeated inside one batch would be inserted twice; flush so the later row becomes an update
+            if (batch.containsKey(product.getName())) {
+                flush();
+            }
+            batch.put(product.getName(), new PendingRow(row, product, categoryId));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String name, String message) {
+            result.setProcessed(result.getProcessed() + 1);
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new ProductImportErrorDTO(row, name, message));
+            }
+        }
+
+        ProductImportResultDTO finish() {
+            flush();
+            return result;
+        }
+
+        private String validate(ProductImportRow product) {
+            if (product.getName() == null || product.getName().isBlank()) {
+                return "Product name must not be blank";
+            }
+            if (product.getPrice() == null || product.getPrice().signum() <= 0) {
+                return "Product price must be greater than 0";
+            }
+            if (product.getStock() == null || product.getStock() < 0) {
+                return "Product stock must be greater than or equal to 0";
+            }
+            if (product.getCategoryId() != null) {
+                if (!categoryIds.contains(product.getCategoryId())) {
+                    return "Category not found with id: " + product.getCategoryId();
+                }
+            } else if (product.getCategoryName() == null) {
+                return "Product must belong to a category";
+            } else if (!categoryIdsByName.containsKey(product.getCategoryName())) {
+                return "Category not found with name: " + product.getCategoryName();
+            }
+            return null;
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<PendingRow> rows = new ArrayList<>(batch.values());
+            batch.clear();
+
+            try {
+                int[] counts = transactionTemplate.execute(status -> upsert(rows));
+                result.setProcessed(result.getProcessed() + rows.size());
+                result.setCreated(result.getCreated() + counts[0]);
+                result.setUpdated(result.getUpdated() + counts[1]);
+            } catch (DataAccessException ex) {
+                // The batch was rolled back as a whole; retry its rows one at a time so only the bad ones fail
+                for (PendingRow row : rows) {
+                    try {
+                        int[] counts = transactionTemplate.execute(status -> upsert(List.of(row)));
+                        result.setProcessed(result.getProcessed() + 1);
+                        result.setCreated(result.getCreated() + counts[0]);
+                        result.setUpdated(result.getUpdated() + counts[1]);
+                    } catch (DataAccessException rowEx) {
+                        String cause = NestedExceptionUtils.getMostSpecificCause(rowEx).getMessage();
+                        reject(row.row, row.product.getName(), "Row rejected by the database: " + cause);
+                    }
+                }
+            }
+        }
+
+        private void adjustProductCounts(List<PendingRow> rows) {
+            // Net change per category for the batch, applied in id order so concurrent imports lock rows alike
+            Map<Long, Integer> deltas = new TreeMap<>();
+            for (PendingRow row : rows) {
+                if (row.previousCategoryId == null || row.previousCategoryId != row.categoryId) {
+                    deltas.merge(row.categoryId, 1, Integer::sum);
+                    if (row.previousCategoryId != null) {
+                        deltas.merge(row.previousCategoryId, -1, Integer::sum);
+                    }
+                }
+            }
+
+            List<Map.Entry<Long, Integer>> changes = deltas.entrySet().stream()
+                    .filter(e -> e.getValue() != 0)
+                    .toList();
+            if (!changes.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_PRODUCT_COUNT_SQL, changes, changes.size(), (ps, change) -> {
+                    ps.setInt(1, change.getValue());
+                    ps.setLong(2, change.getKey());
+                });
+            }
+        }
+
+        private int[] upsert(List<PendingRow> rows) {
+            Map<String, ExistingProduct> existingProducts = findProductsByName(rows.stream().map(r -> r.product.getName()).toList());
+
+            List<PendingRow> updates = new ArrayList<>();
+            List<PendingRow> inserts = new ArrayList<>();
+            for (PendingRow row : rows) {
+                ExistingProduct existing = existingProducts.get(row.product.getName());
+                if (existing != null) {
+                    row.productId = existing.id;
+                    row.previousCategoryId = existing.categoryId;
+                    updates.add(row);
+                } else {
+                    row.previousCategoryId = null;
+                    inserts.add(row);
+                }
+            }
+
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, row) -> {
+                    ps.setBigDecimal(1, row.product.getPrice());
+                    ps.setInt(2, row.product.getStock());
+                    ps.setLong(3, row.categoryId);
+                    ps.setString(4, row.product.getImageUrl());
+                    ps.setLong(5, row.productId);
+                });
+                // The import overwrites stock, so a ledger counter for these products is stale
+                updates.forEach(row -> stockLedgerService.evict(row.productId));
+            }
+
+            if (!inserts.isEmpty()) {
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                jdbcTemplate.batchUpdate(
+                        con -> con.prepareStatement(INSERT_SQL, new String[]{"product_id"}),
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                PendingRow row = inserts.get(i);
+                                ps.setString(1, row.product.getName());
+                                ps.setBigDecimal(2, row.product.getPrice());
+                                ps.setInt(3, row.product.getStock());
+                                ps.setLong(4, row.categoryId);
+                                ps.setString(5, row.product.getImageUrl());
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return inserts.size();
+                            }
+                        },
+                        keyHolder);
+
+                List<Map<String, Object>> keys = keyHolder.getKeyList();
+                for (int i = 0; i < inserts.size(); i++) {
+                    inserts.get(i).productId = firstKey(keys.get(i));
+                }
+            }
+
+            adjustProductCounts(rows);
+            catalogChangeService.recordUpserts(CatalogEntityType.PRODUCT, rows.stream().map(r -> r.productId).toList());
+
+            return new int[]{inserts.size(), updates.size()};
+        }
+    }
+}
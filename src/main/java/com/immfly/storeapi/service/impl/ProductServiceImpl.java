@@ -1,6 +1,8 @@
 package com.immfly.storeapi.service.impl;
 
 import com.immfly.storeapi.dto.ProductDTO;
+import com.immfly.storeapi.dto.ProductOrderCountDTO;
+import com.immfly.storeapi.enums.CatalogEntityType;
 import com.immfly.storeapi.exception.CategoryAlreadyExistsException;
 import com.immfly.storeapi.exception.ProductAlreadyExistsException;
 import com.immfly.storeapi.exception.ProductDeletionException;
@@ -8,33 +10,58 @@ import com.immfly.storeapi.exception.ResourceNotFoundException;
 import com.immfly.storeapi.mapper.ProductMapper;
 import com.immfly.storeapi.model.Category;
 import com.immfly.storeapi.model.Product;
+import com.immfly.storeapi.repository.ArchivedProductOrderRepository;
 import com.immfly.storeapi.repository.CategoryRepository;
+import com.immfly.storeapi.repository.ProductOrderRepository;
 import com.immfly.storeapi.repository.ProductRepository;
+import com.immfly.storeapi.retry.RetryOnConflict;
+import com.immfly.storeapi.service.CatalogChangeService;
+import com.immfly.storeapi.service.CatalogSnapshotService;
 import com.immfly.storeapi.service.ProductService;
+import com.immfly.storeapi.service.StockLedgerService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductOrderRepository productOrderRepository;
+    private final ArchivedProductOrderRepository archivedProductOrderRepository;
+    private final CatalogChangeService catalogChangeService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final StockLedgerService stockLedgerService;
 
-    public ProductServiceImpl(ProductRepository productRepository, CategoryRepository categoryRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, CategoryRepository categoryRepository, ProductOrderRepository productOrderRepository, ArchivedProductOrderRepository archivedProductOrderRepository, CatalogChangeService catalogChangeService, CatalogSnapshotService catalogSnapshotService, StockLedgerService stockLedgerService) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
+        this.productOrderRepository = productOrderRepository;
+        this.archivedProductOrderRepository = archivedProductOrderRepository;
+        this.catalogChangeService = catalogChangeService;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.stockLedgerService = stockLedgerService;
     }
 
 
     @Override
     public ProductDTO getProductById(Long id) {
+        Optional<ProductDTO> snapshotProduct = catalogSnapshotService.findProduct(id);
+        if (snapshotProduct.isPresent()) {
+            return snapshotProduct.get();
+        }
+
         return productRepository.findById(id)
                 .map(ProductMapper::toDto)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
     }
 
     @Override
+    @Transactional
     public ProductDTO createProduct(ProductDTO productDTO) {
         if (productRepository.existsByName(productDTO.getName())) {
             throw new ProductAlreadyExistsException("Product with name '" + productDTO.getName() + "' already exists");
@@ -48,17 +75,32 @@ public class ProductServiceImpl implements ProductService {
         product.setCategory(category);
 
         Product savedProduct = productRepository.save(product);
+        categoryRepository.adjustProductCount(category.getId(), 1);
+        catalogChangeService.recordUpsert(CatalogEntityType.PRODUCT, savedProduct.getId());
         return ProductMapper.toDto(savedProduct);
     }
 
     @Override
     public List<ProductDTO> getAllProducts() {
+        Optional<List<ProductDTO>> snapshotProducts = catalogSnapshotService.getProducts();
+        if (snapshotProducts.isPresent()) {
+            return snapshotProducts.get();
+        }
+
         return productRepository.findAll().stream()
                 .map(ProductMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    // Read from the table: counts change with every order, so they stay out of the ETag-versioned catalog and the snapshot
+    @Override
+    public List<ProductOrderCountDTO> getOrderCounts() {
+        return productRepository.findOrderCounts();
+    }
+
     @Override
+    @Transactional
+    @RetryOnConflict
     public ProductDTO updateProduct(Long id, ProductDTO productDTO) {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
@@ -69,6 +111,7 @@ public class ProductServiceImpl implements ProductService {
                     throw new ProductAlreadyExistsException("Product with name '" + productDTO.getName() + "' already exists");
                 });
 
+        Category previousCategory = existingProduct.getCategory();
         existingProduct.setName(productDTO.getName());
         existingProduct.setPrice(productDTO.getPrice());
         existingProduct.setImageUrl(productDTO.getImageUrl());
@@ -82,18 +125,41 @@ public class ProductServiceImpl implements ProductService {
         }
 
         Product updatedProduct = productRepository.save(existingProduct);
+        // Saving never writes stock; the ledger reseeds its counter from the row on the next checkout
+        stockLedgerService.evict(updatedProduct.getId());
+        moveProductCount(previousCategory, updatedProduct.getCategory());
+        catalogChangeService.recordUpsert(CatalogEntityType.PRODUCT, updatedProduct.getId());
         return ProductMapper.toDto(updatedProduct);
     }
 
     @Override
+    @Transactional
     public void deleteProduct(Long id) {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
 
-        if (!existingProduct.getProductOrders().isEmpty()) {
+        // Archived orders still exist and can be looked up, so their lines count too
+        if (productOrderRepository.existsByIdProductId(id) || archivedProductOrderRepository.existsByIdProductId(id)) {
             throw new ProductDeletionException("Cannot delete product because it is associated with existing orders");
         }
 
         productRepository.delete(existingProduct);
+        stockLedgerService.evict(existingProduct.getId());
+        categoryRepository.adjustProductCount(existingProduct.getCategory().getId(), -1);
+        catalogChangeService.recordDeletion(CatalogEntityType.PRODUCT, existingProduct.getId());
+    }
+
+    private void moveProductCount(Category from, Category to) {
+        Long fromId = from == null ? null : from.getId();
+        Long toId = to == null ? null : to.getId();
+        if (Objects.equals(fromId, toId)) {
+            return;
+        }
+        if (fromId != null) {
+            categoryRepository.adjustProductCount(fromId, -1);
+        }
+        if (toId != null) {
+            categoryRepository.adjustProductCount(toId, 1);
+        }
     }
 }
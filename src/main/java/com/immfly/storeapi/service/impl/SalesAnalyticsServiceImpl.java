@@ -0,0 +1,266 @@
+package com.immfly.storeapi.service.impl;
+
+import com.immfly.storeapi.dto.CategorySalesDTO;
+import com.immfly.storeapi.dto.HourlySalesDTO;
+import com.immfly.storeapi.dto.ProductSalesDTO;
+import com.immfly.storeapi.dto.SalesVerificationDTO;
+import com.immfly.storeapi.model.Category;
+import com.immfly.storeapi.model.HourlySalesRollup;
+import com.immfly.storeapi.model.HourlySalesRollupId;
+import com.immfly.storeapi.model.Product;
+import com.immfly.storeapi.model.ProductSalesRollupId;
+import com.immfly.storeapi.repository.CategoryRepository;
+import com.immfly.storeapi.repository.HourlySalesRollupRepository;
+import com.immfly.storeapi.repository.ProductSalesRollupRepository;
+import com.immfly.storeapi.service.SalesAnalyticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+@Service
+public class SalesAnalyticsServiceImpl implements SalesAnalyticsService {
+    private static final Logger log = LoggerFactory.getLogger(SalesAnalyticsServiceImpl.class);
+
+    static final int MAX_BEST_SELLERS = 100;
+    private static final int MAX_REPORTED_MISMATCHES = 100;
+    private static final LocalDateTime EARLIEST_HOUR = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST_HOUR = LocalDateTime.of(9999, 12, 31, 23, 0);
+    private static final Comparator<ProductSalesRollupId> PRODUCT_KEY_ORDER =
+            Comparator.comparing(ProductSalesRollupId::getFlightId).thenComparing(ProductSalesRollupId::getProductId);
+    private static final Comparator<HourlySalesRollupId> HOUR_KEY_ORDER =
+            Comparator.comparing(HourlySalesRollupId::getFlightId).thenComparing(HourlySalesRollupId::getHourStart);
+
+    private static final String UPDATE_PRODUCT_SQL =
+            "UPDATE sales_product_rollups SET units = units + ?, revenue = revenue + ? WHERE flight_id = ? AND product_id = ?";
+    private static final String INSERT_PRODUCT_SQL =
+            "INSERT INTO sales_product_rollups (units, revenue, flight_id, product_id) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_HOUR_SQL =
+            "UPDATE sales_hourly_rollups SET order_count = order_count + ?, units = units + ?, revenue = revenue + ? WHERE flight_id = ? AND hour_start = ?";
+    private static final String INSERT_HOUR_SQL =
+            "INSERT INTO sales_hourly_rollups (order_count, units, revenue, flight_id, hour_start) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductSalesRollupRepository productSalesRollupRepository;
+    private final HourlySalesRollupRepository hourlySalesRollupRepository;
+    private final CategoryRepository categoryRepository;
+
+    public SalesAnalyticsServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ProductSalesRollupRepository productSalesRollupRepository, HourlySalesRollupRepository hourlySalesRollupRepository, CategoryRepository categoryRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.productSalesRollupRepository = productSalesRollupRepository;
+        this.hourlySalesRollupRepository = hourlySalesRollupRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    // Must run in the transaction finishing the order, so the figures move exactly when the sale commits
+    @Override
+    public void recordSale(String flightId, LocalDateTime paidAt, BigDecimal totalPrice, List<Product> products) {
+        Map<Long, Long> units = new TreeMap<>();
+        Map<Long, BigDecimal> revenue = new HashMap<>();
+        for (Product product : products) {
+            units.merge(product.getId(), 1L, Long::sum);
+            revenue.merge(product.getId(), product.getPrice(), BigDecimal::add);
+        }
+
+        // Ascending product ids keep the row locks of concurrent sales in one order
+        units.forEach((productId, count) ->
+                increment(UPDATE_PRODUCT_SQL, INSERT_PRODUCT_SQL, count, revenue.get(productId), flightId, productId));
+
+        Timestamp hour = Timestamp.valueOf(paidAt.truncatedTo(ChronoUnit.HOURS));
+        increment(UPDATE_HOUR_SQL, INSERT_HOUR_SQL, 1L, (long) products.size(), totalPrice, flightId, hour);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSalesDTO> getProductSales(String flightId) {
+        return productSalesRollupRepository.findProductSales(flightId, Pageable.unpaged());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSalesDTO> getBestSellers(String flightId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_BEST_SELLERS));
+        return productSalesRollupRepository.findProductSales(flightId, PageRequest.of(0, size));
+    }
+
+    // Walks only the catalog, so the cost depends on the number of categories, not on sales
+    @Override
+    @Transactional(readOnly = true)
+    public List<CategorySalesDTO> getCategorySales(String flightId) {
+        List<Category> categories = categoryRepository.findAll(Sort.by("id"));
+        Map<Long, Long> parentIds = new HashMap<>();
+        Map<Long, CategorySalesDTO> totals = new LinkedHashMap<>();
+        for (Category category : categories) {
+            Long parentId = category.getParentCategory() == null ? null : category.getParentCategory().getId();
+            parentIds.put(category.getId(), parentId);
+            totals.put(category.getId(), new CategorySalesDTO(category.getId(), category.getName(), parentId, 0, BigDecimal.ZERO));
+        }
+
+        for (Object[] row : productSalesRollupRepository.sumByCategory(flightId)) {
+            long units = ((Number) row[1]).longValue();
+            BigDecimal revenue = (BigDecimal) row[2];
+            Set<Long> visited = new HashSet<>();
+            for (Long categoryId = (Long) row[0]; categoryId != null && visited.add(categoryId); categoryId = parentIds.get(categoryId)) {
+                CategorySalesDTO total = totals.get(categoryId);
+                if (total == null) {
+                    break;
+                }
+                total.setUnits(total.getUnits() + units);
+                total.setRevenue(total.getRevenue().add(revenue));
+            }
+        }
+        return new ArrayList<>(totals.values());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<HourlySalesDTO> getHourlySales(String flightId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from == null ? EARLIEST_HOUR : from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = to == null ? LATEST_HOUR : to;
+        return hourlySalesRollupRepository.findHourlySales(flightId, start, end);
+    }
+
+    // Product revenue is not compared: orders only link to the product's current price
+    @Override
+    @Scheduled(fixedDelayString = "${analytics.verify.interval-ms:3600000}", initialDelayString = "${analytics.verify.interval-ms:3600000}")
+    public SalesVerificationDTO verify() {
+        // One transaction, so the recount and the rollups are read from the same state where the database allows it
+        List<String> mismatches = transactionTemplate.execute(status -> {
+            Recount recount = recount();
+            List<String> found = new ArrayList<>();
+
+            Map<ProductSalesRollupId, Long> rolledUnits = new HashMap<>();
+            jdbcTemplate.query("SELECT flight_id, product_id, units FROM sales_product_rollups",
+                    rs -> {
+                        rolledUnits.put(new ProductSalesRollupId(rs.getString("flight_id"), rs.getLong("product_id")), rs.getLong("units"));
+                    });
+            Set<ProductSalesRollupId> productKeys = new TreeSet<>(PRODUCT_KEY_ORDER);
+            productKeys.addAll(rolledUnits.keySet());
+            productKeys.addAll(recount.productUnits.keySet());
+            for (ProductSalesRollupId key : productKeys) {
+                long rolled = rolledUnits.getOrDefault(key, 0L);
+                long counted = recount.productUnits.getOrDefault(key, 0L);
+                if (rolled != counted) {
+                    found.add("Flight " + key.getFlightId() + ", product " + key.getProductId() + ": rollup has " + rolled + " units, orders have " + counted);
+                }
+            }
+
+            Map<HourlySalesRollupId, HourlySalesRollup> rolledHours = new HashMap<>();
+            jdbcTemplate.query("SELECT flight_id, hour_start, order_count, units, revenue FROM sales_hourly_rollups",
+                    rs -> {
+                        HourlySalesRollupId key = new HourlySalesRollupId(rs.getString("flight_id"), rs.getTimestamp("hour_start").toLocalDateTime());
+                        rolledHours.put(key, new HourlySalesRollup(key, rs.getLong("order_count"), rs.getLong("units"), rs.getBigDecimal("revenue")));
+                    });
+            Set<HourlySalesRollupId> hourKeys = new TreeSet<>(HOUR_KEY_ORDER);
+            hourKeys.addAll(rolledHours.keySet());
+            hourKeys.addAll(recount.hours.keySet());
+            for (HourlySalesRollupId key : hourKeys) {
+                HourlySalesRollup rolled = rolledHours.getOrDefault(key, new HourlySalesRollup(key, 0, 0, BigDecimal.ZERO));
+                HourlySalesRollup counted = recount.hours.getOrDefault(key, new HourlySalesRollup(key, 0, 0, BigDecimal.ZERO));
+                if (rolled.getOrderCount() != counted.getOrderCount() || rolled.getUnits() != counted.getUnits()
+                        || rolled.getRevenue().compareTo(counted.getRevenue()) != 0) {
+                    found.add("Flight " + key.getFlightId() + ", hour " + key.getHourStart() + ": rollup has " + rolled.getOrderCount() + " orders, " + rolled.getUnits()
+                            + " units, " + rolled.getRevenue() + "; orders have " + counted.getOrderCount() + " orders, "
+                            + counted.getUnits() + " units, " + counted.getRevenue());
+                }
+            }
+            return found;
+        });
+
+        if (!mismatches.isEmpty()) {
+            log.warn("Sales rollups differ from the orders in {} places, first: {}", mismatches.size(), mismatches.get(0));
+        }
+        List<String> reported = mismatches.size() > MAX_REPORTED_MISMATCHES ? mismatches.subList(0, MAX_REPORTED_MISMATCHES) : mismatches;
+        return new SalesVerificationDTO(mismatches.isEmpty(), new ArrayList<>(reported));
+    }
+
+    // Sales finished while this runs may be missed; run it between flights
+    @Override
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Recount recount = recount();
+            jdbcTemplate.update("DELETE FROM sales_product_rollups");
+            jdbcTemplate.update("DELETE FROM sales_hourly_rollups");
+
+            List<ProductSalesRollupId> productKeys = new ArrayList<>(recount.productUnits.keySet());
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, productKeys, 500, (ps, key) -> {
+                ps.setLong(1, recount.productUnits.get(key));
+                ps.setBigDecimal(2, recount.productRevenue.get(key));
+                ps.setString(3, key.getFlightId());
+                ps.setLong(4, key.getProductId());
+            });
+            jdbcTemplate.batchUpdate(INSERT_HOUR_SQL, recount.hours.values(), 500, (ps, hour) -> {
+                ps.setLong(1, hour.getOrderCount());
+                ps.setLong(2, hour.getUnits());
+                ps.setBigDecimal(3, hour.getRevenue());
+                ps.setString(4, hour.getId().getFlightId());
+                ps.setTimestamp(5, Timestamp.valueOf(hour.getId().getHourStart()));
+            });
+            log.info("Rebuilt sales rollups for {} flight products and {} flight hours", productKeys.size(), recount.hours.size());
+        });
+    }
+
+    private void increment(String updateSql, String insertSql, Object... args) {
+        if (jdbcTemplate.update(updateSql, args) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(insertSql, args);
+        } catch (DuplicateKeyException ex) {
+            // Another sale created the row first
+            jdbcTemplate.update(updateSql, args);
+        }
+    }
+
+    private Recount recount() {
+        Recount recount = new Recount();
+        jdbcTemplate.query(
+                "SELECT l.flight_id, l.product_id, COUNT(*) AS units, p.price FROM (" +
+                        "SELECT o.flight_id, po.product_id FROM products_orders po JOIN orders o ON o.order_id = po.order_id WHERE o.status = 'FINISHED' " +
+                        "UNION ALL " +
+                        "SELECT a.flight_id, pa.product_id FROM products_orders_archive pa JOIN orders_archive a ON a.order_id = pa.order_id WHERE a.status = 'FINISHED'" +
+                        ") l JOIN products p ON p.product_id = l.product_id GROUP BY l.flight_id, l.product_id, p.price",
+                rs -> {
+                    ProductSalesRollupId key = new ProductSalesRollupId(rs.getString("flight_id"), rs.getLong("product_id"));
+                    long units = rs.getLong("units");
+                    recount.productUnits.put(key, units);
+                    recount.productRevenue.put(key, rs.getBigDecimal("price").multiply(BigDecimal.valueOf(units)));
+                });
+        jdbcTemplate.query(
+                "SELECT o.flight_id, o.payment_date, o.total_price, (SELECT COUNT(*) FROM products_orders po WHERE po.order_id = o.order_id) AS units " +
+                        "FROM orders o WHERE o.status = 'FINISHED' AND o.payment_date IS NOT NULL " +
+                        "UNION ALL " +
+                        "SELECT a.flight_id, a.payment_date, a.total_price, (SELECT COUNT(*) FROM products_orders_archive pa WHERE pa.order_id = a.order_id) " +
+                        "FROM orders_archive a WHERE a.status = 'FINISHED' AND a.payment_date IS NOT NULL",
+                rs -> {
+                    HourlySalesRollupId key = new HourlySalesRollupId(rs.getString("flight_id"),
+                            rs.getTimestamp("payment_date").toLocalDateTime().truncatedTo(ChronoUnit.HOURS));
+                    HourlySalesRollup total = recount.hours.computeIfAbsent(key, k -> new HourlySalesRollup(k, 0, 0, BigDecimal.ZERO));
+                    total.setOrderCount(total.getOrderCount() + 1);
+                    total.setUnits(total.getUnits() + rs.getLong("units"));
+                    total.setRevenue(total.getRevenue().add(rs.getBigDecimal("total_price")));
+                });
+        return recount;
+    }
+
+    private static final class Recount {
+        final Map<ProductSalesRollupId, Long> productUnits = new TreeMap<>(PRODUCT_KEY_ORDER);
+        final Map<ProductSalesRollupId, BigDecimal> productRevenue = new HashMap<>();
+        final Map<HourlySalesRollupId, HourlySalesRollup> hours = new TreeMap<>(HOUR_KEY_ORDER);
+    }
+}
@@ -0,0 +1,377 @@
+package com.immfly.storeapi.service.impl;
+
+import com.immfly.storeapi.enums.CatalogEntityType;
+import com.immfly.storeapi.model.StockLedgerCheckpoint;
+import com.immfly.storeapi.repository.StockLedgerCheckpointRepository;
+import com.immfly.storeapi.service.CatalogChangeService;
+import com.immfly.storeapi.service.StockLedgerService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+@Service
+public class StockLedgerServiceImpl implements StockLedgerService {
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerServiceImpl.class);
+
+    static final String LEDGER_NAME = "default";
+    private static final int ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockLedgerCheckpointRepository checkpointRepository;
+    private final CatalogChangeService catalogChangeService;
+
+    @Value("${inventory.ledger.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${inventory.ledger.journal-dir:data/stock-journal}")
+    private String journalDir = "data/stock-journal";
+
+    @Value("${inventory.ledger.fsync:true}")
+    private boolean fsync = true;
+
+    private final ConcurrentHashMap<Long, AtomicInteger> counters = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Object journalLock = new Object();
+
+    // Guarded by journalLock
+    private Map<Long, Integer> pendingDeltas = new HashMap<>();
+    // Stock taken by transactions that have not completed yet, so a counter reseeded meanwhile leaves it out
+    private final Map<Long, Integer> uncommitted = new HashMap<>();
+    private FileChannel journal;
+    private long segment;
+
+    // Guarded by flushLock
+    private long oldestSegment;
+
+    public StockLedgerServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, StockLedgerCheckpointRepository checkpointRepository, CatalogChangeService catalogChangeService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.catalogChangeService = catalogChangeService;
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Path dir = Path.of(journalDir);
+        Files.createDirectories(dir);
+
+        long checkpoint = checkpointRepository.findById(LEDGER_NAME)
+                .map(StockLedgerCheckpoint::getSegment)
+                .orElse(0L);
+        long lastSegment = checkpoint;
+
+        for (long journalSegment : listSegments(dir)) {
+            if (journalSegment > checkpoint) {
+                Map<Long, Integer> deltas = readSegment(segmentPath(journalSegment));
+                applyDeltas(journalSegment, deltas);
+                log.info("Replayed stock journal segment {} with changes for {} products", journalSegment, deltas.size());
+            }
+            Files.delete(segmentPath(journalSegment));
+            lastSegment = Math.max(lastSegment, journalSegment);
+        }
+
+        segment = lastSegment + 1;
+        oldestSegment = segment;
+        journal = openSegment(segment);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        flush();
+        synchronized (journalLock) {
+            journal.close();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Includes checkouts not yet flushed; null if the product does not exist
+    @Override
+    public Integer getStock(Long productId) {
+        AtomicInteger counter = counter(productId);
+        return counter == null ? null : counter.get();
+    }
+
+    // Journaled just before commit; a rollback hands the stock back, compensating if already journaled
+    @Override
+    public boolean tryDecrement(Long productId, int quantity) {
+        AtomicInteger counter = counter(productId);
+        if (counter == null) {
+            return false;
+        }
+
+        int current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                journal(productId, -quantity);
+            } catch (UncheckedIOException ex) {
+                counter.addAndGet(quantity);
+                throw ex;
+            }
+            return true;
+        }
+
+        synchronized (journalLock) {
+            uncommitted.merge(productId, quantity, Integer::sum);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean journaled;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // A failed append throws here and rolls the transaction back
+                synchronized (journalLock) {
+                    journal(productId, -quantity);
+                    untrack(productId, quantity);
+                    journaled = true;
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                // Given back to the current counter, which may have been reseeded since; holding its bin keeps a reseed out meanwhile
+                counters.compute(productId, (id, reseeded) -> {
+                    synchronized (journalLock) {
+                        if (journaled) {
+                            compensate(productId, quantity);
+                        } else {
+                            untrack(productId, quantity);
+                        }
+                    }
+                    if (reseeded != null) {
+                        reseeded.addAndGet(quantity);
+                    }
+                    return reseeded;
+                });
+            }
+        });
+        return true;
+    }
+
+    // Next checkout reseeds from the table; runs after commit when called in a transaction
+    @Override
+    public void evict(Long productId) {
+        if (!enabled) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counters.remove(productId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counters.remove(productId);
+            }
+        });
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:1000}")
+    public int flush() {
+        if (!enabled) {
+            return 0;
+        }
+
+        flushLock.lock();
+        try {
+            Map<Long, Integer> deltas;
+            long flushedSegment;
+            synchronized (journalLock) {
+                if (pendingDeltas.isEmpty()) {
+                    return 0;
+                }
+                deltas = pendingDeltas;
+                pendingDeltas = new HashMap<>();
+                flushedSegment = segment;
+                rotate();
+            }
+
+            try {
+                applyDeltas(flushedSegment, deltas);
+            } catch (RuntimeException ex) {
+                // Keep the deltas for the next flush; the old segment stays on disk until a later checkpoint covers it
+                synchronized (journalLock) {
+                    deltas.forEach((productId, delta) -> pendingDeltas.merge(productId, delta, Integer::sum));
+                }
+                log.warn("Stock ledger flush failed, will retry: {}", ex.getMessage());
+                return 0;
+            }
+
+            for (long oldSegment = oldestSegment; oldSegment <= flushedSegment; oldSegment++) {
+                Files.deleteIfExists(segmentPath(oldSegment));
+            }
+            oldestSegment = flushedSegment + 1;
+            return deltas.size();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not delete flushed stock journal segment", ex);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private AtomicInteger counter(Long productId) {
+        AtomicInteger counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+
+        // Seeding holds the flush lock so the table and the pending deltas are read as one consistent state
+        flushLock.lock();
+        try {
+            return counters.computeIfAbsent(productId, id -> {
+                Integer stock;
+                try {
+                    stock = jdbcTemplate.queryForObject("SELECT stock FROM products WHERE product_id = ?", Integer.class, id);
+                } catch (EmptyResultDataAccessException ex) {
+                    return null;
+                }
+                if (stock == null) {
+                    return null;
+                }
+                synchronized (journalLock) {
+                    return new AtomicInteger(stock + pendingDeltas.getOrDefault(id, 0) - uncommitted.getOrDefault(id, 0));
+                }
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Guarded by journalLock
+    private void untrack(Long productId, int quantity) {
+        uncommitted.computeIfPresent(productId, (id, taken) -> taken == quantity ? null : taken - quantity);
+    }
+
+    // Guarded by journalLock
+    private void compensate(Long productId, int quantity) {
+        try {
+            journal(productId, quantity);
+        } catch (UncheckedIOException ex) {
+            // Kept in memory; a crash before the next flush replays the decrement, which only undersells
+            log.error("Could not journal released stock for product {}: {}", productId, ex.getMessage());
+            pendingDeltas.merge(productId, quantity, Integer::sum);
+        }
+    }
+
+    private void journal(Long productId, int delta) {
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE).putLong(productId).putInt(delta).flip();
+        synchronized (journalLock) {
+            try {
+                while (entry.hasRemaining()) {
+                    journal.write(entry);
+                }
+                if (fsync) {
+                    journal.force(false);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not append to the stock journal", ex);
+            }
+            pendingDeltas.merge(productId, delta, Integer::sum);
+        }
+    }
+
+    private void rotate() {
+        try {
+            journal.close();
+            segment++;
+            journal = openSegment(segment);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not rotate the stock journal", ex);
+        }
+    }
+
+    private void applyDeltas(long journalSegment, Map<Long, Integer> deltas) {
+        List<Map.Entry<Long, Integer>> changes = deltas.entrySet().stream()
+                .filter(e -> e.getValue() != 0)
+                .toList();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!changes.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE products SET stock = stock + ?, version = version + 1 WHERE product_id = ?", changes, changes.size(), (ps, change) -> {
+                    ps.setInt(1, change.getValue());
+                    ps.setLong(2, change.getKey());
+                });
+                // Stock is part of the catalog synced to devices
+                catalogChangeService.recordUpserts(CatalogEntityType.PRODUCT, changes.stream().map(Map.Entry::getKey).toList());
+            }
+            checkpointRepository.save(new StockLedgerCheckpoint(LEDGER_NAME, journalSegment));
+        });
+    }
+
+    private FileChannel openSegment(long journalSegment) throws IOException {
+        return FileChannel.open(segmentPath(journalSegment), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long journalSegment) {
+        return Path.of(journalDir, SEGMENT_PREFIX + journalSegment + SEGMENT_SUFFIX);
+    }
+
+    private static List<Long> listSegments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Map<Long, Integer> readSegment(Path path) throws IOException {
+        ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(path));
+        Map<Long, Integer> deltas = new HashMap<>();
+        // A torn entry at the end was never acknowledged, so it is dropped
+        while (entries.remaining() >= ENTRY_SIZE) {
+            deltas.merge(entries.getLong(), entries.getInt(), Integer::sum);
+        }
+        return deltas;
+    }
+}
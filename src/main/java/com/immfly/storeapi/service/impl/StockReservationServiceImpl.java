@@ -0,0 +1,211 @@
+package com.immfly.storeapi.service.impl;
+
+import com.immfly.storeapi.exception.OutOfStockException;
+import com.immfly.storeapi.model.Product;
+import com.immfly.storeapi.service.StockLedgerService;
+import com.immfly.storeapi.service.StockReservationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+    private static final Logger log = LoggerFactory.getLogger(StockReservationServiceImpl.class);
+
+    private final ConcurrentHashMap<Long, AtomicInteger> reservedByProduct = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Reservation> reservationsByOrder = new ConcurrentHashMap<>();
+    private final DelayQueue<Reservation> expiryQueue = new DelayQueue<>();
+
+    private final StockLedgerService stockLedgerService;
+
+    @Value("${orders.reservation.ttl-ms:900000}")
+    private long ttlMs = 900000;
+
+    public StockReservationServiceImpl(StockLedgerService stockLedgerService) {
+        this.stockLedgerService = stockLedgerService;
+    }
+
+    // Replaces the order's hold; a rollback drops the new hold and restores the previous one
+    @Override
+    public void reserve(Long orderId, List<Product> products) {
+        Reservation previous = reservationsByOrder.remove(orderId);
+        if (previous != null) {
+            free(previous);
+        }
+
+        Reservation reservation;
+        try {
+            reservation = take(orderId, products);
+        } catch (OutOfStockException ex) {
+            if (previous != null) {
+                restore(previous);
+            }
+            throw ex;
+        }
+
+        reservationsByOrder.put(orderId, reservation);
+        expiryQueue.add(reservation);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        return;
+                    }
+                    if (reservationsByOrder.remove(orderId, reservation)) {
+                        free(reservation);
+                    }
+                    if (previous != null) {
+                        restore(previous);
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public void release(Long orderId) {
+        afterCommit(() -> end(orderId));
+    }
+
+    @Override
+    public void confirm(Long orderId) {
+        // Stock has been taken for real by now, so the hold just goes away
+        afterCommit(() -> end(orderId));
+    }
+
+    @Override
+    public int getReserved(Long productId) {
+        AtomicInteger reserved = reservedByProduct.get(productId);
+        return reserved == null ? 0 : reserved.get();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${orders.reservation.sweep-interval-ms:5000}")
+    public int expireReservations() {
+        int expired = 0;
+        Reservation reservation;
+        while ((reservation = expiryQueue.poll()) != null) {
+            if (reservationsByOrder.remove(reservation.orderId, reservation)) {
+                free(reservation);
+                expired++;
+            }
+        }
+
+        if (expired > 0) {
+            log.info("Expired {} stock reservations", expired);
+        }
+        return expired;
+    }
+
+    private Reservation take(Long orderId, List<Product> products) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Map<Long, Product> productsById = new LinkedHashMap<>();
+        for (Product product : products) {
+            quantities.merge(product.getId(), 1, Integer::sum);
+            productsById.putIfAbsent(product.getId(), product);
+        }
+
+        long[] productIds = new long[quantities.size()];
+        int[] counts = new int[quantities.size()];
+        int taken = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = productsById.get(entry.getKey());
+            int quantity = entry.getValue();
+            Integer available = stockLedgerService.isEnabled() ? stockLedgerService.getStock(product.getId()) : product.getStock();
+            int stock = available == null ? 0 : available;
+            AtomicInteger reserved = reservedByProduct.computeIfAbsent(product.getId(), id -> new AtomicInteger());
+
+            int current;
+            do {
+                current = reserved.get();
+                if (stock - current < quantity) {
+                    for (int i = 0; i < taken; i++) {
+                        reservedByProduct.get(productIds[i]).addAndGet(-counts[i]);
+                    }
+                    throw new OutOfStockException("Product out of stock: " + product.getName());
+                }
+            } while (!reserved.compareAndSet(current, current + quantity));
+
+            productIds[taken] = product.getId();
+            counts[taken] = quantity;
+            taken++;
+        }
+
+        return new Reservation(orderId, productIds, counts, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMs));
+    }
+
+    private void end(Long orderId) {
+        Reservation reservation = reservationsByOrder.remove(orderId);
+        if (reservation != null) {
+            free(reservation);
+        }
+    }
+
+    private void free(Reservation reservation) {
+        for (int i = 0; i < reservation.productIds.length; i++) {
+            reservedByProduct.get(reservation.productIds[i]).addAndGet(-reservation.counts[i]);
+        }
+    }
+
+    private void restore(Reservation reservation) {
+        for (int i = 0; i < reservation.productIds.length; i++) {
+            reservedByProduct.computeIfAbsent(reservation.productIds[i], id -> new AtomicInteger()).addAndGet(reservation.counts[i]);
+        }
+        reservationsByOrder.put(reservation.orderId, reservation);
+        // It may already have been polled while it was out of the map
+        expiryQueue.add(reservation);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Reservation implements Delayed {
+        final Long orderId;
+        final long[] productIds;
+        final int[] counts;
+        final long expiresAtNanos;
+
+        Reservation(Long orderId, long[] productIds, int[] counts, long expiresAtNanos) {
+            this.orderId = orderId;
+            this.productIds = productIds;
+            this.counts = counts;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtNanos, ((Reservation) other).expiresAtNanos);
+        }
+    }
+}
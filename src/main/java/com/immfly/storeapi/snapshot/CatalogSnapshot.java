@@ -0,0 +1,237 @@
+package com.immfly.storeapi.snapshot;
+
+import com.immfly.storeapi.dto.CategoryDTO;
+import com.immfly.storeapi.dto.ProductDTO;
+import com.immfly.storeapi.exception.InvalidCatalogSnapshotException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+// Memory-mapped snapshot: header, category records, product records, string table
+public class CatalogSnapshot {
+
+    static final int MAGIC = 0x53434154; // "SCAT"
+    static final int FORMAT_VERSION = 2;
+    static final int CONTENT_HASH_OFFSET = 32;
+    static final int CONTENT_HASH_SIZE = 32;
+    static final int CRC_OFFSET = CONTENT_HASH_OFFSET + CONTENT_HASH_SIZE;
+    static final int HEADER_SIZE = CRC_OFFSET + 8;
+    static final int CATEGORY_RECORD_SIZE = 24;
+    static final int PRODUCT_RECORD_SIZE = 32;
+    static final long NO_PARENT = -1L;
+    static final int NO_STRING = -1;
+
+    private final ByteBuffer buffer;
+    private final long catalogVersion;
+    private final int categoryCount;
+    private final int productCount;
+    private final int productsOffset;
+    private final int stringTableOffset;
+
+    private CatalogSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new InvalidCatalogSnapshotException("Not a catalog snapshot");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new InvalidCatalogSnapshotException("Unsupported catalog snapshot format version: " + buffer.getInt(4));
+        }
+        if (checksum(buffer) != buffer.getLong(CRC_OFFSET)) {
+            throw new InvalidCatalogSnapshotException("Catalog snapshot checksum mismatch");
+        }
+
+        this.catalogVersion = buffer.getLong(8);
+        this.categoryCount = buffer.getInt(16);
+        this.productCount = buffer.getInt(20);
+        this.stringTableOffset = buffer.getInt(24);
+        int stringTableLength = buffer.getInt(28);
+
+        // Long arithmetic: a crafted header must not overflow its way past these checks
+        long expectedStringTableOffset = HEADER_SIZE + (long) categoryCount * CATEGORY_RECORD_SIZE + (long) productCount * PRODUCT_RECORD_SIZE;
+        if (categoryCount < 0 || productCount < 0 || stringTableLength < 0
+                || stringTableOffset != expectedStringTableOffset
+                || (long) stringTableOffset + stringTableLength != buffer.capacity()) {
+            throw new InvalidCatalogSnapshotException("Catalog snapshot record counts do not match its size");
+        }
+        this.productsOffset = HEADER_SIZE + categoryCount * CATEGORY_RECORD_SIZE;
+
+        validateRecords();
+    }
+
+    public static CatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CatalogSnapshot(mapped);
+        }
+    }
+
+    public static CatalogSnapshot wrap(byte[] bytes) {
+        return new CatalogSnapshot(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public int getCategoryCount() {
+        return categoryCount;
+    }
+
+    public int getProductCount() {
+        return productCount;
+    }
+
+    public byte[] getContentHash() {
+        byte[] hash = new byte[CONTENT_HASH_SIZE];
+        buffer.get(CONTENT_HASH_OFFSET, hash);
+        return hash;
+    }
+
+    public Optional<CategoryDTO> findCategory(long id) {
+        int index = binarySearch(HEADER_SIZE, CATEGORY_RECORD_SIZE, categoryCount, id);
+        return index < 0 ? Optional.empty() : Optional.of(readCategory(index));
+    }
+
+    public Optional<ProductDTO> findProduct(long id) {
+        int index = binarySearch(productsOffset, PRODUCT_RECORD_SIZE, productCount, id);
+        return index < 0 ? Optional.empty() : Optional.of(readProduct(index));
+    }
+
+    public List<CategoryDTO> getCategories() {
+        List<CategoryDTO> categories = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            categories.add(readCategory(i));
+        }
+        return categories;
+    }
+
+    public List<ProductDTO> getProducts() {
+        List<ProductDTO> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            products.add(readProduct(i));
+        }
+        return products;
+    }
+
+    private int binarySearch(int offset, int recordSize, int count, long id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = buffer.getLong(offset + mid * recordSize);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private CategoryDTO readCategory(int index) {
+        int position = HEADER_SIZE + index * CATEGORY_RECORD_SIZE;
+        long parentId = buffer.getLong(position + 8);
+        return new CategoryDTO(
+                buffer.getLong(position),
+                readString(buffer.getInt(position + 16)),
+                parentId == NO_PARENT ? null : parentId
+        );
+    }
+
+    private ProductDTO readProduct(int index) {
+        int position = productsOffset + index * PRODUCT_RECORD_SIZE;
+        return new ProductDTO(
+                buffer.getLong(position),
+                readString(buffer.getInt(position + 24)),
+                decimal(readString(buffer.getInt(position + 16))),
+                readString(buffer.getInt(position + 28)),
+                buffer.getLong(position + 8),
+                buffer.getInt(position + 20)
+        );
+    }
+
+    // Ids must be sorted for the binary search, and every string ref must stay inside the table
+    private void validateRecords() {
+        long previousId = Long.MIN_VALUE;
+        for (int i = 0; i < categoryCount; i++) {
+            int position = HEADER_SIZE + i * CATEGORY_RECORD_SIZE;
+            previousId = validateId(buffer.getLong(position), previousId, i);
+            validateString(buffer.getInt(position + 16));
+        }
+
+        previousId = Long.MIN_VALUE;
+        for (int i = 0; i < productCount; i++) {
+            int position = productsOffset + i * PRODUCT_RECORD_SIZE;
+            previousId = validateId(buffer.getLong(position), previousId, i);
+            validatePrice(buffer.getInt(position + 16));
+            validateString(buffer.getInt(position + 24));
+            validateString(buffer.getInt(position + 28));
+        }
+    }
+
+    private void validatePrice(int ref) {
+        validateString(ref);
+        try {
+            if (ref == NO_STRING) {
+                throw new NumberFormatException();
+            }
+            decimal(readString(ref));
+        } catch (NumberFormatException ex) {
+            throw new InvalidCatalogSnapshotException("Catalog snapshot holds an invalid price");
+        }
+    }
+
+    private static long validateId(long id, long previousId, int index) {
+        if (index > 0 && id <= previousId) {
+            throw new InvalidCatalogSnapshotException("Catalog snapshot records are not sorted by id");
+        }
+        return id;
+    }
+
+    private void validateString(int ref) {
+        if (ref == NO_STRING) {
+            return;
+        }
+        long position = (long) stringTableOffset + ref;
+        if (ref < 0 || position + 4 > buffer.capacity() || buffer.getInt((int) position) < 0
+                || position + 4 + buffer.getInt((int) position) > buffer.capacity()) {
+            throw new InvalidCatalogSnapshotException("Catalog snapshot string reference out of range");
+        }
+    }
+
+    private static BigDecimal decimal(String value) {
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    static long checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, CRC_OFFSET));
+        crc.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+        return crc.getValue();
+    }
+
+    private String readString(int ref) {
+        if (ref == NO_STRING) {
+            return null;
+        }
+        int position = stringTableOffset + ref;
+        int length = buffer.getInt(position);
+        byte[] bytes = new byte[length];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,95 @@
+package com.immfly.storeapi.snapshot;
+
+import com.immfly.storeapi.dto.CategoryDTO;
+import com.immfly.storeapi.dto.ProductDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.immfly.storeapi.snapshot.CatalogSnapshot.*;
+
+public class CatalogSnapshotWriter {
+
+    public static byte[] write(long catalogVersion, List<CategoryDTO> categories, List<ProductDTO> products) {
+        List<CategoryDTO> sortedCategories = categories.stream().sorted(Comparator.comparing(CategoryDTO::getId)).toList();
+        List<ProductDTO> sortedProducts = products.stream().sorted(Comparator.comparing(ProductDTO::getId)).toList();
+
+        StringTable strings = new StringTable();
+        int recordsSize = sortedCategories.size() * CATEGORY_RECORD_SIZE + sortedProducts.size() * PRODUCT_RECORD_SIZE;
+        ByteBuffer records = ByteBuffer.allocate(recordsSize);
+
+        for (CategoryDTO category : sortedCategories) {
+            records.putLong(category.getId());
+            records.putLong(category.getParentCategoryId() == null ? NO_PARENT : category.getParentCategoryId());
+            records.putInt(strings.add(category.getName()));
+            records.putInt(0);
+        }
+
+        for (ProductDTO product : sortedProducts) {
+            records.putLong(product.getId());
+            records.putLong(product.getCategoryId());
+            // BigDecimal.toString round-trips unscaled value and scale exactly, whatever their size
+            records.putInt(strings.add(product.getPrice().toString()));
+            records.putInt(product.getStock() == null ? 0 : product.getStock());
+            records.putInt(strings.add(product.getName()));
+            records.putInt(strings.add(product.getImageUrl()));
+        }
+
+        byte[] stringTable = strings.toByteArray();
+        ByteBuffer file = ByteBuffer.allocate(HEADER_SIZE + recordsSize + stringTable.length);
+        file.position(HEADER_SIZE);
+        file.put(records.array());
+        file.put(stringTable);
+
+        file.putInt(0, MAGIC);
+        file.putInt(4, FORMAT_VERSION);
+        file.putLong(8, catalogVersion);
+        file.putInt(16, sortedCategories.size());
+        file.putInt(20, sortedProducts.size());
+        file.putInt(24, HEADER_SIZE + recordsSize);
+        file.putInt(28, stringTable.length);
+        file.put(CONTENT_HASH_OFFSET, contentHash(file));
+        file.putLong(CRC_OFFSET, checksum(file));
+
+        return file.array();
+    }
+
+    private static byte[] contentHash(ByteBuffer file) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(file.slice(HEADER_SIZE, file.capacity() - HEADER_SIZE));
+            return digest.digest();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static class StringTable {
+        private final Map<String, Integer> offsets = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        int add(String value) {
+            if (value == null) {
+                return NO_STRING;
+            }
+            return offsets.computeIfAbsent(value, v -> {
+                int offset = bytes.size();
+                byte[] encoded = v.getBytes(StandardCharsets.UTF_8);
+                bytes.writeBytes(ByteBuffer.allocate(4).putInt(encoded.length).array());
+                bytes.writeBytes(encoded);
+                return offset;
+            });
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
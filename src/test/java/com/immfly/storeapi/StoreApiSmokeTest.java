@@ -0,0 +1,107 @@
+package com.immfly.storeapi;
+
+import com.immfly.storeapi.dto.CategoryDTO;
+import com.immfly.storeapi.dto.CategoryProductCountDTO;
+import com.immfly.storeapi.dto.FlightDTO;
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.dto.OrderSummaryDTO;
+import com.immfly.storeapi.dto.ProductDTO;
+import com.immfly.storeapi.dto.ProductOrderCountDTO;
+import com.immfly.storeapi.dto.ProductSalesDTO;
+import com.immfly.storeapi.enums.FlightStatus;
+import com.immfly.storeapi.enums.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Tagged smoke: mvn -PnativeTest test runs only these, inside the native test image
+@Tag("smoke")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StoreApiSmokeTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private HttpHeaders headers;
+
+    @BeforeEach
+    void login() {
+        ResponseEntity<String> response = restTemplate.postForEntity("/auth/login?username=admin&password=admin123", null, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        headers = new HttpHeaders();
+        headers.setBearerAuth(response.getBody());
+    }
+
+    @Test
+    void requestWithoutToken_IsRejected() {
+        assertEquals(HttpStatus.FORBIDDEN, restTemplate.getForEntity("/categories", String.class).getStatusCode());
+    }
+
+    @Test
+    void orderLifecycle_FromCatalogToClosedFlight() {
+        CategoryDTO category = exchange(HttpMethod.POST, "/categories", new CategoryDTO(null, "Smoke drinks", null), CategoryDTO.class, HttpStatus.CREATED);
+        ProductDTO product = exchange(HttpMethod.POST, "/products",
+                new ProductDTO(null, "Smoke water", new BigDecimal("2.50"), null, category.getId(), 10), ProductDTO.class, HttpStatus.CREATED);
+        exchange(HttpMethod.POST, "/flights/SMOKE1", null, FlightDTO.class, HttpStatus.CREATED);
+
+        OrderDTO request = new OrderDTO(null, null, null, null, null, "smoke@example.com", 'A', 1, List.of(product.getId()));
+        request.setFlightId("SMOKE1");
+        OrderDTO order = exchange(HttpMethod.POST, "/orders", request, OrderDTO.class, HttpStatus.CREATED);
+        assertEquals(OrderStatus.OPEN, order.getStatus());
+        assertEquals(0, new BigDecimal("2.50").compareTo(order.getTotalPrice()));
+
+        // Counts are served apart from the ETag-versioned catalog, which an order does not change
+        ProductOrderCountDTO[] orderCounts = exchange(HttpMethod.GET, "/products/order-counts", null, ProductOrderCountDTO[].class, HttpStatus.OK);
+        assertTrue(Arrays.stream(orderCounts).anyMatch(c -> c.getProductId().equals(product.getId()) && c.getOrderCount() == 1));
+        CategoryProductCountDTO[] productCounts = exchange(HttpMethod.GET, "/categories/product-counts", null, CategoryProductCountDTO[].class, HttpStatus.OK);
+        assertTrue(Arrays.stream(productCounts).anyMatch(c -> c.getCategoryId().equals(category.getId()) && c.getProductCount() == 1));
+
+        OrderSummaryDTO[] summaries = exchange(HttpMethod.GET, "/orders/summaries?flightId=SMOKE1", null, OrderSummaryDTO[].class, HttpStatus.OK);
+        assertEquals(1, summaries.length);
+
+        byte[] export = exchange(HttpMethod.GET, "/orders/export?format=ndjson", null, byte[].class, HttpStatus.OK);
+        assertTrue(new String(export, StandardCharsets.UTF_8).contains("smoke@example.com"));
+
+        // Nothing has been paid for on this flight yet
+        assertEquals(0, exchange(HttpMethod.GET, "/analytics/products?flightId=SMOKE1", null, ProductSalesDTO[].class, HttpStatus.OK).length);
+
+        byte[] snapshot = exchange(HttpMethod.GET, "/catalog/snapshot", null, byte[].class, HttpStatus.OK);
+        assertTrue(snapshot.length > 0);
+
+        assertEquals(OrderStatus.DROPPED, exchange(HttpMethod.PATCH, "/orders/" + order.getId() + "/cancel", null, OrderDTO.class, HttpStatus.OK).getStatus());
+        assertEquals(FlightStatus.CLOSED, exchange(HttpMethod.POST, "/flights/SMOKE1/close", null, FlightDTO.class, HttpStatus.OK).getStatus());
+
+        // Served from the archive once the flight is closed
+        OrderDTO archived = exchange(HttpMethod.GET, "/orders/" + order.getId(), null, OrderDTO.class, HttpStatus.OK);
+        assertEquals(OrderStatus.DROPPED, archived.getStatus());
+        assertEquals(List.of(product.getId()), archived.getProductIds());
+    }
+
+    @Test
+    void invalidOrder_ReturnsErrorResponse() {
+        String body = exchange(HttpMethod.POST, "/orders", new OrderDTO(), String.class, HttpStatus.BAD_REQUEST);
+        assertTrue(body.contains("Buyer email must not be blank"));
+    }
+
+    private <T> T exchange(HttpMethod method, String url, Object body, Class<T> responseType, HttpStatus expectedStatus) {
+        ResponseEntity<T> response = restTemplate.exchange(url, method, new HttpEntity<>(body, headers), responseType);
+        assertEquals(expectedStatus, response.getStatusCode(), () -> method + " " + url + " returned " + response.getBody());
+        return response.getBody();
+    }
+}
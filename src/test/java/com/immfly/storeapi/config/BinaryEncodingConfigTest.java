@@ -0,0 +1,77 @@
+package com.immfly.storeapi.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.immfly.storeapi.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BinaryEncodingConfigTest {
+
+    private static final TypeReference<List<ProductDTO>> PRODUCT_LIST = new TypeReference<>() {
+    };
+
+    @Test
+    void extendMessageConverters_ReplacesDefaultsAfterJson() {
+        List<HttpMessageConverter<?>> converters = extendedConverters();
+
+        assertEquals(3, converters.size());
+        assertInstanceOf(MappingJackson2HttpMessageConverter.class, converters.get(0));
+        assertInstanceOf(MappingJackson2CborHttpMessageConverter.class, converters.get(1));
+        assertInstanceOf(MappingJackson2SmileHttpMessageConverter.class, converters.get(2));
+        // Built from the application's builder, so it is configured as in JSON
+        ObjectMapper cbor = ((MappingJackson2CborHttpMessageConverter) converters.get(1)).getObjectMapper();
+        assertFalse(cbor.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+    }
+
+    @Test
+    void binaryEncodings_LargeCatalog_RoundTripSmallerThanJson() throws Exception {
+        List<HttpMessageConverter<?>> converters = extendedConverters();
+        ObjectMapper json = ((MappingJackson2HttpMessageConverter) converters.get(0)).getObjectMapper();
+        ObjectMapper cbor = ((MappingJackson2CborHttpMessageConverter) converters.get(1)).getObjectMapper();
+        ObjectMapper smile = ((MappingJackson2SmileHttpMessageConverter) converters.get(2)).getObjectMapper();
+
+        List<ProductDTO> catalog = LongStream.rangeClosed(1, 10_000)
+                .mapToObj(id -> new ProductDTO(id, "Product " + id, BigDecimal.valueOf(id % 500, 2),
+                        "https://cdn.example.com/products/" + id + ".jpg", id % 20 + 1, (int) (id % 50)))
+                .toList();
+
+        int jsonSize = json.writeValueAsBytes(catalog).length;
+        for (ObjectMapper binary : List.of(cbor, smile)) {
+            byte[] encoded = binary.writeValueAsBytes(catalog);
+            assertTrue(encoded.length < jsonSize, binary.getFactory().getFormatName() + " is not smaller than JSON");
+
+            List<ProductDTO> decoded = binary.readValue(encoded, PRODUCT_LIST);
+            assertEquals(catalog.size(), decoded.size());
+            assertEquals("Product 10000", decoded.get(9_999).getName());
+            assertEquals(0, new BigDecimal("0.00").compareTo(decoded.get(9_999).getPrice()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<HttpMessageConverter<?>> extendedConverters() {
+        ObjectProvider<Jackson2ObjectMapperBuilder> builder = mock(ObjectProvider.class);
+        when(builder.getObject()).thenAnswer(invocation -> Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new MappingJackson2HttpMessageConverter(builder.getObject().build()));
+        converters.add(new MappingJackson2CborHttpMessageConverter());
+        new BinaryEncodingConfig(builder).extendMessageConverters(converters);
+        return converters;
+    }
+}
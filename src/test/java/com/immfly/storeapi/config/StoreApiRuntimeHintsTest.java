@@ -0,0 +1,69 @@
+package com.immfly.storeapi.config;
+
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.dto.SeatSummaryDTO;
+import com.immfly.storeapi.enums.OrderStatus;
+import com.immfly.storeapi.model.Order;
+import com.immfly.storeapi.model.ProductOrderId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import java.sql.PreparedStatement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoreApiRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new StoreApiRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_Entities_AreReflectivelyAccessible() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Order.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ProductOrderId.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS).test(hints));
+    }
+
+    @Test
+    void registerHints_DtosAndEnums_AreBindable() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(OrderDTO.class.getMethod("getBuyerEmail")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(OrderDTO.class.getMethod("setBuyerEmail", String.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(SeatSummaryDTO.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(OrderStatus.class).test(hints));
+    }
+
+    @Test
+    void registerHints_Jjwt_IsLoadableByName() {
+        for (String type : StoreApiRuntimeHints.JJWT_TYPES) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(type))
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints), type);
+        }
+        assertTrue(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Serializer").test(hints));
+    }
+
+    @Test
+    void registerHints_JdbcProxies_AreRegistered() {
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(ConnectionProxy.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(PreparedStatement.class).test(hints));
+    }
+
+    @Test
+    void jjwtTypes_ExistOnTheRuntimeClasspath() {
+        // Catches a rename in a jjwt upgrade, which would otherwise only fail inside the native image
+        for (String type : StoreApiRuntimeHints.JJWT_TYPES) {
+            assertDoesNotThrow(() -> Class.forName(type), type);
+        }
+    }
+}
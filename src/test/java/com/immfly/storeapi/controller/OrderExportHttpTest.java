@@ -0,0 +1,96 @@
+package com.immfly.storeapi.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The body is written on an async dispatch, which must get past security and deliver every order
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class OrderExportHttpTest {
+
+    private static final int ORDERS = 5000;
+    // Paid long before anything else in the dev database, so the date range selects only these
+    private static final LocalDateTime PAID_AT = LocalDateTime.of(2001, 3, 4, 10, 0);
+    private static final String RANGE = "from=2001-03-04T00:00:00&to=2001-03-05T00:00:00";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private HttpHeaders headers;
+
+    @BeforeEach
+    void setUp() {
+        List<Integer> seats = IntStream.rangeClosed(1, ORDERS).boxed().toList();
+        jdbcTemplate.batchUpdate("INSERT INTO orders (flight_id, total_price, payment_status, status, buyer_email, seat_letter, seat_number, payment_date, version) " +
+                        "VALUES ('EXPORT1', 4.50, 'PAID', 'FINISHED', 'export@example.com', 'C', ?, ?, 0)",
+                seats, 500, (ps, seat) -> {
+                    ps.setInt(1, seat);
+                    ps.setTimestamp(2, Timestamp.valueOf(PAID_AT));
+                });
+
+        ResponseEntity<String> login = restTemplate.postForEntity("/auth/login?username=admin&password=admin123", null, String.class);
+        assertEquals(HttpStatus.OK, login.getStatusCode());
+        headers = new HttpHeaders();
+        headers.setBearerAuth(login.getBody());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM orders WHERE flight_id = 'EXPORT1'");
+    }
+
+    @Test
+    void exportOrders_Csv_DeliversEveryOrder() {
+        String body = new String(download("/orders/export?format=csv&" + RANGE), StandardCharsets.UTF_8);
+
+        List<String> lines = body.lines().toList();
+        assertEquals(ORDERS + 1, lines.size());
+        assertTrue(lines.get(0).startsWith("id,buyerEmail,"));
+        assertTrue(lines.get(ORDERS).contains(",export@example.com,C,"));
+        assertTrue(body.endsWith("\n"));
+    }
+
+    @Test
+    void exportOrders_GzipNdjson_DeliversEveryOrder() throws IOException {
+        byte[] body = download("/orders/export?format=ndjson&gzip=true&" + RANGE);
+
+        String ndjson;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> lines = ndjson.lines().toList();
+        assertEquals(ORDERS, lines.size());
+        assertTrue(lines.stream().allMatch(line -> line.startsWith("{") && line.endsWith("}")));
+    }
+
+    private byte[] download(String url) {
+        ResponseEntity<byte[]> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        return response.getBody();
+    }
+}
@@ -0,0 +1,81 @@
+package com.immfly.storeapi.datasource;
+
+import com.immfly.storeapi.monitoring.QueryStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCountingDataSourceTest {
+
+    private DriverManagerDataSource target;
+    private QueryCountingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        target = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(target).execute("CREATE TABLE items (id INT PRIMARY KEY)");
+        dataSource = new QueryCountingDataSource(target);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void statements_AreCountedWhileCounting() {
+        QueryStats stats = QueryStats.begin();
+        jdbcTemplate.update("INSERT INTO items VALUES (?)", 1);
+        jdbcTemplate.batchUpdate("INSERT INTO items VALUES (?)", List.of(new Object[]{2}, new Object[]{3}));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Integer.class));
+        stats.end();
+
+        // The batch is one round trip
+        assertEquals(3, stats.getStatements());
+        assertTrue(stats.getNanos() > 0);
+    }
+
+    @Test
+    void statements_OutsideAScope_AreNotCounted() {
+        jdbcTemplate.update("INSERT INTO items VALUES (?)", 1);
+
+        QueryStats stats = QueryStats.begin();
+        stats.end();
+
+        assertEquals(0, stats.getStatements());
+    }
+
+    @Test
+    void nestedScope_AddsToTheOuterScope() {
+        QueryStats outer = QueryStats.begin();
+        jdbcTemplate.queryForList("SELECT id FROM items");
+        QueryStats inner = QueryStats.begin();
+        jdbcTemplate.queryForList("SELECT id FROM items");
+        inner.end();
+        outer.end();
+
+        assertEquals(1, inner.getStatements());
+        assertEquals(2, outer.getStatements());
+    }
+
+    @Test
+    void connection_UnwrapsToTheTarget() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            assertNotSame(connection, DataSourceUtils.getTargetConnection(connection));
+            assertEquals(connection, connection);
+            assertTrue(connection.isWrapperFor(Connection.class));
+
+            PreparedStatement statement = connection.prepareStatement("SELECT 1");
+            assertSame(connection, statement.getConnection());
+            statement.close();
+        }
+        assertTrue(dataSource.isWrapperFor(DriverManagerDataSource.class));
+        assertSame(target, dataSource.unwrap(DriverManagerDataSource.class));
+    }
+}
@@ -0,0 +1,121 @@
+package com.immfly.storeapi.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+    private static final String SERVICE_READ = "com.immfly.storeapi.service.impl.OrderServiceImpl.getOrderById";
+
+    private String replicaUrl;
+    private ReadYourWrites readYourWrites;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource primary = database("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "primary");
+        replicaUrl = "jdbc:h2:mem:" + UUID.randomUUID();
+        database(replicaUrl + ";DB_CLOSE_DELAY=-1", "replica");
+        // Connecting again after a shutdown must fail instead of creating an empty database
+        DriverManagerDataSource replica = new DriverManagerDataSource(replicaUrl + ";IFEXISTS=TRUE", "sa", "");
+
+        readYourWrites = new ReadYourWrites();
+        ReflectionTestUtils.setField(readYourWrites, "windowMs", 60000L);
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica), readYourWrites, "com.immfly.storeapi.service.");
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyServiceTransaction_GoesToReplica() {
+        assertEquals("replica", read(SERVICE_READ, true));
+        assertEquals("primary", read(SERVICE_READ, false));
+        assertEquals("primary", jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @Test
+    void readOnlyRepositoryTransaction_StaysOnPrimary() {
+        assertEquals("primary", read("org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById", true));
+        assertEquals("primary", read(null, true));
+    }
+
+    @Test
+    void checkReplicas_ReplicaDown_ReadsGoToPrimary() {
+        assertEquals(1, routingDataSource.checkReplicas(1));
+
+        new JdbcTemplate(new DriverManagerDataSource(replicaUrl, "sa", "")).execute("SHUTDOWN");
+
+        assertEquals(0, routingDataSource.checkReplicas(1));
+        assertEquals(Map.of("replica-0", false), routingDataSource.getReplicaHealth());
+        assertEquals("primary", read(SERVICE_READ, true));
+    }
+
+    @Test
+    void readYourWrites_AfterCommittedWrite_ReadsFromPrimary() {
+        authenticate("device-1");
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        write.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE node SET name = name");
+            readYourWrites.recordWrite();
+        });
+
+        assertEquals("primary", read(SERVICE_READ, true));
+
+        authenticate("device-2");
+        assertEquals("replica", read(SERVICE_READ, true));
+    }
+
+    @Test
+    void readYourWrites_RolledBackWrite_DoesNotPin() {
+        authenticate("device-1");
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        write.executeWithoutResult(status -> {
+            readYourWrites.recordWrite();
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica", read(SERVICE_READ, true));
+    }
+
+    private String read(String transactionName, boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setName(transactionName);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static DriverManagerDataSource database(String url, String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static void authenticate(String principal) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
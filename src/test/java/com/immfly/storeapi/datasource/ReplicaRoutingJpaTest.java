@@ -0,0 +1,135 @@
+package com.immfly.storeapi.datasource;
+
+import com.immfly.storeapi.config.ReplicaDataSourceConfig;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Hibernate and an entity manager open for the whole request, as spring.jpa.open-in-view runs it
+class ReplicaRoutingJpaTest {
+    private static final String SERVICE_READ = "com.immfly.storeapi.service.impl.OrderServiceImpl.getOrderById";
+    private static final String SERVICE_WRITE = "com.immfly.storeapi.service.impl.OrderServiceImpl.updateOrder";
+
+    private JdbcTemplate primaryJdbcTemplate;
+    private JdbcTemplate replicaJdbcTemplate;
+    private ReadYourWrites readYourWrites;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private EntityManager entityManager;
+    private JpaTransactionManager transactionManager;
+    private OpenEntityManagerInViewInterceptor openInView;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource primary = database("primary");
+        DriverManagerDataSource replica = database("replica");
+        primaryJdbcTemplate = new JdbcTemplate(primary);
+        replicaJdbcTemplate = new JdbcTemplate(replica);
+
+        readYourWrites = new ReadYourWrites();
+        ReflectionTestUtils.setField(readYourWrites, "windowMs", 60000L);
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica), readYourWrites, "com.immfly.storeapi.service.");
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(new LazyConnectionDataSourceProxy(routingDataSource));
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setPackagesToScan(ReplicaRoutingJpaTest.class.getPackageName());
+        new ReplicaDataSourceConfig().releaseConnectionAfterTransaction().customize(entityManagerFactoryBean.getJpaPropertyMap());
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        transactionManager = new JpaTransactionManager(entityManagerFactory);
+        openInView = new OpenEntityManagerInViewInterceptor();
+        openInView.setEntityManagerFactory(entityManagerFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        entityManagerFactoryBean.destroy();
+    }
+
+    @Test
+    void readThenWriteInOneRequest_ReadGoesToReplicaWriteToPrimary() {
+        inRequest(() -> {
+            assertEquals("replica", read());
+            write("written");
+        });
+
+        assertEquals("written", primaryJdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+        assertEquals("replica", replicaJdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @Test
+    void readYourWrites_ReadAfterWriteInOneRequest_GoesToPrimary() {
+        authenticate("device-1");
+        inRequest(() -> {
+            write("written");
+            readYourWrites.recordWrite();
+            assertEquals("written", read());
+        });
+
+        inRequest(() -> assertEquals("written", read()));
+
+        authenticate("device-2");
+        inRequest(() -> assertEquals("replica", read()));
+    }
+
+    private void inRequest(Runnable call) {
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+        openInView.preHandle(request);
+        try {
+            call.run();
+        } finally {
+            openInView.afterCompletion(request, null);
+        }
+    }
+
+    private String read() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setName(SERVICE_READ);
+        template.setReadOnly(true);
+        return template.execute(status -> (String) entityManager.createNativeQuery("SELECT name FROM node").getSingleResult());
+    }
+
+    private void write(String name) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setName(SERVICE_WRITE);
+        template.executeWithoutResult(status -> entityManager.createNativeQuery("UPDATE node SET name = ?1")
+                .setParameter(1, name)
+                .executeUpdate());
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static void authenticate(String principal) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
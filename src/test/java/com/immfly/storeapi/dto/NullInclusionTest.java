@@ -0,0 +1,84 @@
+package com.immfly.storeapi.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immfly.storeapi.enums.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JsonTest
+class NullInclusionTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void orderSummary_NullFields_LeftOut() throws Exception {
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(openSummary(1L)));
+
+        assertEquals(List.of("orderId", "flightId", "status", "totalPrice", "itemCount"), fieldNames(json));
+        assertEquals(0, json.get("itemCount").asInt());
+        assertEquals(0, BigDecimal.ZERO.compareTo(json.get("totalPrice").decimalValue()));
+    }
+
+    @Test
+    void orderSummaries_LeavingNullsOut_ShrinksPayload() throws Exception {
+        List<OrderSummaryDTO> summaries = LongStream.rangeClosed(1, 1_000).mapToObj(NullInclusionTest::openSummary).toList();
+        // Same mapper without the DTO annotations, as the list was written before
+        ObjectMapper withNulls = objectMapper.copy().disable(MapperFeature.USE_ANNOTATIONS);
+
+        int compact = objectMapper.writeValueAsBytes(summaries).length;
+        int full = withNulls.writeValueAsBytes(summaries).length;
+
+        assertTrue(compact < full * 0.6, "compact " + compact + " bytes, with nulls " + full + " bytes");
+    }
+
+    @Test
+    void seatSummaryAndBatchItem_NullFields_LeftOut() throws Exception {
+        JsonNode seat = objectMapper.readTree(objectMapper.writeValueAsString(new SeatSummaryDTO(null, null, 2, 3, null)));
+        JsonNode rejected = objectMapper.readTree(objectMapper.writeValueAsString(new OrderBatchItemDTO(4, null, "Product not found")));
+
+        assertEquals(List.of("orderCount", "itemCount"), fieldNames(seat));
+        assertEquals(List.of("index", "error"), fieldNames(rejected));
+    }
+
+    @Test
+    void orderAndProduct_NullFields_StillWritten() throws Exception {
+        OrderDTO order = new OrderDTO();
+        order.setId(1L);
+        order.setStatus(OrderStatus.OPEN);
+        JsonNode orderJson = objectMapper.readTree(objectMapper.writeValueAsString(order));
+        JsonNode productJson = objectMapper.readTree(objectMapper.writeValueAsString(
+                new ProductDTO(2L, "Water", new BigDecimal("1.50"), null, 1L, 0)));
+
+        assertTrue(orderJson.has("paymentDate"));
+        assertTrue(orderJson.get("paymentDate").isNull());
+        assertTrue(orderJson.get("seatLetter").isNull());
+        assertTrue(productJson.get("imageUrl").isNull());
+        assertEquals(0, productJson.get("stock").asInt());
+    }
+
+    private static OrderSummaryDTO openSummary(long orderId) {
+        OrderSummaryDTO summary = new OrderSummaryDTO();
+        summary.setOrderId(orderId);
+        summary.setFlightId("IB3202");
+        summary.setStatus(OrderStatus.OPEN);
+        summary.setTotalPrice(BigDecimal.ZERO);
+        return summary;
+    }
+
+    private static List<String> fieldNames(JsonNode json) {
+        List<String> names = new ArrayList<>();
+        json.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
@@ -0,0 +1,96 @@
+package com.immfly.storeapi.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void businessException_HasNoStackTraceByDefault() {
+        assertEquals(0, new OutOfStockException("Product out of stock: Water").getStackTrace().length);
+        assertEquals(0, new ResourceNotFoundException("Order not found with id: 1").getStackTrace().length);
+    }
+
+    @Test
+    void stackTracesEnabled_SystemPropertyOverridesEnvironment() {
+        assertFalse(BusinessException.stackTracesEnabled(null, null));
+        assertTrue(BusinessException.stackTracesEnabled(null, "true"));
+        assertTrue(BusinessException.stackTracesEnabled("true", "false"));
+        assertFalse(BusinessException.stackTracesEnabled("false", "true"));
+    }
+
+    @Test
+    void handleBusinessException_UsesTheExceptionStatus() {
+        assertRendered(HttpStatus.BAD_REQUEST, "Product out of stock: Water", handler.handleBusinessException(new OutOfStockException("Product out of stock: Water")));
+        assertRendered(HttpStatus.NOT_FOUND, "Order not found with id: 1", handler.handleBusinessException(new ResourceNotFoundException("Order not found with id: 1")));
+        assertRendered(HttpStatus.CONFLICT, "Cannot update", handler.handleBusinessException(new OrderNotUpdatableException("Cannot update")));
+    }
+
+    @Test
+    void paymentGatewayException_KeepsItsStackTrace() {
+        PaymentGatewayException ex = new PaymentGatewayException("Error calling payment gateway", new IllegalStateException("timeout"));
+
+        assertTrue(ex.getStackTrace().length > 0);
+        assertRendered(HttpStatus.BAD_GATEWAY, "Error calling payment gateway", handler.handlePaymentGateway(ex));
+    }
+
+    @Test
+    void outOfStockRush_AllocatesFarLessWithoutStackTraces() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+
+        // Warm up both paths so the measured runs are compiled code
+        rush(20_000, false);
+        rush(20_000, true);
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        rush(10_000, true);
+        long withStackTraces = threads.getCurrentThreadAllocatedBytes() - before;
+
+        before = threads.getCurrentThreadAllocatedBytes();
+        rush(10_000, false);
+        long stackless = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(stackless * 3 < withStackTraces, () -> "stackless " + stackless + " bytes, with stack traces " + withStackTraces + " bytes");
+    }
+
+    // Nine in ten checkouts are rejected as out of stock and rendered; a few frames stand in for controller and service.
+    // With stack traces, the rejection is an ordinary exception, which captures its trace, rendered by the fallback handler
+    private int rush(int requests, boolean stackTraces) {
+        int rejected = 0;
+        for (int i = 0; i < requests; i++) {
+            try {
+                checkout(i, 5, stackTraces);
+            } catch (BusinessException ex) {
+                rejected += handler.handleBusinessException(ex).getStatusCode().value() == 400 ? 1 : 0;
+            } catch (IllegalStateException ex) {
+                rejected += handler.handleGenericException(ex).getStatusCode().value() == 500 ? 1 : 0;
+            }
+        }
+        return rejected;
+    }
+
+    private static void checkout(int request, int depth, boolean stackTraces) {
+        if (depth > 0) {
+            checkout(request, depth - 1, stackTraces);
+        } else if (request % 10 != 0) {
+            throw stackTraces ? new IllegalStateException("Product out of stock: Water") : new OutOfStockException("Product out of stock: Water");
+        }
+    }
+
+    private static void assertRendered(HttpStatus status, String message, ResponseEntity<ErrorResponse> response) {
+        assertEquals(status, response.getStatusCode());
+        assertEquals(status.value(), response.getBody().getStatus());
+        assertEquals(List.of(message), response.getBody().getErrors());
+        assertNotNull(response.getBody().getTimestamp());
+    }
+}
@@ -0,0 +1,44 @@
+package com.immfly.storeapi.monitoring;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionPoolMonitorTest {
+
+    @Test
+    void sample_RecordsThreadsAwaitingConnection() throws Exception {
+        HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(0, 3);
+        HikariDataSource dataSource = mock(HikariDataSource.class);
+        when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+        when(dataSource.unwrap(HikariDataSource.class)).thenReturn(dataSource);
+        when(dataSource.getPoolName()).thenReturn("store-api-pool");
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        ConnectionPoolMonitor monitor = new ConnectionPoolMonitor(dataSource, registry);
+        monitor.sample();
+        monitor.sample();
+
+        DistributionSummary pending = registry.get("hikaricp.connections.pending.sampled").tag("pool", "store-api-pool").summary();
+        assertEquals(2, pending.count());
+        assertEquals(3.0, pending.max());
+    }
+
+    @Test
+    void sample_NotHikari_RecordsNothing() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        ConnectionPoolMonitor monitor = new ConnectionPoolMonitor(new DriverManagerDataSource(), registry);
+        monitor.sample();
+
+        assertEquals(0, registry.get("hikaricp.connections.pending.sampled").summary().count());
+    }
+}
@@ -0,0 +1,46 @@
+package com.immfly.storeapi.monitoring;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Counts only statements run on the calling thread, behind QueryCountingDataSource (any @SpringBootTest)
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    public static <T> T assertAtMost(int maxStatements, Supplier<T> call) {
+        QueryStats stats = QueryStats.begin();
+        T result;
+        try {
+            result = call.get();
+        } finally {
+            stats.end();
+        }
+
+        if (stats.getStatements() > maxStatements) {
+            fail("Expected at most " + maxStatements + " statements but " + stats.getStatements() + " ran in "
+                    + TimeUnit.NANOSECONDS.toMillis(stats.getNanos()) + " ms");
+        }
+        return result;
+    }
+
+    public static void assertAtMost(int maxStatements, Runnable call) {
+        assertAtMost(maxStatements, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public static int count(Runnable call) {
+        QueryStats stats = QueryStats.begin();
+        try {
+            call.run();
+        } finally {
+            stats.end();
+        }
+        return stats.getStatements();
+    }
+}
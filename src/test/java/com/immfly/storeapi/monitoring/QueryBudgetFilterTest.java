@@ -0,0 +1,88 @@
+package com.immfly.storeapi.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryBudgetFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private QueryBudgetFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new QueryBudgetFilter(registry);
+        ReflectionTestUtils.setField(filter, "maxStatements", 3);
+        ReflectionTestUtils.setField(filter, "maxDbTimeMs", 50L);
+    }
+
+    @Test
+    void request_WithinBudget_IsRecordedPerEndpoint() throws Exception {
+        filter.doFilter(request("/orders/7"), new MockHttpServletResponse(), statements(2, TimeUnit.MILLISECONDS.toNanos(5)));
+
+        DistributionSummary statements = registry.get("http.server.requests.statements").tags("method", "GET", "uri", "/orders/{id}").summary();
+        assertEquals(1, statements.count());
+        assertEquals(2, statements.totalAmount());
+        Timer db = registry.get("http.server.requests.db").tags("uri", "/orders/{id}").timer();
+        assertEquals(5, db.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertNull(registry.find("http.server.requests.query.budget.exceeded").counter());
+    }
+
+    @Test
+    void request_OverStatementBudget_IsCounted() throws Exception {
+        filter.doFilter(request("/orders/7"), new MockHttpServletResponse(), statements(4, 1000));
+
+        Counter exceeded = registry.get("http.server.requests.query.budget.exceeded").tags("uri", "/orders/{id}").counter();
+        assertEquals(1, exceeded.count());
+    }
+
+    @Test
+    void request_OverDbTimeBudget_IsCounted() throws Exception {
+        filter.doFilter(request("/orders/7"), new MockHttpServletResponse(), statements(1, TimeUnit.MILLISECONDS.toNanos(80)));
+
+        assertEquals(1, registry.get("http.server.requests.query.budget.exceeded").counter().count());
+    }
+
+    @Test
+    void request_WithoutHandler_SharesTheUnknownTag() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/no/such/path");
+        filter.doFilter(request, new MockHttpServletResponse(), statements(0, 0));
+
+        assertEquals(1, registry.get("http.server.requests.statements").tags("uri", "UNKNOWN").summary().count());
+    }
+
+    @Test
+    void statementsAfterTheRequest_AreNotCounted() throws Exception {
+        filter.doFilter(request("/orders/7"), new MockHttpServletResponse(), statements(1, 1000));
+        QueryStats.record(1000);
+
+        assertEquals(1, registry.get("http.server.requests.statements").summary().totalAmount());
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/orders/{id}");
+        return request;
+    }
+
+    private static FilterChain statements(int count, long totalNanos) {
+        return (request, response) -> {
+            for (int i = 0; i < count; i++) {
+                QueryStats.record(totalNanos / count);
+            }
+        };
+    }
+}
@@ -0,0 +1,170 @@
+package com.immfly.storeapi.retry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictRetryAspectTest {
+
+    private ConflictRetryAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        aspect = new ConflictRetryAspect();
+        ReflectionTestUtils.setField(aspect, "initialBackoffMs", 1L);
+        ReflectionTestUtils.setField(aspect, "maxBackoffMs", 4L);
+    }
+
+    @Test
+    void retryOnConflict_SucceedsAfterConflicts() {
+        VersionedRow row = new VersionedRow(2);
+
+        assertEquals(1L, proxy(row).increment());
+        assertEquals(3, row.attempts.get());
+        assertEquals(2, aspect.getRetryCount());
+        assertEquals(0, aspect.getExhaustedCount());
+    }
+
+    @Test
+    void retryOnConflict_GivesUpAfterMaxAttempts() {
+        VersionedRow row = new VersionedRow(Integer.MAX_VALUE);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, proxy(row)::increment);
+        assertEquals(3, row.attempts.get());
+        assertEquals(1, aspect.getExhaustedCount());
+    }
+
+    @Test
+    void retryOnConflict_OtherFailuresAreNotRetried() {
+        VersionedRow row = new VersionedRow(0);
+
+        assertThrows(IllegalStateException.class, proxy(row)::fail);
+        assertEquals(1, row.attempts.get());
+        assertEquals(0, aspect.getRetryCount());
+    }
+
+    @Test
+    void methodsWithoutAnnotation_AreNotRetried() {
+        VersionedRow row = new VersionedRow(1);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, proxy(row)::incrementOnce);
+        assertEquals(1, row.attempts.get());
+    }
+
+    @Test
+    void retryOnConflict_UnderContention_EveryConflictIsRetriedOrReported() throws Exception {
+        ReflectionTestUtils.setField(aspect, "maxAttempts", 8);
+        ContendedRow row = new ContendedRow();
+        ContendedRow proxiedRow = proxy(row);
+        int threads = 16;
+        int updatesPerThread = 50;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int failed = 0;
+                for (int i = 0; i < updatesPerThread; i++) {
+                    try {
+                        proxiedRow.increment();
+                    } catch (ObjectOptimisticLockingFailureException ex) {
+                        failed++;
+                    }
+                }
+                return failed;
+            }));
+        }
+        start.countDown();
+
+        int failed = 0;
+        for (Future<Integer> result : results) {
+            failed += result.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        int updates = threads * updatesPerThread;
+        double retryRate = (double) aspect.getRetryCount() / updates;
+        // Each call retries at most maxAttempts - 1 times, and a call only gives up after using all of them
+        assertTrue(retryRate <= 7, "retries per update " + retryRate);
+        assertTrue(aspect.getRetryCount() >= failed * 7L, "retries " + aspect.getRetryCount() + ", gave up " + failed);
+        assertTrue(failed < updates, "every update gave up");
+
+        // No lost updates: every call either committed exactly once or surfaced its conflict
+        assertEquals(updates - failed, row.version.get());
+        assertEquals(failed, aspect.getExhaustedCount());
+        assertEquals(row.conflicts.get(), aspect.getRetryCount() + aspect.getExhaustedCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return (T) factory.getProxy();
+    }
+
+    static class VersionedRow {
+        final AtomicInteger attempts = new AtomicInteger();
+        private final int conflictsBeforeSuccess;
+
+        VersionedRow() {
+            this(0);
+        }
+
+        VersionedRow(int conflictsBeforeSuccess) {
+            this.conflictsBeforeSuccess = conflictsBeforeSuccess;
+        }
+
+        @RetryOnConflict
+        public long increment() {
+            if (attempts.incrementAndGet() <= conflictsBeforeSuccess) {
+                throw new ObjectOptimisticLockingFailureException(VersionedRow.class, 1L);
+            }
+            return 1L;
+        }
+
+        @RetryOnConflict
+        public void fail() {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("not a conflict");
+        }
+
+        public void incrementOnce() {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(VersionedRow.class, 1L);
+        }
+    }
+
+    static class ContendedRow {
+        final AtomicLong version = new AtomicLong();
+        final AtomicInteger conflicts = new AtomicInteger();
+
+        @RetryOnConflict
+        public void increment() {
+            // Read, do some work, then write only if nobody else wrote in between
+            long read = version.get();
+            Thread.yield();
+            if (!version.compareAndSet(read, read + 1)) {
+                conflicts.incrementAndGet();
+                throw new ObjectOptimisticLockingFailureException(ContendedRow.class, 1L);
+            }
+        }
+    }
+}
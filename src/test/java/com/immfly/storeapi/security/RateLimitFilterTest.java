@@ -0,0 +1,216 @@
+package com.immfly.storeapi.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class RateLimitFilterTest {
+
+    private static final int LOGIN_BURST = 2;
+    private static final int FINISH_BURST = 1;
+    private static final int DEFAULT_BURST = 3;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final AtomicInteger passed = new AtomicInteger();
+    private final FilterChain chain = (request, response) -> passed.incrementAndGet();
+
+    private SimpleMeterRegistry registry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        // One token a minute: nothing refills while a test runs
+        filter = filter(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void requestOverTheLimit_Gets429WithRetryAfter() throws Exception {
+        for (int i = 0; i < LOGIN_BURST; i++) {
+            assertEquals(200, send("POST", "/auth/login", "10.0.0.1").getStatus());
+        }
+
+        MockHttpServletResponse response = send("POST", "/auth/login", "10.0.0.1");
+
+        assertEquals(429, response.getStatus());
+        assertEquals(LOGIN_BURST, passed.get());
+        long retryAfter = Long.parseLong(response.getHeader("Retry-After"));
+        assertTrue(retryAfter > 0 && retryAfter <= 60, () -> "Retry-After " + retryAfter);
+        JsonNode body = objectMapper.readTree(response.getContentAsString());
+        assertEquals(429, body.get("status").asInt());
+        assertTrue(body.get("errors").get(0).asText().startsWith("Too many requests"));
+        assertTrue(body.hasNonNull("timestamp"));
+        assertEquals(1, registry.get("http.server.requests.rate.limited").tags("rule", "login").counter().count());
+    }
+
+    @Test
+    void clients_AreKeyedByUsernameElseAddress() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("tablet-1", null, List.of()));
+        drain("GET", "/products", "10.0.0.1", DEFAULT_BURST);
+        assertEquals(429, send("GET", "/products", "10.0.0.2").getStatus());
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("tablet-2", null, List.of()));
+        assertEquals(200, send("GET", "/products", "10.0.0.1").getStatus());
+
+        SecurityContextHolder.clearContext();
+        assertEquals(200, send("GET", "/products", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void finishingOrders_HasItsOwnStricterBucket() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("tablet-1", null, List.of()));
+
+        assertEquals(200, send("POST", "/orders/7/finish", "10.0.0.1").getStatus());
+        assertEquals(429, send("POST", "/orders/8/finish", "10.0.0.1").getStatus());
+        assertEquals(200, send("GET", "/orders/7", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void mockPaymentGateway_IsNotLimited() throws Exception {
+        for (int i = 0; i < DEFAULT_BURST * 2; i++) {
+            assertEquals(200, send("POST", "/mock-payment/stripe", "10.0.0.1").getStatus());
+        }
+    }
+
+    @Test
+    void evictIdleBuckets_DropsOnlyRefilledBuckets() throws Exception {
+        send("GET", "/products", "10.0.0.1");
+        RateLimitFilter fast = filter(TimeUnit.MINUTES.toMicros(1));
+        MockHttpServletRequest request = request("GET", "/products", "10.0.0.1");
+        fast.doFilter(request, new MockHttpServletResponse(), chain);
+        Thread.sleep(5);
+
+        filter.evictIdleBuckets();
+        fast.evictIdleBuckets();
+
+        assertEquals(1, filter.bucketCount());
+        assertEquals(0, fast.bucketCount());
+    }
+
+    @Test
+    void noisyClient_DoesNotStarveOthersUnderContention() throws Exception {
+        int noisyThreads = 4;
+        int quietClients = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(noisyThreads + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<int[]>> noisy = new ArrayList<>();
+            for (int t = 0; t < noisyThreads; t++) {
+                noisy.add(executor.submit(() -> {
+                    start.await();
+                    return statuses("tablet-stuck", 2_000);
+                }));
+            }
+            List<Future<int[]>> quiet = new ArrayList<>();
+            for (int c = 0; c < quietClients; c++) {
+                String client = "tablet-" + c;
+                quiet.add(executor.submit(() -> {
+                    start.await();
+                    return statuses(client, DEFAULT_BURST);
+                }));
+            }
+            start.countDown();
+
+            int noisyAllowed = 0;
+            for (Future<int[]> future : noisy) {
+                noisyAllowed += future.get(60, TimeUnit.SECONDS)[0];
+            }
+            assertEquals(DEFAULT_BURST, noisyAllowed);
+            for (Future<int[]> future : quiet) {
+                assertArrayEquals(new int[]{DEFAULT_BURST, 0}, future.get(60, TimeUnit.SECONDS));
+            }
+            assertEquals(noisyThreads * 2_000 - DEFAULT_BURST,
+                    registry.get("http.server.requests.rate.limited").tags("rule", "default").counter().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void allowedRequest_AllocatesLittle() throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        RateLimitFilter unlimited = filter(TimeUnit.MINUTES.toNanos(1));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("tablet-1", null, List.of()));
+        MockHttpServletRequest request = request("GET", "/orders/7", "10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Warm up so the measured run is compiled code
+        for (int i = 0; i < 20_000; i++) {
+            unlimited.doFilter(request, response, chain);
+        }
+        int requests = 10_000;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < requests; i++) {
+            unlimited.doFilter(request, response, chain);
+        }
+        long perRequest = (threads.getCurrentThreadAllocatedBytes() - before) / requests;
+
+        assertTrue(perRequest < 2048, () -> perRequest + " bytes per request");
+    }
+
+    // [allowed, refused] for requests sent by one authenticated client on the calling thread
+    private int[] statuses(String username, int requests) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(username, null, List.of()));
+        try {
+            int[] counts = new int[2];
+            for (int i = 0; i < requests; i++) {
+                counts[send("GET", "/products", "10.0.0.1").getStatus() == 200 ? 0 : 1]++;
+            }
+            return counts;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void drain(String method, String path, String address, int requests) throws Exception {
+        for (int i = 0; i < requests; i++) {
+            assertEquals(200, send(method, path, address).getStatus());
+        }
+    }
+
+    private MockHttpServletResponse send(String method, String path, String address) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, path, address), response, chain);
+        return response;
+    }
+
+    private RateLimitFilter filter(long defaultPerMinute) {
+        return new RateLimitFilter(objectMapper, registry, true,
+                LOGIN_BURST, 1, FINISH_BURST, 1, DEFAULT_BURST, defaultPerMinute);
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.setRemoteAddr(address);
+        return request;
+    }
+}
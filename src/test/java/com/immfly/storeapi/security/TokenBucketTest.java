@@ -0,0 +1,90 @@
+package com.immfly.storeapi.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryConsume_AllowsTheBurstThenRefusesWithTheWait() {
+        TokenBucket bucket = new TokenBucket(3, 60, 0);
+
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(SECOND, bucket.tryConsume(0));
+    }
+
+    @Test
+    void tryConsume_RefillsAtTheConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(2, 60, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        assertTrue(bucket.tryConsume(SECOND / 2) > 0);
+        assertEquals(0, bucket.tryConsume(SECOND));
+        assertTrue(bucket.tryConsume(SECOND) > 0);
+    }
+
+    @Test
+    void tryConsume_IdleTimeDoesNotAccumulatePastTheBurst() {
+        TokenBucket bucket = new TokenBucket(2, 60, 0);
+        long later = TimeUnit.HOURS.toNanos(1);
+
+        assertEquals(0, bucket.tryConsume(later));
+        assertEquals(0, bucket.tryConsume(later));
+        assertTrue(bucket.tryConsume(later) > 0);
+    }
+
+    @Test
+    void isFull_OnceEveryTokenIsBack() {
+        TokenBucket bucket = new TokenBucket(3, 60, 0);
+        assertTrue(bucket.isFull(0));
+
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+        assertFalse(bucket.isFull(SECOND));
+        assertTrue(bucket.isFull(2 * SECOND));
+    }
+
+    @Test
+    void tryConsume_UnderContention_NeverGrantsMoreThanTheBurst() throws Exception {
+        int burst = 500;
+        TokenBucket bucket = new TokenBucket(burst, 1, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> granted = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                granted.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        count += bucket.tryConsume(0) == 0 ? 1 : 0;
+                    }
+                    return count;
+                }));
+            }
+            start.countDown();
+
+            int total = 0;
+            for (Future<Integer> future : granted) {
+                total += future.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(burst, total);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.CatalogChangesDTO;
+import com.immfly.storeapi.enums.CatalogChangeType;
+import com.immfly.storeapi.enums.CatalogEntityType;
+import com.immfly.storeapi.exception.CatalogChangesExpiredException;
+import com.immfly.storeapi.model.CatalogChange;
+import com.immfly.storeapi.model.Category;
+import com.immfly.storeapi.model.Product;
+import com.immfly.storeapi.repository.CatalogChangeRepository;
+import com.immfly.storeapi.repository.CategoryRepository;
+import com.immfly.storeapi.repository.ProductRepository;
+import com.immfly.storeapi.service.impl.CatalogChangeServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class CatalogChangeServiceImplTest {
+
+    private CatalogChangeRepository catalogChangeRepository;
+    private ProductRepository productRepository;
+    private CategoryRepository categoryRepository;
+    private CatalogVersionService catalogVersionService;
+    private JdbcTemplate jdbcTemplate;
+    private EntityManager entityManager;
+    private CatalogChangeService catalogChangeService;
+
+    @BeforeEach
+    void setUp() {
+        catalogChangeRepository = mock(CatalogChangeRepository.class);
+        productRepository = mock(ProductRepository.class);
+        categoryRepository = mock(CategoryRepository.class);
+        catalogVersionService = mock(CatalogVersionService.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        entityManager = mock(EntityManager.class);
+        catalogChangeService = new CatalogChangeServiceImpl(catalogChangeRepository, productRepository, categoryRepository, catalogVersionService, jdbcTemplate, mock(TransactionTemplate.class), entityManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void recordUpsert_WritesNothingUntilTheTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        catalogChangeService.recordUpsert(CatalogEntityType.PRODUCT, 7L);
+        catalogChangeService.recordDeletion(CatalogEntityType.CATEGORY, 3L);
+
+        verifyNoInteractions(catalogVersionService, jdbcTemplate);
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+    }
+
+    @Test
+    void recordedChanges_GetConsecutiveVersionsBeforeCommitAndArePublishedAfter() throws Exception {
+        when(catalogVersionService.reserveVersions(3)).thenReturn(42L);
+        when(entityManager.isJoinedToTransaction()).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        catalogChangeService.recordUpsert(CatalogEntityType.PRODUCT, 7L);
+        catalogChangeService.recordUpserts(CatalogEntityType.PRODUCT, List.of(8L, 9L));
+        TransactionSynchronization transaction = TransactionSynchronizationManager.getSynchronizations().get(0);
+        transaction.beforeCommit(false);
+
+        InOrder inOrder = inOrder(entityManager, catalogVersionService, jdbcTemplate);
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(catalogVersionService).reserveVersions(3);
+        ArgumentCaptor<BatchPreparedStatementSetter> rows = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        inOrder.verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO catalog_changes"), rows.capture());
+        assertEquals(3, rows.getValue().getBatchSize());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        rows.getValue().setValues(ps, 0);
+        rows.getValue().setValues(ps, 2);
+        verify(ps).setLong(1, 40L);
+        verify(ps).setLong(1, 42L);
+        verify(ps).setLong(3, 9L);
+        verify(catalogVersionService, never()).publishVersion(anyLong());
+
+        transaction.afterCommit();
+        verify(catalogVersionService).publishVersion(42L);
+    }
+
+    @Test
+    void recordedChanges_RolledBack_NeverTakeAVersion() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        catalogChangeService.recordUpsert(CatalogEntityType.PRODUCT, 7L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(catalogVersionService, jdbcTemplate);
+    }
+
+    @Test
+    void getChangesSince_BeforeCompactedDeletions_AsksForAReload() {
+        when(catalogVersionService.getCompactedThrough()).thenReturn(20L);
+
+        assertThrows(CatalogChangesExpiredException.class, () -> catalogChangeService.getChangesSince(12L));
+        verifyNoInteractions(catalogChangeRepository);
+    }
+
+    @Test
+    void getChangesSince_SeededCatalogAfterCompaction_AsksForAReload() {
+        when(catalogVersionService.getCompactedThrough()).thenReturn(20L);
+
+        assertThrows(CatalogChangesExpiredException.class, () -> catalogChangeService.getChangesSince(0L));
+        verifyNoInteractions(catalogChangeRepository);
+    }
+
+    @Test
+    void getChangesSince_SeededCatalogBeforeAnyCompaction_ReturnsEveryChange() {
+        when(catalogVersionService.getCompactedThrough()).thenReturn(0L);
+        when(catalogVersionService.getCurrentVersion()).thenReturn(25L);
+        when(catalogChangeRepository.findByVersionBetweenOrderByVersionAsc(1L, 25L)).thenReturn(List.of());
+
+        assertEquals(25L, catalogChangeService.getChangesSince(0L).getToVersion());
+    }
+
+    @Test
+    void getChangesSince_ReturnsLatestStateOfEachChangedEntity() {
+        Category category = new Category();
+        category.setId(3L);
+        category.setName("Drinks");
+
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Water");
+        product.setPrice(BigDecimal.ONE);
+        product.setStock(10);
+        product.setCategory(category);
+
+        when(catalogVersionService.getCurrentVersion()).thenReturn(14L);
+        when(catalogChangeRepository.findByVersionBetweenOrderByVersionAsc(11L, 14L)).thenReturn(List.of(
+                change(11L, CatalogEntityType.PRODUCT, 1L, CatalogChangeType.UPSERT),
+                change(12L, CatalogEntityType.PRODUCT, 2L, CatalogChangeType.UPSERT),
+                change(13L, CatalogEntityType.PRODUCT, 2L, CatalogChangeType.DELETE),
+                change(14L, CatalogEntityType.CATEGORY, 3L, CatalogChangeType.UPSERT)
+        ));
+        when(productRepository.findAllById(Set.of(1L))).thenReturn(List.of(product));
+        when(categoryRepository.findAllById(Set.of(3L))).thenReturn(List.of(category));
+
+        CatalogChangesDTO result = catalogChangeService.getChangesSince(10L);
+
+        assertEquals(10L, result.getFromVersion());
+        assertEquals(14L, result.getToVersion());
+        assertEquals(1, result.getProducts().size());
+        assertEquals("Water", result.getProducts().get(0).getName());
+        assertEquals(List.of(2L), result.getDeletedProductIds());
+        assertEquals(1, result.getCategories().size());
+        assertTrue(result.getDeletedCategoryIds().isEmpty());
+    }
+
+    @Test
+    void getChangesSince_UpToDate_DoesNotQueryLog() {
+        when(catalogVersionService.getCurrentVersion()).thenReturn(14L);
+
+        CatalogChangesDTO result = catalogChangeService.getChangesSince(14L);
+
+        assertTrue(result.getProducts().isEmpty());
+        assertEquals(14L, result.getToVersion());
+        verifyNoInteractions(catalogChangeRepository);
+    }
+
+    @Test
+    void getChangesSince_UpsertedProductGoneSinceThen_ReportedAsDeleted() {
+        when(catalogVersionService.getCurrentVersion()).thenReturn(11L);
+        when(catalogChangeRepository.findByVersionBetweenOrderByVersionAsc(11L, 11L)).thenReturn(List.of(
+                change(11L, CatalogEntityType.PRODUCT, 5L, CatalogChangeType.UPSERT)
+        ));
+        when(productRepository.findAllById(Set.of(5L))).thenReturn(List.of());
+
+        CatalogChangesDTO result = catalogChangeService.getChangesSince(10L);
+
+        assertTrue(result.getProducts().isEmpty());
+        assertEquals(List.of(5L), result.getDeletedProductIds());
+    }
+
+    @Test
+    void compact_DeletesSupersededChanges() {
+        when(catalogChangeRepository.findSupersededVersions()).thenReturn(List.of(1L, 2L, 5L));
+
+        int compacted = catalogChangeService.compact();
+
+        assertEquals(3, compacted);
+        verify(catalogChangeRepository).deleteAllByIdInBatch(List.of(1L, 2L, 5L));
+        verify(catalogVersionService, never()).raiseCompactedThrough(anyLong());
+    }
+
+    @Test
+    void compact_DropsExpiredDeletionsAfterRaisingTheSyncFloor() {
+        when(catalogChangeRepository.findVersionsByChangeTypeAndChangedAtBefore(eq(CatalogChangeType.DELETE), any())).thenReturn(List.of(4L, 9L));
+
+        int compacted = catalogChangeService.compact();
+
+        assertEquals(2, compacted);
+        InOrder inOrder = inOrder(catalogVersionService, catalogChangeRepository);
+        inOrder.verify(catalogVersionService).raiseCompactedThrough(9L);
+        inOrder.verify(catalogChangeRepository).deleteAllByIdInBatch(List.of(4L, 9L));
+    }
+
+    private CatalogChange change(Long version, CatalogEntityType entityType, Long entityId, CatalogChangeType changeType) {
+        CatalogChange change = new CatalogChange(entityType, entityId, changeType);
+        change.setVersion(version);
+        return change;
+    }
+}
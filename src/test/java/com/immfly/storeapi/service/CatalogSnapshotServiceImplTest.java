@@ -0,0 +1,89 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.CategoryDTO;
+import com.immfly.storeapi.dto.ProductDTO;
+import com.immfly.storeapi.mapper.CategoryMapper;
+import com.immfly.storeapi.mapper.ProductMapper;
+import com.immfly.storeapi.model.Category;
+import com.immfly.storeapi.model.Product;
+import com.immfly.storeapi.repository.CategoryRepository;
+import com.immfly.storeapi.repository.ProductRepository;
+import com.immfly.storeapi.service.impl.CatalogSnapshotServiceImpl;
+import com.immfly.storeapi.snapshot.CatalogSnapshotWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogSnapshotServiceImplTest {
+
+    private CatalogVersionService catalogVersionService;
+    private CatalogSnapshotService catalogSnapshotService;
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        catalogVersionService = mock(CatalogVersionService.class);
+        catalogSnapshotService = new CatalogSnapshotServiceImpl(productRepository, categoryRepository, catalogVersionService);
+
+        category = new Category();
+        category.setId(1L);
+        category.setName("Drinks");
+        product = new Product();
+        product.setId(5L);
+        product.setName("Water");
+        product.setPrice(new BigDecimal("2.50"));
+        product.setStock(10);
+        product.setCategory(category);
+
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+        when(productRepository.findAll()).thenReturn(List.of(product));
+        when(catalogVersionService.getCurrentVersion()).thenReturn(40L);
+    }
+
+    @Test
+    void importSnapshot_SameCatalogFromAnotherDatabase_IsServed() {
+        catalogSnapshotService.importSnapshot(snapshot(7L, liveProduct()));
+
+        assertEquals("Water", catalogSnapshotService.findProduct(5L).orElseThrow().getName());
+        assertEquals(1, catalogSnapshotService.getCategories().orElseThrow().size());
+    }
+
+    @Test
+    void importSnapshot_DifferentCatalogWithTheLiveVersion_IsNeverServed() {
+        ProductDTO other = liveProduct();
+        other.setStock(3);
+
+        catalogSnapshotService.importSnapshot(snapshot(40L, other));
+
+        assertTrue(catalogSnapshotService.findProduct(5L).isEmpty());
+        assertTrue(catalogSnapshotService.getProducts().isEmpty());
+    }
+
+    @Test
+    void servedSnapshot_FallsBackToTheDatabaseAfterACatalogChange() {
+        catalogSnapshotService.importSnapshot(snapshot(7L, liveProduct()));
+        assertTrue(catalogSnapshotService.findProduct(5L).isPresent());
+
+        when(catalogVersionService.getCurrentVersion()).thenReturn(41L);
+
+        assertTrue(catalogSnapshotService.findProduct(5L).isEmpty());
+        assertTrue(catalogSnapshotService.getCategories().isEmpty());
+    }
+
+    private ProductDTO liveProduct() {
+        return ProductMapper.toDto(product);
+    }
+
+    private byte[] snapshot(long catalogVersion, ProductDTO productDTO) {
+        List<CategoryDTO> categories = List.of(CategoryMapper.toDto(category));
+        return CatalogSnapshotWriter.write(catalogVersion, categories, List.of(productDTO));
+    }
+}
@@ -0,0 +1,79 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.enums.CatalogEntityType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Whatever version a device is given, no change may show up at or below it later
+@SpringBootTest
+class CatalogVersionOrderingTest {
+
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void publishedVersion_NeverPassesAChangeThatIsNotVisibleYet() throws Exception {
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        List<Future<?>> running = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            running.add(writers.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        catalogChangeService.recordUpsert(CatalogEntityType.PRODUCT, ThreadLocalRandom.current().nextLong(1_000_000, 2_000_000));
+                        // Commit at a random moment after recording
+                        sleep(ThreadLocalRandom.current().nextInt(3));
+                    });
+                }
+            }));
+        }
+
+        List<long[]> observed = new ArrayList<>();
+        while (running.stream().anyMatch(f -> !f.isDone())) {
+            long version = catalogVersionService.getCurrentVersion();
+            observed.add(new long[]{version, countUpTo(version)});
+        }
+        writers.shutdown();
+        for (Future<?> writer : running) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+
+        assertFalse(observed.isEmpty());
+        for (long[] sample : observed) {
+            assertEquals(sample[1], countUpTo(sample[0]), "changes appeared at or below published version " + sample[0]);
+        }
+    }
+
+    private long countUpTo(long version) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM catalog_changes WHERE version <= ?", Long.class, version);
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
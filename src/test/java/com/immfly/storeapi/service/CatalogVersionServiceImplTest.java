@@ -0,0 +1,89 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.model.CatalogVersion;
+import com.immfly.storeapi.repository.CatalogChangeRepository;
+import com.immfly.storeapi.repository.CatalogVersionRepository;
+import com.immfly.storeapi.service.impl.CatalogVersionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CatalogVersionServiceImplTest {
+
+    private CatalogVersionRepository catalogVersionRepository;
+    private CatalogChangeRepository catalogChangeRepository;
+    private CatalogVersionServiceImpl catalogVersionService;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersionRepository = mock(CatalogVersionRepository.class);
+        catalogChangeRepository = mock(CatalogChangeRepository.class);
+        when(catalogVersionRepository.findById(1L)).thenReturn(Optional.of(counter(10L, 0L)));
+        catalogVersionService = new CatalogVersionServiceImpl(catalogVersionRepository, catalogChangeRepository);
+    }
+
+    @Test
+    void getCurrentVersion_StartsFromTheCounter() {
+        assertEquals(10L, catalogVersionService.getCurrentVersion());
+        verifyNoInteractions(catalogChangeRepository);
+    }
+
+    @Test
+    void missingCounter_IsCreatedFromLatestLoggedChange() {
+        when(catalogVersionRepository.findById(1L)).thenReturn(Optional.empty());
+        when(catalogChangeRepository.findLatestVersion()).thenReturn(7L);
+        when(catalogVersionRepository.saveAndFlush(any(CatalogVersion.class))).thenAnswer(i -> i.getArgument(0));
+
+        catalogVersionService = new CatalogVersionServiceImpl(catalogVersionRepository, catalogChangeRepository);
+
+        assertEquals(7L, catalogVersionService.getCurrentVersion());
+        verify(catalogVersionRepository).saveAndFlush(argThat(c -> c.getId() == 1L && c.getVersion() == 7L));
+    }
+
+    @Test
+    void reserveVersions_AdvancesTheCounterWithoutPublishing() {
+        when(catalogVersionRepository.findVersion(1L)).thenReturn(13L);
+
+        assertEquals(13L, catalogVersionService.reserveVersions(3));
+
+        verify(catalogVersionRepository).advance(1L, 3);
+        assertEquals(10L, catalogVersionService.getCurrentVersion());
+    }
+
+    @Test
+    void publishVersion_NeverMovesBack() {
+        catalogVersionService.publishVersion(12L);
+        catalogVersionService.publishVersion(11L);
+
+        assertEquals(12L, catalogVersionService.getCurrentVersion());
+    }
+
+    @Test
+    void refresh_PicksUpVersionsCommittedByOtherInstances() {
+        when(catalogVersionRepository.findById(1L)).thenReturn(Optional.of(counter(15L, 4L)));
+
+        catalogVersionService.refresh();
+
+        assertEquals(15L, catalogVersionService.getCurrentVersion());
+        assertEquals(4L, catalogVersionService.getCompactedThrough());
+    }
+
+    @Test
+    void raiseCompactedThrough_UpdatesTheCounter() {
+        catalogVersionService.raiseCompactedThrough(9L);
+
+        verify(catalogVersionRepository).raiseCompactedThrough(1L, 9L);
+        assertEquals(9L, catalogVersionService.getCompactedThrough());
+    }
+
+    private static CatalogVersion counter(long version, long compactedThrough) {
+        CatalogVersion counter = new CatalogVersion(1L, version);
+        counter.setCompactedThrough(compactedThrough);
+        return counter;
+    }
+}
@@ -2,18 +2,18 @@
 package com.immfly.storeapi.service;
 
 import com.immfly.storeapi.dto.CategoryDTO;
+import com.immfly.storeapi.enums.CatalogEntityType;
 import com.immfly.storeapi.exception.CategoryAlreadyExistsException;
 import com.immfly.storeapi.exception.CategoryDeletionException;
 import com.immfly.storeapi.exception.InvalidCategoryHierarchyException;
 import com.immfly.storeapi.exception.ResourceNotFoundException;
 import com.immfly.storeapi.model.Category;
-import com.immfly.storeapi.model.Product;
 import com.immfly.storeapi.repository.CategoryRepository;
+import com.immfly.storeapi.repository.ProductRepository;
 import com.immfly.storeapi.service.impl.CategoryServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,12 +23,18 @@ import static org.mockito.Mockito.*;
 public class CategoryServiceImplTest {
 
     private CategoryRepository categoryRepository;
+    private ProductRepository productRepository;
+    private CatalogChangeService catalogChangeService;
+    private CatalogSnapshotService catalogSnapshotService;
     private CategoryService categoryService;
 
     @BeforeEach
     void setUp() {
         categoryRepository = mock(CategoryRepository.class);
-        categoryService = new CategoryServiceImpl(categoryRepository);
+        productRepository = mock(ProductRepository.class);
+        catalogChangeService = mock(CatalogChangeService.class);
+        catalogSnapshotService = mock(CatalogSnapshotService.class);
+        categoryService = new CategoryServiceImpl(categoryRepository, productRepository, catalogChangeService, catalogSnapshotService);
     }
 
     @Test
@@ -145,14 +151,13 @@ public class CategoryServiceImplTest {
         Category category = new Category();
         category.setId(1L);
         category.setName("Electronics");
-        category.setSubCategories(Collections.emptyList());
-        category.setProducts(Collections.emptyList());
 
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
 
         categoryService.deleteCategory(1L);
 
         verify(categoryRepository).delete(category);
+        verify(catalogChangeService).recordDeletion(CatalogEntityType.CATEGORY, 1L);
     }
 
     @Test
@@ -172,14 +177,8 @@ public class CategoryServiceImplTest {
         category.setId(1L);
         category.setName("Electronics");
 
-        Category subCategory = new Category();
-        subCategory.setId(2L);
-        subCategory.setName("Laptops");
-
-        category.setSubCategories(List.of(subCategory));
-        category.setProducts(Collections.emptyList());
-
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(categoryRepository.existsByParentCategoryId(1L)).thenReturn(true);
 
         assertThrows(CategoryDeletionException.class, () -> {
             categoryService.deleteCategory(1L);
@@ -194,14 +193,8 @@ public class CategoryServiceImplTest {
         category.setId(1L);
         category.setName("Electronics");
 
-        Product product = new Product();
-        product.setId(1L);
-        product.setName("Smartphone");
-
-        category.setProducts(List.of(product));
-        category.setSubCategories(Collections.emptyList());
-
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(productRepository.existsByCategoryId(1L)).thenReturn(true);
 
         assertThrows(CategoryDeletionException.class, () -> {
             categoryService.deleteCategory(1L);
@@ -0,0 +1,166 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.FlightDTO;
+import com.immfly.storeapi.enums.FlightStatus;
+import com.immfly.storeapi.enums.OrderStatus;
+import com.immfly.storeapi.exception.FlightNotClosableException;
+import com.immfly.storeapi.exception.FlightNotOpenException;
+import com.immfly.storeapi.exception.InvalidFlightIdException;
+import com.immfly.storeapi.model.Flight;
+import com.immfly.storeapi.repository.FlightRepository;
+import com.immfly.storeapi.repository.OrderRepository;
+import com.immfly.storeapi.service.impl.FlightServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FlightServiceImplTest {
+
+    private FlightRepository flightRepository;
+    private OrderRepository orderRepository;
+    private OrderArchiveService orderArchiveService;
+    private JdbcTemplate jdbcTemplate;
+    private FlightServiceImpl flightService;
+
+    @BeforeEach
+    void setUp() {
+        flightRepository = mock(FlightRepository.class);
+        orderRepository = mock(OrderRepository.class);
+        orderArchiveService = mock(OrderArchiveService.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        flightService = new FlightServiceImpl(flightRepository, orderRepository, orderArchiveService, jdbcTemplate);
+        when(flightRepository.save(any(Flight.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void openFlight_NewFlight_IsSavedOpen() {
+        FlightDTO result = flightService.openFlight("IB3202");
+
+        assertEquals("IB3202", result.getId());
+        assertEquals(FlightStatus.OPEN, result.getStatus());
+        assertNotNull(result.getOpenedAt());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void openFlight_InvalidId_ShouldThrowException() {
+        assertThrows(InvalidFlightIdException.class, () -> flightService.openFlight("ib3202'); DROP TABLE orders; --"));
+        verify(flightRepository, never()).save(any());
+    }
+
+    @Test
+    void openFlight_ClosedFlight_ShouldThrowException() {
+        when(flightRepository.findById("IB3202")).thenReturn(Optional.of(flight(FlightStatus.CLOSED)));
+
+        assertThrows(FlightNotOpenException.class, () -> flightService.openFlight("IB3202"));
+        verify(flightRepository, never()).save(any());
+    }
+
+    @Test
+    void openFlight_Partitioned_AddsAPartitionPerTable() {
+        ReflectionTestUtils.setField(flightService, "partitioningEnabled", true);
+
+        flightService.openFlight("IB-3202");
+
+        verify(jdbcTemplate).execute("ALTER TABLE orders ADD PARTITION (PARTITION f_IB_3202 VALUES IN ('IB-3202'))");
+        verify(jdbcTemplate).execute("ALTER TABLE products_orders ADD PARTITION (PARTITION f_IB_3202 VALUES IN ('IB-3202'))");
+        verify(jdbcTemplate).execute("ALTER TABLE order_summaries ADD PARTITION (PARTITION f_IB_3202 VALUES IN ('IB-3202'))");
+    }
+
+    @Test
+    void closeFlight_OpenOrders_ShouldThrowAndReopen() {
+        Flight flight = flight(FlightStatus.OPEN);
+        when(flightRepository.findById("IB3202")).thenReturn(Optional.of(flight));
+        when(orderRepository.countByFlightIdAndStatus("IB3202", OrderStatus.OPEN)).thenReturn(2L);
+
+        assertThrows(FlightNotClosableException.class, () -> flightService.closeFlight("IB3202"));
+
+        assertEquals(FlightStatus.OPEN, flight.getStatus());
+        verifyNoInteractions(orderArchiveService, jdbcTemplate);
+    }
+
+    @Test
+    void closeFlight_NotPartitioned_ArchivesItsOrders() {
+        when(flightRepository.findById("IB3202")).thenReturn(Optional.of(flight(FlightStatus.OPEN)));
+
+        FlightDTO result = flightService.closeFlight("IB3202");
+
+        assertEquals(FlightStatus.CLOSED, result.getStatus());
+        assertNotNull(result.getClosedAt());
+        verify(orderArchiveService).archiveFlight("IB3202");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void closeFlight_PartlyArchived_StaysClosing() {
+        Flight flight = flight(FlightStatus.OPEN);
+        when(flightRepository.findById("IB3202")).thenReturn(Optional.of(flight));
+        when(orderRepository.existsByFlightId("IB3202")).thenReturn(true);
+
+        assertThrows(FlightNotClosableException.class, () -> flightService.closeFlight("IB3202"));
+
+        assertEquals(FlightStatus.CLOSING, flight.getStatus());
+    }
+
+    @Test
+    void closeFlight_Partitioned_ExchangesPartitionsIntoTheArchive() {
+        ReflectionTestUtils.setField(flightService, "partitioningEnabled", true);
+        when(flightRepository.findById("IB3202")).thenReturn(Optional.of(flight(FlightStatus.OPEN)));
+        for (String table : List.of("orders", "products_orders", "order_summaries")) {
+            when(jdbcTemplate.queryForObject(contains("information_schema.PARTITIONS"), eq(Integer.class), eq(table), eq("f_IB3202"))).thenReturn(1);
+        }
+        for (String staging : List.of("orders_f_IB3202", "products_orders_f_IB3202")) {
+            when(jdbcTemplate.queryForObject(contains("information_schema.TABLES"), eq(Integer.class), eq(staging))).thenReturn(0, 1);
+        }
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(true);
+
+        FlightDTO result = flightService.closeFlight("IB3202");
+
+        assertEquals(FlightStatus.CLOSED, result.getStatus());
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("CREATE TABLE orders_f_IB3202 LIKE orders");
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE orders_f_IB3202 REMOVE PARTITIONING");
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE orders EXCHANGE PARTITION f_IB3202 WITH TABLE orders_f_IB3202");
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE orders_archive ADD PARTITION (PARTITION f_IB3202 VALUES IN ('IB3202'))");
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE orders_archive EXCHANGE PARTITION f_IB3202 WITH TABLE orders_f_IB3202 WITHOUT VALIDATION");
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE orders_f_IB3202");
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE orders DROP PARTITION f_IB3202");
+        verify(jdbcTemplate).execute("ALTER TABLE products_orders_archive EXCHANGE PARTITION f_IB3202 WITH TABLE products_orders_f_IB3202 WITHOUT VALIDATION");
+        verify(jdbcTemplate).execute("ALTER TABLE order_summaries DROP PARTITION f_IB3202");
+        verify(jdbcTemplate, never()).execute(startsWith("DELETE"));
+        verifyNoInteractions(orderArchiveService);
+    }
+
+    @Test
+    void requireOpen_ClosingFlight_ShouldThrowException() {
+        when(flightRepository.findForShareById("IB3202")).thenReturn(Optional.of(flight(FlightStatus.CLOSING)));
+
+        assertThrows(FlightNotOpenException.class, () -> flightService.requireOpen("IB3202"));
+        assertThrows(FlightNotOpenException.class, () -> flightService.requireOpen("VY1001"));
+        assertThrows(FlightNotOpenException.class, () -> flightService.requireOpen(null));
+    }
+
+    @Test
+    void findOpenFlights_ReturnsOnlyOpenOnes() {
+        when(flightRepository.findByIdInAndStatus(Set.of("IB3202", "VY1001"), FlightStatus.OPEN)).thenReturn(List.of(flight(FlightStatus.OPEN)));
+
+        assertEquals(Set.of("IB3202"), flightService.findOpenFlights(Set.of("IB3202", "VY1001")));
+        assertEquals(Set.of(), flightService.findOpenFlights(Set.of()));
+    }
+
+    private Flight flight(FlightStatus status) {
+        Flight flight = new Flight("IB3202");
+        flight.setStatus(status);
+        return flight;
+    }
+}
@@ -0,0 +1,166 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.enums.OrderStatus;
+import com.immfly.storeapi.model.ArchivedOrder;
+import com.immfly.storeapi.repository.ArchivedOrderRepository;
+import com.immfly.storeapi.repository.ArchivedProductOrderRepository;
+import com.immfly.storeapi.service.impl.OrderArchiveServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderArchiveServiceImplTest {
+
+    private static final LocalDateTime OLD = LocalDateTime.now().minusDays(40);
+    private static final LocalDateTime RECENT = LocalDateTime.now().minusDays(1);
+
+    private JdbcTemplate jdbcTemplate;
+    private ArchivedOrderRepository archivedOrderRepository;
+    private ArchivedProductOrderRepository archivedProductOrderRepository;
+    private OrderArchiveServiceImpl orderArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE orders (order_id BIGINT PRIMARY KEY, flight_id VARCHAR(32) NOT NULL, total_price DECIMAL(8,2) NOT NULL, card_token VARCHAR(255), " +
+                "payment_status VARCHAR(20) NOT NULL, payment_date TIMESTAMP, payment_gateway VARCHAR(20), status VARCHAR(20) NOT NULL, " +
+                "buyer_email VARCHAR(255) NOT NULL, seat_letter CHAR(1) NOT NULL, seat_number INT NOT NULL, closed_at TIMESTAMP, " +
+                "version BIGINT DEFAULT 0 NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE products_orders (product_id BIGINT NOT NULL, order_id BIGINT NOT NULL, flight_id VARCHAR(32) NOT NULL, PRIMARY KEY (product_id, order_id), " +
+                "FOREIGN KEY (order_id) REFERENCES orders (order_id))");
+        jdbcTemplate.execute("CREATE TABLE order_summaries (order_id BIGINT PRIMARY KEY, status VARCHAR(20))");
+        jdbcTemplate.execute("CREATE TABLE orders_archive (order_id BIGINT PRIMARY KEY, flight_id VARCHAR(32) NOT NULL, total_price DECIMAL(8,2) NOT NULL, card_token VARCHAR(255), " +
+                "payment_status VARCHAR(20) NOT NULL, payment_date TIMESTAMP, payment_gateway VARCHAR(20), status VARCHAR(20) NOT NULL, " +
+                "buyer_email VARCHAR(255) NOT NULL, seat_letter CHAR(1) NOT NULL, seat_number INT NOT NULL, closed_at TIMESTAMP, " +
+                "version BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE products_orders_archive (order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, flight_id VARCHAR(32) NOT NULL, PRIMARY KEY (order_id, product_id))");
+
+        archivedOrderRepository = mock(ArchivedOrderRepository.class);
+        archivedProductOrderRepository = mock(ArchivedProductOrderRepository.class);
+        orderArchiveService = new OrderArchiveServiceImpl(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                archivedOrderRepository, archivedProductOrderRepository);
+        ReflectionTestUtils.setField(orderArchiveService, "pauseMs", 0L);
+    }
+
+    @Test
+    void archive_MovesOldTerminalOrdersWithTheirLines() {
+        order(1L, "FINISHED", OLD, 1L, 2L);
+        order(2L, "DROPPED", OLD.minusDays(1), 3L);
+        order(3L, "FINISHED", RECENT, 1L);
+        order(4L, "OPEN", null, 2L);
+        ReflectionTestUtils.setField(orderArchiveService, "chunkSize", 1);
+
+        int archived = orderArchiveService.archive();
+
+        assertEquals(2, archived);
+        assertEquals(List.of(3L, 4L), jdbcTemplate.queryForList("SELECT order_id FROM orders ORDER BY order_id", Long.class));
+        assertEquals(List.of(3L, 4L), jdbcTemplate.queryForList("SELECT order_id FROM order_summaries ORDER BY order_id", Long.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products_orders", Integer.class));
+        assertEquals(List.of(1L, 2L), jdbcTemplate.queryForList("SELECT order_id FROM orders_archive ORDER BY order_id", Long.class));
+        assertEquals(List.of(1L, 2L), jdbcTemplate.queryForList("SELECT product_id FROM products_orders_archive WHERE order_id = 1 ORDER BY product_id", Long.class));
+        assertEquals("tok_1", jdbcTemplate.queryForObject("SELECT card_token FROM orders_archive WHERE order_id = 1", String.class));
+        assertEquals("IB3202", jdbcTemplate.queryForObject("SELECT flight_id FROM orders_archive WHERE order_id = 1", String.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products_orders_archive WHERE flight_id = 'IB3202'", Integer.class));
+    }
+
+    @Test
+    void archiveFlight_MovesTheFlightsTerminalOrdersWhateverTheirAge() {
+        order(1L, "FINISHED", RECENT, 1L);
+        order(2L, "DROPPED", RECENT, 2L);
+        order(3L, "OPEN", null, 1L);
+        order(4L, "VY1001", "FINISHED", RECENT, 1L);
+        ReflectionTestUtils.setField(orderArchiveService, "chunkSize", 1);
+        ReflectionTestUtils.setField(orderArchiveService, "maxChunksPerRun", 1);
+        ReflectionTestUtils.setField(orderArchiveService, "enabled", false);
+
+        int archived = orderArchiveService.archiveFlight("IB3202");
+
+        assertEquals(2, archived);
+        assertEquals(List.of(3L, 4L), jdbcTemplate.queryForList("SELECT order_id FROM orders ORDER BY order_id", Long.class));
+        assertEquals(List.of(1L, 2L), jdbcTemplate.queryForList("SELECT order_id FROM orders_archive ORDER BY order_id", Long.class));
+    }
+
+    @Test
+    void archive_MaxChunksReached_LeavesTheRestForNextRun() {
+        order(1L, "FINISHED", OLD, 1L);
+        order(2L, "FINISHED", OLD, 1L);
+        order(3L, "FINISHED", OLD, 1L);
+        ReflectionTestUtils.setField(orderArchiveService, "chunkSize", 1);
+        ReflectionTestUtils.setField(orderArchiveService, "maxChunksPerRun", 2);
+
+        assertEquals(2, orderArchiveService.archive());
+        assertEquals(List.of(3L), jdbcTemplate.queryForList("SELECT order_id FROM orders", Long.class));
+
+        assertEquals(1, orderArchiveService.archive());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+    }
+
+    @Test
+    void archive_FailingChunk_IsRolledBack() {
+        order(1L, "FINISHED", OLD, 1L);
+        order(2L, "FINISHED", OLD, 2L);
+        jdbcTemplate.update("INSERT INTO orders_archive (order_id, flight_id, total_price, payment_status, status, buyer_email, seat_letter, seat_number, version) " +
+                "VALUES (2, 'IB3202', 0, 'PAID', 'FINISHED', 'x@gmail.com', 'A', 1, 0)");
+
+        int archived = orderArchiveService.archive();
+
+        assertEquals(0, archived);
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products_orders", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products_orders_archive", Integer.class));
+    }
+
+    @Test
+    void archive_Disabled_MovesNothing() {
+        order(1L, "FINISHED", OLD, 1L);
+        ReflectionTestUtils.setField(orderArchiveService, "enabled", false);
+
+        assertEquals(0, orderArchiveService.archive());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+    }
+
+    @Test
+    void findOrder_ArchivedOrder_ReturnsItWithProductIds() {
+        ArchivedOrder order = new ArchivedOrder();
+        order.setId(1L);
+        order.setStatus(OrderStatus.FINISHED);
+        order.setSeatLetter('C');
+        order.setSeatNumber(12);
+        when(archivedOrderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(archivedProductOrderRepository.findProductIdsByOrderId(1L)).thenReturn(List.of(1L, 2L));
+
+        Optional<OrderDTO> result = orderArchiveService.findOrder(1L);
+
+        assertTrue(result.isPresent());
+        assertEquals(OrderStatus.FINISHED, result.get().getStatus());
+        assertEquals('C', result.get().getSeatLetter());
+        assertEquals(List.of(1L, 2L), result.get().getProductIds());
+        assertTrue(orderArchiveService.findOrder(2L).isEmpty());
+    }
+
+    private void order(Long orderId, String status, LocalDateTime closedAt, Long... productIds) {
+        order(orderId, "IB3202", status, closedAt, productIds);
+    }
+
+    private void order(Long orderId, String flightId, String status, LocalDateTime closedAt, Long... productIds) {
+        jdbcTemplate.update("INSERT INTO orders (order_id, flight_id, total_price, card_token, payment_status, status, buyer_email, seat_letter, seat_number, closed_at) " +
+                "VALUES (?, ?, 1.50, ?, 'PAID', ?, 'a@gmail.com', 'A', 1, ?)", orderId, flightId, "tok_" + orderId, status, closedAt);
+        jdbcTemplate.update("INSERT INTO order_summaries VALUES (?, ?)", orderId, status);
+        for (Long productId : productIds) {
+            jdbcTemplate.update("INSERT INTO products_orders VALUES (?, ?, ?)", productId, orderId, flightId);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.OrderBatchResultDTO;
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.enums.OrderEventType;
+import com.immfly.storeapi.exception.FlightNotOpenException;
+import com.immfly.storeapi.service.impl.OrderBatchServiceImpl;
+import com.immfly.storeapi.service.impl.StockReservationServiceImpl;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderBatchServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private StockReservationServiceImpl stockReservationService;
+    private StockLedgerService stockLedgerService;
+    private OutboxService outboxService;
+    private OrderSummaryService orderSummaryService;
+    private FlightService flightService;
+    private OrderBatchServiceImpl orderBatchService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE products (product_id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255) NOT NULL, " +
+                "price DECIMAL(8,2) NOT NULL, stock INT NOT NULL, order_count BIGINT DEFAULT 0 NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE orders (order_id BIGINT AUTO_INCREMENT PRIMARY KEY, flight_id VARCHAR(32) NOT NULL, total_price DECIMAL(8,2) NOT NULL, " +
+                "payment_status VARCHAR(20) NOT NULL, payment_date TIMESTAMP, status VARCHAR(20) NOT NULL, " +
+                "buyer_email VARCHAR(30) NOT NULL, seat_letter CHAR(1) NOT NULL, seat_number INT NOT NULL, version BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE products_orders (product_id BIGINT NOT NULL REFERENCES products(product_id), " +
+                "order_id BIGINT NOT NULL REFERENCES orders(order_id), flight_id VARCHAR(32) NOT NULL, PRIMARY KEY (product_id, order_id))");
+        jdbcTemplate.update("INSERT INTO products (name, price, stock) VALUES ('Water', 1.50, 10)");
+        jdbcTemplate.update("INSERT INTO products (name, price, stock) VALUES ('Sandwich', 6.00, 0)");
+        jdbcTemplate.update("INSERT INTO products (name, price, stock) VALUES ('Juice', 2.00, 5)");
+
+        stockLedgerService = mock(StockLedgerService.class);
+        stockReservationService = new StockReservationServiceImpl(stockLedgerService);
+        outboxService = mock(OutboxService.class);
+        orderSummaryService = mock(OrderSummaryService.class);
+        flightService = mock(FlightService.class);
+        when(flightService.findOpenFlights(any())).thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0).stream()
+                .filter("IB3202"::equals)
+                .collect(Collectors.toSet()));
+        orderBatchService = new OrderBatchServiceImpl(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                Validation.buildDefaultValidatorFactory().getValidator(), stockReservationService, stockLedgerService, outboxService, orderSummaryService, flightService);
+    }
+
+    @Test
+    void createOrders_CreatesValidOrdersAndReportsInvalidOnes() {
+        List<OrderDTO> orders = List.of(
+                order("a@gmail.com", 1L, 3L),
+                order("b@gmail.com", 99L),
+                order("not-an-email", 1L),
+                order("c@gmail.com", 2L),
+                order("d@gmail.com"),
+                order("e@gmail.com", 1L, 1L));
+
+        OrderBatchResultDTO result = orderBatchService.createOrders(orders);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(4, result.getFailed());
+        assertEquals(6, result.getResults().size());
+
+        OrderDTO created = result.getResults().get(0).getOrder();
+        assertNotNull(created.getId());
+        assertEquals(new BigDecimal("3.50"), created.getTotalPrice());
+        assertEquals(List.of(1L, 3L), created.getProductIds());
+        assertEquals("Product not found with id: 99", result.getResults().get(1).getError());
+        assertEquals("Buyer email must be a valid email address", result.getResults().get(2).getError());
+        assertEquals("Product out of stock: Sandwich", result.getResults().get(3).getError());
+        assertNull(result.getResults().get(4).getError());
+        assertEquals("Product listed more than once in the order: 1", result.getResults().get(5).getError());
+
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products_orders", Integer.class));
+        verify(outboxService).recordOrderEvent(eq(OrderEventType.CREATED), argThat(o -> o.getId().equals(created.getId())));
+        verify(outboxService, times(2)).recordOrderEvent(eq(OrderEventType.CREATED), any());
+        verify(orderSummaryService).recordOrder(argThat(o -> o.getId().equals(created.getId())), argThat(p -> p.size() == 2));
+    }
+
+    @Test
+    void createOrders_RejectedChunk_ShouldOnlyFailTheBadOrder() {
+        ReflectionTestUtils.setField(orderBatchService, "chunkSize", 10);
+        List<OrderDTO> orders = List.of(
+                order("a@gmail.com", 1L),
+                order("a.very.long.buyer.address@example.com", 1L),
+                order("b@gmail.com", 1L));
+
+        OrderBatchResultDTO result = orderBatchService.createOrders(orders);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertTrue(result.getResults().get(1).getError().startsWith("Order rejected by the database"));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products_orders", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT order_count FROM products WHERE product_id = 1", Integer.class));
+    }
+
+    @Test
+    void createOrders_CommitsEveryChunk() {
+        ReflectionTestUtils.setField(orderBatchService, "chunkSize", 2);
+        List<OrderDTO> orders = List.of(
+                order("a@gmail.com", 1L),
+                order("b@gmail.com", 1L),
+                order("c@gmail.com", 1L));
+
+        OrderBatchResultDTO result = orderBatchService.createOrders(orders);
+
+        assertEquals(3, result.getCreated());
+        assertEquals(List.of(1L, 2L, 3L), result.getResults().stream().map(r -> r.getOrder().getId()).toList());
+    }
+
+    @Test
+    void createOrders_MoreOrdersThanStock_ShouldOnlyHoldWhatIsAvailable() {
+        jdbcTemplate.update("UPDATE products SET stock = 2 WHERE product_id = 1");
+        List<OrderDTO> orders = List.of(
+                order("a@gmail.com", 1L),
+                order("b@gmail.com", 1L),
+                order("c@gmail.com", 1L));
+
+        OrderBatchResultDTO result = orderBatchService.createOrders(orders);
+
+        assertEquals(2, result.getCreated());
+        assertEquals("Product out of stock: Water", result.getResults().get(2).getError());
+        assertEquals(2, stockReservationService.getReserved(1L));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+    }
+
+    @Test
+    void createOrders_FlightNotOpen_ShouldFailItsOrders() {
+        OrderDTO closed = order("b@gmail.com", 1L);
+        closed.setFlightId("VY1001");
+        OrderDTO missing = order("c@gmail.com", 1L);
+        missing.setFlightId(null);
+
+        OrderBatchResultDTO result = orderBatchService.createOrders(List.of(order("a@gmail.com", 1L), closed, missing));
+
+        assertEquals(1, result.getCreated());
+        assertEquals("Flight VY1001 is not open", result.getResults().get(1).getError());
+        assertEquals("Orders must name an open flight", result.getResults().get(2).getError());
+        assertEquals("IB3202", result.getResults().get(0).getOrder().getFlightId());
+        assertEquals("IB3202", jdbcTemplate.queryForObject("SELECT flight_id FROM products_orders", String.class));
+        verify(flightService).findOpenFlights(Set.of("IB3202", "VY1001"));
+        verify(flightService).requireOpen("IB3202");
+    }
+
+    @Test
+    void createOrders_FlightClosedBeforeWrite_ShouldFailTheChunk() {
+        doThrow(new FlightNotOpenException("Flight IB3202 is not open")).when(flightService).requireOpen("IB3202");
+
+        OrderBatchResultDTO result = orderBatchService.createOrders(List.of(order("a@gmail.com", 1L), order("b@gmail.com", 1L)));
+
+        assertEquals(0, result.getCreated());
+        assertEquals("Flight IB3202 is not open", result.getResults().get(0).getError());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+    }
+
+    @Test
+    void createOrders_LedgerEnabled_ChecksTheLedgerStock() {
+        // The rows lag the ledger: Water is sold out and Sandwich restocked since the last flush
+        when(stockLedgerService.isEnabled()).thenReturn(true);
+        when(stockLedgerService.getStock(1L)).thenReturn(0);
+        when(stockLedgerService.getStock(2L)).thenReturn(4);
+
+        OrderBatchResultDTO result = orderBatchService.createOrders(List.of(order("a@gmail.com", 1L), order("b@gmail.com", 2L)));
+
+        assertEquals("Product out of stock: Water", result.getResults().get(0).getError());
+        assertNull(result.getResults().get(1).getError());
+        assertEquals(1, result.getCreated());
+    }
+
+    private OrderDTO order(String email, Long... productIds) {
+        OrderDTO order = new OrderDTO();
+        order.setFlightId("IB3202");
+        order.setBuyerEmail(email);
+        order.setSeatLetter('A');
+        order.setSeatNumber(12);
+        order.setProductIds(List.of(productIds));
+        return order;
+    }
+}
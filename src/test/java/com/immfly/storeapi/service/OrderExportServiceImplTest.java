@@ -0,0 +1,127 @@
+package com.immfly.storeapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.immfly.storeapi.enums.ExportFormat;
+import com.immfly.storeapi.service.impl.OrderExportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderExportServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private OrderExportServiceImpl orderExportService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE orders (order_id BIGINT PRIMARY KEY, total_price DECIMAL(8,2) NOT NULL, " +
+                "payment_status VARCHAR(20) NOT NULL, payment_date TIMESTAMP, status VARCHAR(20) NOT NULL, " +
+                "buyer_email VARCHAR(255) NOT NULL, seat_letter CHAR(1) NOT NULL, seat_number INT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE products_orders (product_id BIGINT NOT NULL, order_id BIGINT NOT NULL, PRIMARY KEY (product_id, order_id))");
+        // As the foreign key index does on the real schema
+        jdbcTemplate.execute("CREATE INDEX idx_products_orders_order ON products_orders (order_id)");
+        jdbcTemplate.execute("CREATE TABLE orders_archive (order_id BIGINT PRIMARY KEY, total_price DECIMAL(8,2) NOT NULL, " +
+                "payment_status VARCHAR(20) NOT NULL, payment_date TIMESTAMP, status VARCHAR(20) NOT NULL, " +
+                "buyer_email VARCHAR(255) NOT NULL, seat_letter CHAR(1) NOT NULL, seat_number INT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE products_orders_archive (order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, PRIMARY KEY (order_id, product_id))");
+
+        ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        orderExportService = new OrderExportServiceImpl(jdbcTemplate, objectMapper);
+    }
+
+    @Test
+    void exportOrders_Csv_WritesOneRowPerOrderWithProductIds() throws IOException {
+        jdbcTemplate.update("INSERT INTO orders VALUES (1, 7.50, 'PAID', TIMESTAMP '2025-06-01 10:15:00', 'FINISHED', 'a@gmail.com', 'C', 12)");
+        jdbcTemplate.update("INSERT INTO orders VALUES (2, 0.00, 'PENDING', NULL, 'OPEN', 'b,c@gmail.com', 'A', 3)");
+        jdbcTemplate.update("INSERT INTO products_orders VALUES (2, 1), (1, 1)");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = orderExportService.exportOrders(ExportFormat.CSV, null, null, out);
+
+        assertEquals(2, exported);
+        assertEquals("""
+                id,buyerEmail,seatLetter,seatNumber,status,paymentStatus,paymentDate,totalPrice,productIds
+                1,a@gmail.com,C,12,FINISHED,PAID,2025-06-01T10:15,7.50,1;2
+                2,"b,c@gmail.com",A,3,OPEN,PENDING,,0.00,
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportOrders_NdjsonWithDateRange_WritesMatchingOrdersOnly() throws IOException {
+        jdbcTemplate.update("INSERT INTO orders VALUES (1, 7.50, 'PAID', TIMESTAMP '2025-06-01 10:15:00', 'FINISHED', 'a@gmail.com', 'C', 12)");
+        jdbcTemplate.update("INSERT INTO orders VALUES (2, 3.00, 'PAID', TIMESTAMP '2025-06-02 09:00:00', 'FINISHED', 'b@gmail.com', 'A', 3)");
+        jdbcTemplate.update("INSERT INTO products_orders VALUES (4, 1)");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = orderExportService.exportOrders(ExportFormat.NDJSON,
+                LocalDateTime.of(2025, 6, 1, 0, 0), LocalDateTime.of(2025, 6, 2, 0, 0), out);
+
+        assertEquals(1, exported);
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("}\n"));
+        assertEquals(1, body.lines().count());
+        assertTrue(body.contains("\"id\":1"));
+        assertTrue(body.contains("\"productIds\":[4]"));
+        assertTrue(body.contains("\"paymentDate\":\"2025-06-01T10:15:00\""));
+    }
+
+    @Test
+    void exportOrders_ArchivedOrders_AreMergedInIdOrder() throws IOException {
+        jdbcTemplate.update("INSERT INTO orders_archive VALUES (1, 7.50, 'PAID', TIMESTAMP '2025-06-01 10:15:00', 'FINISHED', 'a@gmail.com', 'C', 12)");
+        jdbcTemplate.update("INSERT INTO products_orders_archive VALUES (1, 2), (1, 1)");
+        jdbcTemplate.update("INSERT INTO orders VALUES (2, 0.00, 'PENDING', NULL, 'OPEN', 'b@gmail.com', 'A', 3)");
+        jdbcTemplate.update("INSERT INTO orders_archive VALUES (3, 1.50, 'FAILED', NULL, 'DROPPED', 'c@gmail.com', 'B', 4)");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = orderExportService.exportOrders(ExportFormat.CSV, null, null, out);
+
+        assertEquals(3, exported);
+        assertEquals("""
+                id,buyerEmail,seatLetter,seatNumber,status,paymentStatus,paymentDate,totalPrice,productIds
+                1,a@gmail.com,C,12,FINISHED,PAID,2025-06-01T10:15,7.50,1;2
+                2,b@gmail.com,A,3,OPEN,PENDING,,0.00,
+                3,c@gmail.com,B,4,DROPPED,FAILED,,1.50,
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportOrders_ManyOrders_StreamsEveryOrder() throws IOException {
+        int orders = 20_000;
+        jdbcTemplate.update("INSERT INTO orders SELECT X, 1.50, 'PAID', NULL, 'FINISHED', 'a@gmail.com', 'B', MOD(X, 30) + 1 " +
+                "FROM SYSTEM_RANGE(1, " + orders + ")");
+        jdbcTemplate.update("INSERT INTO products_orders SELECT 1, X FROM SYSTEM_RANGE(1, " + orders + ")");
+
+        CountingOutputStream out = new CountingOutputStream();
+        long exported = orderExportService.exportOrders(ExportFormat.CSV, null, null, out);
+
+        assertEquals(orders, exported);
+        assertEquals(orders + 1, out.lines);
+    }
+
+    // Discards what it is given, so the test keeps no copy of the export in memory
+    private static class CountingOutputStream extends OutputStream {
+        long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+    }
+}
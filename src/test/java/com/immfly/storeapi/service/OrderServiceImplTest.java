@@ -1,8 +1,11 @@
 package com.immfly.storeapi.service;
 
+import com.immfly.storeapi.datasource.ReadYourWrites;
 import com.immfly.storeapi.dto.FinishOrderRequest;
 import com.immfly.storeapi.dto.OrderDTO;
 import com.immfly.storeapi.dto.PaymentResponse;
+import com.immfly.storeapi.enums.CatalogEntityType;
+import com.immfly.storeapi.enums.OrderEventType;
 import com.immfly.storeapi.enums.OrderStatus;
 import com.immfly.storeapi.enums.PaymentGateway;
 import com.immfly.storeapi.enums.PaymentStatus;
@@ -22,10 +25,14 @@ import org.springframework.web.client.RestTemplate;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class OrderServiceImplTest {
@@ -35,6 +42,15 @@ class OrderServiceImplTest {
     private ProductRepository productRepository;
     private ProductOrderRepository productOrderRepository;
     private RestTemplate restTemplate;
+    private CatalogChangeService catalogChangeService;
+    private StockLedgerService stockLedgerService;
+    private StockReservationService stockReservationService;
+    private OutboxService outboxService;
+    private OrderSummaryService orderSummaryService;
+    private SalesAnalyticsService salesAnalyticsService;
+    private ReadYourWrites readYourWrites;
+    private OrderArchiveService orderArchiveService;
+    private FlightService flightService;
 
     @BeforeEach
     void setUp() {
@@ -42,7 +58,16 @@ class OrderServiceImplTest {
         productRepository = mock(ProductRepository.class);
         productOrderRepository = mock(ProductOrderRepository.class);
         restTemplate = mock(RestTemplate.class);
-        orderService = new OrderServiceImpl(orderRepository, productRepository, productOrderRepository, restTemplate);
+        catalogChangeService = mock(CatalogChangeService.class);
+        stockLedgerService = mock(StockLedgerService.class);
+        stockReservationService = mock(StockReservationService.class);
+        outboxService = mock(OutboxService.class);
+        orderSummaryService = mock(OrderSummaryService.class);
+        salesAnalyticsService = mock(SalesAnalyticsService.class);
+        readYourWrites = mock(ReadYourWrites.class);
+        orderArchiveService = mock(OrderArchiveService.class);
+        flightService = mock(FlightService.class);
+        orderService = new OrderServiceImpl(orderRepository, productRepository, productOrderRepository, restTemplate, catalogChangeService, stockLedgerService, stockReservationService, outboxService, orderSummaryService, salesAnalyticsService, readYourWrites, orderArchiveService, flightService);
     }
 
     @Test
@@ -68,6 +93,20 @@ class OrderServiceImplTest {
 
         assertThrows(ResourceNotFoundException.class, () -> orderService.getOrderById(99L));
         verify(orderRepository).findById(99L);
+        verify(orderArchiveService).findOrder(99L);
+    }
+
+    @Test
+    void getOrderById_ArchivedOrder_ReturnsItFromArchive() {
+        OrderDTO archived = new OrderDTO();
+        archived.setId(7L);
+        archived.setStatus(OrderStatus.FINISHED);
+        when(orderRepository.findById(7L)).thenReturn(Optional.empty());
+        when(orderArchiveService.findOrder(7L)).thenReturn(Optional.of(archived));
+
+        OrderDTO result = orderService.getOrderById(7L);
+
+        assertThat(result).isSameAs(archived);
     }
 
     @Test
@@ -84,7 +123,7 @@ class OrderServiceImplTest {
 
         when(orderRepository.findAll()).thenReturn(mockOrders);
 
-        List<OrderDTO> result = orderService.getAllOrders();
+        List<OrderDTO> result = orderService.getAllOrders(null);
 
         assertEquals(2, result.size());
         assertEquals("user1@gmail.com", result.get(0).getBuyerEmail());
@@ -92,6 +131,21 @@ class OrderServiceImplTest {
         verify(orderRepository).findAll();
     }
 
+    @Test
+    void getAllOrders_ForFlight_ReadsOnlyThatFlight() {
+        Order order = new Order();
+        order.setId(1L);
+        order.setFlightId("IB3202");
+
+        when(orderRepository.findByFlightIdOrderById("IB3202")).thenReturn(List.of(order));
+
+        List<OrderDTO> result = orderService.getAllOrders("IB3202");
+
+        assertEquals(1, result.size());
+        assertEquals("IB3202", result.get(0).getFlightId());
+        verify(orderRepository, never()).findAll();
+    }
+
     @Test
     void deleteOrder_ValidId_DeletesOrderAndRelations() {
         Long id = 1L;
@@ -100,6 +154,7 @@ class OrderServiceImplTest {
         order.setStatus(OrderStatus.OPEN);
 
         when(orderRepository.findById(id)).thenReturn(Optional.of(order));
+        when(productOrderRepository.findProductIdsByOrderId(id)).thenReturn(List.of(3L, 4L));
         doNothing().when(productOrderRepository).deleteAllByOrder(order);
         doNothing().when(orderRepository).delete(order);
 
@@ -107,7 +162,12 @@ class OrderServiceImplTest {
 
         verify(orderRepository).findById(id);
         verify(productOrderRepository).deleteAllByOrder(order);
+        verify(productRepository).adjustOrderCount(List.of(3L, 4L), -1);
         verify(orderRepository).delete(order);
+        verify(orderSummaryService).removeOrder(id);
+        verify(readYourWrites).recordWrite();
+        verify(outboxService).recordOrderEvent(eq(OrderEventType.DELETED), argThat(dto ->
+                id.equals(dto.getId()) && dto.getProductIds().equals(List.of(3L, 4L))));
     }
 
     @Test
@@ -124,6 +184,7 @@ class OrderServiceImplTest {
         verify(orderRepository).findById(id);
         verify(orderRepository, never()).delete(order);
         verify(productOrderRepository, never()).deleteAllByOrder(order);
+        verifyNoInteractions(outboxService);
     }
 
     @Test
@@ -157,12 +218,25 @@ class OrderServiceImplTest {
         verify(orderRepository, times(2)).save(any(Order.class));
     }
 
+    @Test
+    void createOrder_FlightNotOpen_ShouldThrowException() {
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setBuyerEmail("victor@gmail.com");
+        orderDTO.setFlightId("IB3202");
+        doThrow(new FlightNotOpenException("Flight IB3202 is not open")).when(flightService).requireOpen("IB3202");
+
+        assertThrows(FlightNotOpenException.class, () -> orderService.createOrder(orderDTO));
+
+        verifyNoInteractions(orderRepository, productOrderRepository, stockReservationService, outboxService);
+    }
+
     @Test
     void createOrderWithProducts() {
         OrderDTO orderDTO = new OrderDTO();
         orderDTO.setBuyerEmail("victor@gmail.com");
         orderDTO.setSeatLetter('B');
         orderDTO.setSeatNumber(15);
+        orderDTO.setFlightId("IB3202");
         orderDTO.setProductIds(List.of(1L, 2L));
 
         Product product1 = new Product();
@@ -179,6 +253,7 @@ class OrderServiceImplTest {
 
         Order savedOrder = new Order();
         savedOrder.setId(99L);
+        savedOrder.setFlightId("IB3202");
         savedOrder.setBuyerEmail(orderDTO.getBuyerEmail());
         savedOrder.setSeatLetter(orderDTO.getSeatLetter());
         savedOrder.setSeatNumber(orderDTO.getSeatNumber());
@@ -187,9 +262,7 @@ class OrderServiceImplTest {
         savedOrder.setTotalPrice(BigDecimal.ZERO);
 
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
-        when(productRepository.findById(2L)).thenReturn(Optional.of(product2));
-        when(orderRepository.findById(99L)).thenReturn(Optional.of(savedOrder));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product1, product2));
 
         OrderDTO result = orderService.createOrder(orderDTO);
 
@@ -199,8 +272,17 @@ class OrderServiceImplTest {
         assertEquals(PaymentStatus.PENDING, result.getPaymentStatus());
         assertEquals(BigDecimal.valueOf(15), result.getTotalPrice());
 
-        verify(productOrderRepository, times(2)).save(any(ProductOrder.class));
+        assertEquals(List.of(1L, 2L), result.getProductIds());
+
+        verify(flightService).requireOpen("IB3202");
+        verify(productRepository).findAllById(Set.of(1L, 2L));
+        verify(productRepository, never()).findById(any());
+        verify(productOrderRepository).insertLinks(99L, "IB3202", List.of(1L, 2L));
+        verify(productRepository).adjustOrderCount(List.of(1L, 2L), 1);
         verify(orderRepository, times(2)).save(any(Order.class));
+        verify(stockReservationService).reserve(99L, List.of(product1, product2));
+        verify(outboxService).recordOrderEvent(OrderEventType.CREATED, result);
+        verify(orderSummaryService).recordOrder(eq(result), argThat(products -> products.size() == 2));
     }
 
     @Test
@@ -224,6 +306,7 @@ class OrderServiceImplTest {
         existingOrder.setBuyerEmail("old@gmail.com");
         existingOrder.setSeatLetter('C');
         existingOrder.setSeatNumber(22);
+        existingOrder.setFlightId("IB3202");
         existingOrder.setStatus(OrderStatus.OPEN);
         existingOrder.setPaymentStatus(PaymentStatus.PENDING);
         existingOrder.setTotalPrice(BigDecimal.valueOf(0));
@@ -233,8 +316,7 @@ class OrderServiceImplTest {
         updateDTO.setProductIds(List.of(1L, 2L));
 
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(existingOrder));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
-        when(productRepository.findById(2L)).thenReturn(Optional.of(product2));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product1, product2));
         when(orderRepository.save(any(Order.class))).thenReturn(existingOrder);
 
         OrderDTO result = orderService.updateOrder(orderId, updateDTO);
@@ -242,12 +324,61 @@ class OrderServiceImplTest {
         assertNotNull(result);
         assertEquals("updated@gmail.com", result.getBuyerEmail());
         assertEquals(BigDecimal.valueOf(50), result.getTotalPrice());
+        assertEquals(List.of(1L, 2L), result.getProductIds());
 
-        verify(productOrderRepository).deleteAllByOrder(existingOrder);
-        verify(productOrderRepository, times(2)).save(any(ProductOrder.class));
+        verify(productOrderRepository).insertLinks(orderId, "IB3202", List.of(1L, 2L));
+        verify(productOrderRepository, never()).deleteByOrderIdAndProductIdIn(any(), any());
+        verify(productOrderRepository, never()).deleteAllByOrder(any());
         verify(orderRepository).save(existingOrder);
     }
 
+    @Test
+    void updateOrder_ThirtyLineOrderWithOneItemSwapped_WritesOnlyChangedLines() {
+        Long orderId = 1L;
+
+        Order existingOrder = new Order();
+        existingOrder.setId(orderId);
+        existingOrder.setBuyerEmail("victor@gmail.com");
+        existingOrder.setFlightId("IB3202");
+        existingOrder.setStatus(OrderStatus.OPEN);
+
+        List<Long> currentIds = LongStream.rangeClosed(1, 30).boxed().toList();
+        List<Long> requestedIds = LongStream.rangeClosed(2, 31).boxed().toList();
+        List<Product> products = requestedIds.stream().map(productId -> {
+            Product product = new Product();
+            product.setId(productId);
+            product.setName("Product " + productId);
+            product.setPrice(BigDecimal.ONE);
+            product.setStock(5);
+            return product;
+        }).toList();
+
+        OrderDTO updateDTO = new OrderDTO();
+        updateDTO.setBuyerEmail("victor@gmail.com");
+        updateDTO.setProductIds(requestedIds);
+
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(existingOrder));
+        when(productRepository.findAllById(any())).thenReturn(products);
+        when(productOrderRepository.findProductIdsByOrderId(orderId)).thenReturn(currentIds);
+        when(orderRepository.save(any(Order.class))).thenReturn(existingOrder);
+
+        OrderDTO result = orderService.updateOrder(orderId, updateDTO);
+
+        assertEquals(BigDecimal.valueOf(30), result.getTotalPrice());
+        assertEquals(requestedIds, result.getProductIds());
+
+        // One query for the products, one for the current lines, one delete and one insert batch
+        verify(productRepository, times(1)).findAllById(any());
+        verify(productRepository, never()).findById(any());
+        verify(productOrderRepository).findProductIdsByOrderId(orderId);
+        verify(productOrderRepository).deleteByOrderIdAndProductIdIn(orderId, List.of(1L));
+        verify(productOrderRepository).insertLinks(orderId, "IB3202", List.of(31L));
+        verify(productRepository).adjustOrderCount(List.of(1L), -1);
+        verify(productRepository).adjustOrderCount(List.of(31L), 1);
+        verify(productOrderRepository, never()).save(any(ProductOrder.class));
+        verify(productOrderRepository, never()).deleteAllByOrder(any());
+    }
+
     @Test
     void updateOrder_ProductNotFound_ShouldThrowException() {
         Long orderId = 1L;
@@ -263,12 +394,13 @@ class OrderServiceImplTest {
         orderDTO.setProductIds(List.of(invalidProductId));
 
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(existingOrder));
-        when(productRepository.findById(invalidProductId)).thenReturn(Optional.empty());
+        when(productRepository.findAllById(any())).thenReturn(List.of());
 
         assertThrows(ResourceNotFoundException.class, () -> orderService.updateOrder(orderId, orderDTO));
 
-        verify(productOrderRepository).deleteAllByOrder(existingOrder);
-        verify(productRepository).findById(invalidProductId);
+        verify(productRepository).findAllById(Set.of(invalidProductId));
+        verify(productOrderRepository, never()).insertLinks(any(), any(), any());
+        verify(productOrderRepository, never()).deleteByOrderIdAndProductIdIn(any(), any());
     }
 
     @Test
@@ -332,13 +464,12 @@ class OrderServiceImplTest {
         updateDTO.setProductIds(List.of(1L, 2L));
 
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(existingOrder));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(inStockProduct));
-        when(productRepository.findById(2L)).thenReturn(Optional.of(outOfStockProduct));
+        when(productRepository.findAllById(any())).thenReturn(List.of(inStockProduct, outOfStockProduct));
 
         assertThrows(OutOfStockException.class, () -> orderService.updateOrder(orderId, updateDTO));
 
-        verify(productOrderRepository).deleteAllByOrder(existingOrder);
-        verify(productOrderRepository, times(1)).save(any(ProductOrder.class));
+        verify(productOrderRepository, never()).insertLinks(any(), any(), any());
+        verify(productOrderRepository, never()).deleteByOrderIdAndProductIdIn(any(), any());
         verify(orderRepository, never()).save(any(Order.class));
     }
 
@@ -362,6 +493,9 @@ class OrderServiceImplTest {
         assertNotNull(result);
         assertEquals(OrderStatus.DROPPED, result.getStatus());
         verify(orderRepository).save(existingOrder);
+        verify(stockReservationService).release(orderId);
+        verify(outboxService).recordOrderEvent(OrderEventType.CANCELLED, result);
+        verify(orderSummaryService).recordStatus(result);
     }
 
     @Test
@@ -428,7 +562,7 @@ class OrderServiceImplTest {
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
         when(restTemplate.postForObject(anyString(), isNull(), eq(PaymentResponse.class)))
                 .thenReturn(paymentResponse);
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productRepository.decrementStock(1L)).thenReturn(1);
         when(orderRepository.save(any(Order.class))).thenReturn(order);
 
         OrderDTO result = orderService.finishOrder(orderId, request);
@@ -438,8 +572,14 @@ class OrderServiceImplTest {
         assertEquals(OrderStatus.FINISHED, result.getStatus());
         assertEquals(4, product.getStock());
 
-        verify(productRepository).save(product);
+        verify(productRepository).decrementStock(1L);
+        verify(productRepository, never()).save(any(Product.class));
+        verify(catalogChangeService).recordUpsert(CatalogEntityType.PRODUCT, 1L);
         verify(orderRepository).save(order);
+        verify(stockReservationService).confirm(orderId);
+        verify(outboxService).recordOrderEvent(OrderEventType.FINISHED, result);
+        verify(orderSummaryService).recordStatus(result);
+        verify(salesAnalyticsService).recordSale(order.getFlightId(), order.getPaymentDate(), BigDecimal.TEN, List.of(product));
     }
 
     @Test
@@ -507,5 +647,140 @@ class OrderServiceImplTest {
                 .thenReturn(new PaymentResponse("success", "tx123", "ok"));
 
         assertThrows(OutOfStockException.class, () -> orderService.finishOrder(orderId, request));
+        verifyNoInteractions(salesAnalyticsService);
+    }
+
+    @Test
+    void finishOrder_LedgerEnabled_TakesStockFromLedger() {
+        Long orderId = 1L;
+
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Perfume");
+        product.setStock(5);
+
+        ProductOrder productOrder = new ProductOrder();
+        productOrder.setProduct(product);
+
+        Order order = new Order();
+        order.setId(orderId);
+        order.setStatus(OrderStatus.OPEN);
+        order.setTotalPrice(BigDecimal.valueOf(80));
+        order.setProductOrders(List.of(productOrder));
+        order.setBuyerEmail("victor@gmail.com");
+
+        FinishOrderRequest request = new FinishOrderRequest("tok_123", PaymentGateway.STRIPE);
+
+        when(stockLedgerService.isEnabled()).thenReturn(true);
+        when(stockLedgerService.tryDecrement(1L, 1)).thenReturn(true);
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(restTemplate.postForObject(anyString(), isNull(), eq(PaymentResponse.class)))
+                .thenReturn(new PaymentResponse("success", "tx123", "ok"));
+
+        OrderDTO result = orderService.finishOrder(orderId, request);
+
+        assertEquals(OrderStatus.FINISHED, result.getStatus());
+        assertEquals(5, product.getStock());
+        verify(productRepository, never()).decrementStock(any());
+        verify(orderRepository).save(order);
+    }
+
+    @Test
+    void finishOrder_LedgerOutOfStock_ShouldThrowException() {
+        Long orderId = 1L;
+
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Perfume");
+        product.setStock(5);
+
+        ProductOrder productOrder = new ProductOrder();
+        productOrder.setProduct(product);
+
+        Order order = new Order();
+        order.setId(orderId);
+        order.setStatus(OrderStatus.OPEN);
+        order.setTotalPrice(BigDecimal.valueOf(80));
+        order.setProductOrders(List.of(productOrder));
+        order.setBuyerEmail("victor@gmail.com");
+
+        FinishOrderRequest request = new FinishOrderRequest("tok_123", PaymentGateway.STRIPE);
+
+        when(stockLedgerService.isEnabled()).thenReturn(true);
+        when(stockLedgerService.tryDecrement(1L, 1)).thenReturn(false);
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(restTemplate.postForObject(anyString(), isNull(), eq(PaymentResponse.class)))
+                .thenReturn(new PaymentResponse("success", "tx123", "ok"));
+
+        assertThrows(OutOfStockException.class, () -> orderService.finishOrder(orderId, request));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void createOrder_ProductHeldByOtherOrders_ShouldThrowException() {
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setBuyerEmail("victor@gmail.com");
+        orderDTO.setSeatLetter('B');
+        orderDTO.setSeatNumber(15);
+        orderDTO.setProductIds(List.of(1L));
+
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Last bottle");
+        product.setPrice(BigDecimal.valueOf(40));
+        product.setStock(1);
+
+        Order savedOrder = new Order();
+        savedOrder.setId(7L);
+
+        when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+        doThrow(new OutOfStockException("Product out of stock: Last bottle"))
+                .when(stockReservationService).reserve(7L, List.of(product));
+
+        assertThrows(OutOfStockException.class, () -> orderService.createOrder(orderDTO));
+
+        verify(orderRepository, times(1)).save(any(Order.class));
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void createOrder_LedgerSoldOut_ShouldThrowException() {
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setBuyerEmail("victor@gmail.com");
+        orderDTO.setSeatLetter('B');
+        orderDTO.setSeatNumber(15);
+        orderDTO.setProductIds(List.of(1L));
+
+        // The row has not caught up with checkouts the ledger already took
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Perfume");
+        product.setPrice(BigDecimal.valueOf(80));
+        product.setStock(3);
+
+        when(stockLedgerService.isEnabled()).thenReturn(true);
+        when(stockLedgerService.getStock(1L)).thenReturn(0);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        assertThrows(OutOfStockException.class, () -> orderService.createOrder(orderDTO));
+
+        verify(orderRepository, never()).save(any(Order.class));
+        verifyNoInteractions(stockReservationService);
+    }
+
+    @Test
+    void createOrder_ProductListedTwice_ShouldThrowException() {
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setBuyerEmail("victor@gmail.com");
+        orderDTO.setSeatLetter('B');
+        orderDTO.setSeatNumber(15);
+        orderDTO.setProductIds(List.of(1L, 2L, 1L));
+
+        DuplicateOrderProductException ex = assertThrows(DuplicateOrderProductException.class, () -> orderService.createOrder(orderDTO));
+
+        assertEquals("Product listed more than once in the order: 1", ex.getMessage());
+        verify(orderRepository, never()).save(any(Order.class));
+        verifyNoInteractions(productRepository, stockReservationService);
     }
 }
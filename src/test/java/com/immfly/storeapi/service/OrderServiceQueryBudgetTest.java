@@ -0,0 +1,111 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.CategoryDTO;
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.dto.ProductDTO;
+import com.immfly.storeapi.monitoring.QueryBudget;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A budget that no longer holds usually means a lazy load or a per-item query crept in
+@SpringBootTest
+class OrderServiceQueryBudgetTest {
+
+    // Flight check, product lookup, order insert and update, one line batch, order counts, outbox and summary
+    private static final int CREATE_ORDER_BUDGET = 11;
+    private static final int CANCEL_ORDER_BUDGET = 6;
+    // Order, products and current lines read, one line delete, one line batch, two order-count
+    // updates, order update, summary read and update
+    private static final int UPDATE_ORDER_STATEMENTS = 10;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private FlightService flightService;
+
+    private String flightId;
+    private List<Long> productIds;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        flightId = "QB-" + suffix;
+        flightService.openFlight(flightId);
+
+        CategoryDTO category = categoryService.createCategory(new CategoryDTO(null, "Budget " + suffix, null));
+        productIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            productIds.add(productService.createProduct(
+                    new ProductDTO(null, "Budget " + suffix + " " + i, new BigDecimal("3.00"), null, category.getId(), 100)).getId());
+        }
+    }
+
+    @Test
+    void createOrder_StaysWithinBudget() {
+        OrderDTO order = QueryBudget.assertAtMost(CREATE_ORDER_BUDGET, () -> orderService.createOrder(request(productIds.subList(0, 1))));
+
+        assertEquals(1, order.getProductIds().size());
+    }
+
+    @Test
+    void createOrder_StatementsDoNotGrowWithProducts() {
+        int oneProduct = QueryBudget.count(() -> orderService.createOrder(request(productIds.subList(0, 1))));
+        int fiveProducts = QueryBudget.count(() -> orderService.createOrder(request(productIds)));
+
+        assertEquals(oneProduct, fiveProducts);
+    }
+
+    @Test
+    void cancelOrder_StaysWithinBudget() {
+        OrderDTO order = orderService.createOrder(request(productIds));
+
+        QueryBudget.assertAtMost(CANCEL_ORDER_BUDGET, () -> orderService.cancelOrder(order.getId()));
+    }
+
+    @Test
+    void updateOrder_SwapOneLine_RunsExpectedStatements() {
+        OrderDTO order = orderService.createOrder(request(productIds.subList(0, 4)));
+
+        int statements = QueryBudget.count(() -> orderService.updateOrder(order.getId(), request(productIds.subList(1, 5))));
+
+        assertEquals(UPDATE_ORDER_STATEMENTS, statements);
+        assertEquals(Set.copyOf(productIds.subList(1, 5)), Set.copyOf(orderService.getOrderById(order.getId()).getProductIds()));
+    }
+
+    @Test
+    void updateOrder_StatementsDoNotGrowWithLines() {
+        OrderDTO twoLines = orderService.createOrder(request(productIds.subList(0, 2)));
+        OrderDTO fourLines = orderService.createOrder(request(productIds.subList(0, 4)));
+
+        // Each update keeps the other lines and swaps one
+        int fewLines = QueryBudget.count(() -> orderService.updateOrder(twoLines.getId(),
+                request(List.of(productIds.get(0), productIds.get(4)))));
+        int manyLines = QueryBudget.count(() -> orderService.updateOrder(fourLines.getId(),
+                request(List.of(productIds.get(0), productIds.get(1), productIds.get(2), productIds.get(4)))));
+
+        assertEquals(fewLines, manyLines);
+    }
+
+    private OrderDTO request(List<Long> productIds) {
+        OrderDTO request = new OrderDTO(null, null, null, null, null, "budget@example.com", 'B', 2, productIds);
+        request.setFlightId(flightId);
+        return request;
+    }
+}
@@ -0,0 +1,158 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.dto.OrderSummaryDTO;
+import com.immfly.storeapi.enums.OrderStatus;
+import com.immfly.storeapi.enums.PaymentStatus;
+import com.immfly.storeapi.model.OrderSummary;
+import com.immfly.storeapi.model.Product;
+import com.immfly.storeapi.repository.OrderSummaryRepository;
+import com.immfly.storeapi.service.impl.OrderSummaryServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OrderSummaryServiceImplTest {
+
+    private OrderSummaryRepository orderSummaryRepository;
+    private OrderSummaryServiceImpl orderSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        orderSummaryRepository = mock(OrderSummaryRepository.class);
+        orderSummaryService = new OrderSummaryServiceImpl(orderSummaryRepository);
+    }
+
+    @Test
+    void recordOrder_NewOrder_SavesDenormalizedRow() {
+        OrderDTO order = order(7L, OrderStatus.OPEN, PaymentStatus.PENDING, new BigDecimal("7.50"));
+
+        orderSummaryService.recordOrder(order, List.of(product("Water"), product("Sandwich"), product("Water")));
+
+        ArgumentCaptor<OrderSummary> captor = ArgumentCaptor.forClass(OrderSummary.class);
+        verify(orderSummaryRepository).save(captor.capture());
+        OrderSummary summary = captor.getValue();
+        assertEquals(7L, summary.getOrderId());
+        assertEquals("IB3202", summary.getFlightId());
+        assertEquals('C', summary.getSeatLetter());
+        assertEquals(12, summary.getSeatNumber());
+        assertEquals(OrderStatus.OPEN, summary.getStatus());
+        assertEquals(new BigDecimal("7.50"), summary.getTotalPrice());
+        assertEquals(3, summary.getItemCount());
+        assertEquals("Water, Sandwich, Water", summary.getProductNames());
+        assertNotNull(summary.getUpdatedAt());
+    }
+
+    @Test
+    void recordOrder_LongProductList_TruncatesNames() {
+        List<Product> products = Collections.nCopies(300, product("Sparkling water"));
+
+        orderSummaryService.recordOrder(order(7L, OrderStatus.OPEN, PaymentStatus.PENDING, BigDecimal.ZERO), products);
+
+        ArgumentCaptor<OrderSummary> captor = ArgumentCaptor.forClass(OrderSummary.class);
+        verify(orderSummaryRepository).save(captor.capture());
+        assertEquals(2000, captor.getValue().getProductNames().length());
+        assertTrue(captor.getValue().getProductNames().endsWith("..."));
+        assertEquals(300, captor.getValue().getItemCount());
+    }
+
+    @Test
+    void recordStatus_ExistingRow_UpdatesStatusOnly() {
+        OrderSummary summary = new OrderSummary();
+        summary.setOrderId(7L);
+        summary.setItemCount(2);
+        summary.setProductNames("Water, Sandwich");
+        when(orderSummaryRepository.findById(7L)).thenReturn(Optional.of(summary));
+
+        orderSummaryService.recordStatus(order(7L, OrderStatus.FINISHED, PaymentStatus.PAID, new BigDecimal("7.50")));
+
+        verify(orderSummaryRepository).save(summary);
+        assertEquals(OrderStatus.FINISHED, summary.getStatus());
+        assertEquals(PaymentStatus.PAID, summary.getPaymentStatus());
+        assertEquals(2, summary.getItemCount());
+        assertEquals("Water, Sandwich", summary.getProductNames());
+    }
+
+    @Test
+    void recordStatus_MissingRow_DoesNothing() {
+        orderSummaryService.recordStatus(order(7L, OrderStatus.DROPPED, PaymentStatus.FAILED, BigDecimal.ZERO));
+
+        verify(orderSummaryRepository, never()).save(any());
+    }
+
+    @Test
+    void findSummaries_MapsRows() {
+        OrderSummary summary = new OrderSummary();
+        summary.setOrderId(7L);
+        summary.setFlightId("IB3202");
+        summary.setSeatLetter('C');
+        summary.setSeatNumber(12);
+        summary.setStatus(OrderStatus.OPEN);
+        when(orderSummaryRepository.findByFilters("IB3202", OrderStatus.OPEN, 'C', null)).thenReturn(List.of(summary));
+
+        List<OrderSummaryDTO> result = orderSummaryService.findSummaries("IB3202", OrderStatus.OPEN, 'C', null);
+
+        assertEquals(1, result.size());
+        assertEquals(7L, result.get(0).getOrderId());
+        assertEquals("IB3202", result.get(0).getFlightId());
+        assertEquals('C', result.get(0).getSeatLetter());
+        assertEquals(12, result.get(0).getSeatNumber());
+    }
+
+    // With 1,000 flights of 50 orders loaded, the per-flight listing and seat totals read only that flight's rows
+    @Test
+    void perFlightQueries_ThousandFlights_ReadOnlyThatFlight() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE order_summaries (order_id BIGINT PRIMARY KEY, flight_id VARCHAR(32) NOT NULL, seat_letter CHAR(1), " +
+                "seat_number INT, status VARCHAR(20), item_count INT NOT NULL, total_price DECIMAL(8,2))");
+        jdbcTemplate.execute("CREATE INDEX idx_order_summaries_seat ON order_summaries (flight_id, seat_number, seat_letter)");
+        jdbcTemplate.execute("CREATE INDEX idx_order_summaries_status ON order_summaries (flight_id, status)");
+        jdbcTemplate.update("INSERT INTO order_summaries SELECT X, 'F' || ((X - 1) / 50), CHAR(65 + MOD(X, 6)), MOD(X, 30) + 1, " +
+                "CASE WHEN MOD(X, 4) = 0 THEN 'OPEN' ELSE 'FINISHED' END, 1, 1.50 FROM SYSTEM_RANGE(1, 50000)");
+        jdbcTemplate.execute("ANALYZE");
+
+        String listing = "SELECT order_id FROM order_summaries WHERE flight_id = 'F500' AND status = 'OPEN' ORDER BY seat_number, seat_letter, order_id";
+        String seatTotals = "SELECT seat_number, seat_letter, COUNT(*), SUM(item_count), SUM(total_price) FROM order_summaries " +
+                "WHERE flight_id = 'F500' GROUP BY seat_number, seat_letter ORDER BY seat_number, seat_letter";
+
+        assertEquals(12, jdbcTemplate.queryForList(listing, Long.class).size());
+        assertEquals(13, scanCount(jdbcTemplate, listing));
+        assertEquals(30, jdbcTemplate.queryForList(seatTotals).size());
+        assertEquals(51, scanCount(jdbcTemplate, seatTotals));
+    }
+
+    // Rows read by the index lookup (H2 counts the probe that ends the range too), out of 50,000
+    private int scanCount(JdbcTemplate jdbcTemplate, String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN ANALYZE " + sql, String.class);
+        assertTrue(plan.contains("PUBLIC.IDX_ORDER_SUMMARIES_"), plan);
+        Matcher matcher = Pattern.compile("scanCount: (\\d+)").matcher(plan);
+        assertTrue(matcher.find(), plan);
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private OrderDTO order(Long id, OrderStatus status, PaymentStatus paymentStatus, BigDecimal totalPrice) {
+        OrderDTO order = new OrderDTO(id, totalPrice, paymentStatus, null, status, "a@gmail.com", 'C', 12, List.of());
+        order.setFlightId("IB3202");
+        return order;
+    }
+
+    private Product product(String name) {
+        Product product = new Product();
+        product.setName(name);
+        return product;
+    }
+}
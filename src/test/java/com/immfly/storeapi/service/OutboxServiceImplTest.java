@@ -0,0 +1,98 @@
+package com.immfly.storeapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.immfly.storeapi.dto.OrderDTO;
+import com.immfly.storeapi.enums.OrderEventType;
+import com.immfly.storeapi.enums.OrderStatus;
+import com.immfly.storeapi.model.OutboxEvent;
+import com.immfly.storeapi.outbox.OutboxSink;
+import com.immfly.storeapi.repository.OutboxEventRepository;
+import com.immfly.storeapi.service.impl.OutboxServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxServiceImplTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private StubSink sink;
+    private OutboxServiceImpl outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        sink = new StubSink();
+        ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+        outboxService = new OutboxServiceImpl(outboxEventRepository, sink, objectMapper);
+        ReflectionTestUtils.setField(outboxService, "batchSize", 2);
+    }
+
+    @Test
+    void recordOrderEvent_SavesOrderAsJsonPayload() {
+        OrderDTO order = new OrderDTO();
+        order.setId(5L);
+        order.setStatus(OrderStatus.OPEN);
+        order.setTotalPrice(BigDecimal.TEN);
+
+        outboxService.recordOrderEvent(OrderEventType.CREATED, order);
+
+        verify(outboxEventRepository).save(argThat(event -> event.getOrderId().equals(5L)
+                && event.getEventType() == OrderEventType.CREATED
+                && event.getPayload().contains("\"status\":\"OPEN\"")));
+    }
+
+    @Test
+    void relay_PublishesBatchesInIdOrderAndDeletesThem() {
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(event(1L), event(2L)))
+                .thenReturn(List.of(event(3L)));
+
+        assertEquals(3, outboxService.relay());
+
+        assertEquals(List.of(1L, 2L, 3L), sink.publishedIds);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+    }
+
+    @Test
+    void relay_SinkFailure_StopsAndKeepsTheRest() {
+        sink.failOn = 2L;
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(event(1L), event(2L)));
+
+        assertEquals(1, outboxService.relay());
+
+        assertEquals(List.of(1L), sink.publishedIds);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+        verify(outboxEventRepository, times(1)).findAllByOrderByIdAsc(any(Pageable.class));
+    }
+
+    private OutboxEvent event(Long id) {
+        OutboxEvent event = new OutboxEvent(10L, OrderEventType.CREATED, "{}");
+        event.setId(id);
+        return event;
+    }
+
+    private static class StubSink implements OutboxSink {
+        final List<Long> publishedIds = new ArrayList<>();
+        Long failOn;
+
+        @Override
+        public void publish(OutboxEvent event) {
+            if (event.getId().equals(failOn)) {
+                throw new IllegalStateException("sink unavailable");
+            }
+            publishedIds.add(event.getId());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.immfly.storeapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immfly.storeapi.dto.ProductImportResultDTO;
+import com.immfly.storeapi.enums.CatalogEntityType;
+import com.immfly.storeapi.service.impl.ProductImportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductImportServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private CatalogChangeService catalogChangeService;
+    private ProductImportService productImportService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE categories (category_id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255) UNIQUE NOT NULL, " +
+                "product_count BIGINT DEFAULT 0 NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE products (product_id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255) UNIQUE NOT NULL, " +
+                "price DECIMAL(8,2) NOT NULL, stock INT NOT NULL, category_id BIGINT NOT NULL, image_url VARCHAR(255), version BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('Drinks')");
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('Snacks')");
+        jdbcTemplate.update("INSERT INTO products (name, price, stock, category_id, version) VALUES ('Water', 1.00, 1, 1, 0)");
+        jdbcTemplate.update("UPDATE categories SET product_count = 1 WHERE category_id = 1");
+
+        catalogChangeService = mock(CatalogChangeService.class);
+        productImportService = new ProductImportServiceImpl(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                new ObjectMapper(), catalogChangeService, mock(StockLedgerService.class));
+    }
+
+    @Test
+    void importJson_UpsertsByNameAndReportsBadRows() {
+        String json = "[" +
+                "{\"name\":\"Water\",\"price\":1.50,\"stock\":10,\"categoryId\":1}," +
+                "{\"name\":\"Cola\",\"price\":\"free\",\"stock\":1,\"categoryId\":1}," +
+                "{\"name\":\"Beer\",\"price\":3,\"stock\":2,\"categoryName\":\"Drinks\"}," +
+                "{\"name\":\"Wine\",\"price\":9,\"stock\":2,\"categoryName\":\"Spirits\"}" +
+                "]";
+
+        ProductImportResultDTO result = productImportService.importJson(input(json));
+
+        assertEquals(4, result.getProcessed());
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(2L, 4L), result.getErrors().stream().map(e -> e.getRow()).toList());
+        assertEquals(new BigDecimal("1.50"), jdbcTemplate.queryForObject("SELECT price FROM products WHERE name = 'Water'", BigDecimal.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT stock FROM products WHERE name = 'Beer'", Integer.class));
+        assertEquals(2, productCount("Drinks"));
+        verify(catalogChangeService).recordUpserts(eq(CatalogEntityType.PRODUCT), argThat(ids -> ids.size() == 2));
+    }
+
+    @Test
+    void importJson_ProductMovedToAnotherCategory_ShouldMoveItsCount() {
+        String json = "[" +
+                "{\"name\":\"Water\",\"price\":1.00,\"stock\":1,\"categoryName\":\"Snacks\"}," +
+                "{\"name\":\"Chips\",\"price\":2.00,\"stock\":4,\"categoryName\":\"Snacks\"}" +
+                "]";
+
+        productImportService.importJson(input(json));
+
+        assertEquals(0, productCount("Drinks"));
+        assertEquals(2, productCount("Snacks"));
+    }
+
+    @Test
+    void importJson_NotAnArray_ShouldReportError() {
+        ProductImportResultDTO result = productImportService.importJson(input("{\"name\":\"Water\"}"));
+
+        assertEquals(1, result.getFailed());
+        verifyNoInteractions(catalogChangeService);
+    }
+
+    @Test
+    void importCsv_HandlesQuotedFieldsAndRepeatedNames() {
+        String csv = "name,price,stock,categoryName,imageUrl\n" +
+                "\"Wine, \"\"red\"\"\",12.50,3,Drinks,https://example.com/wine.jpg\n" +
+                "Beer,abc,1,Drinks,\n" +
+                "Juice,2,5,Drinks,\n" +
+                "Juice,3,4,Drinks,\n";
+
+        ProductImportResultDTO result = productImportService.importCsv(input(csv));
+
+        assertEquals(4, result.getProcessed());
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getFailed());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT stock FROM products WHERE name = 'Wine, \"red\"'", Integer.class));
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT stock FROM products WHERE name = 'Juice'", Integer.class));
+    }
+
+    @Test
+    void importJson_RowRejectedByDatabase_ShouldFailOnlyThatRow() {
+        // Price does not fit DECIMAL(8,2), so the batch fails and is retried row by row
+        String json = "[" +
+                "{\"name\":\"Beer\",\"price\":3,\"stock\":2,\"categoryId\":1}," +
+                "{\"name\":\"Caviar\",\"price\":123456789,\"stock\":1,\"categoryId\":1}," +
+                "{\"name\":\"Water\",\"price\":1.20,\"stock\":8,\"categoryId\":1}" +
+                "]";
+
+        ProductImportResultDTO result = productImportService.importJson(input(json));
+
+        assertEquals(3, result.getProcessed());
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(2L, result.getErrors().get(0).getRow());
+        assertEquals("Caviar", result.getErrors().get(0).getName());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Row rejected by the database"));
+        assertEquals(8, jdbcTemplate.queryForObject("SELECT stock FROM products WHERE name = 'Water'", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE name = 'Caviar'", Integer.class));
+        assertEquals(2, productCount("Drinks"));
+    }
+
+    @Test
+    void importCsv_QuotedFieldWithLineBreak_ShouldStayOneRow() {
+        String csv = "name,price,stock,categoryName\r\n" +
+                "\"Gift\r\nbox\",20,1,Snacks\r\n" +
+                "Beer,abc,1,Drinks\r\n";
+
+        ProductImportResultDTO result = productImportService.importCsv(input(csv));
+
+        assertEquals(2, result.getProcessed());
+        assertEquals(1, result.getCreated());
+        assertEquals(List.of(2L), result.getErrors().stream().map(e -> e.getRow()).toList());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT stock FROM products WHERE name = 'Gift' || CHAR(13) || CHAR(10) || 'box'", Integer.class));
+    }
+
+    @Test
+    void importCsv_MissingNameColumn_ShouldReportError() {
+        ProductImportResultDTO result = productImportService.importCsv(input("price,stock\n1,2\n"));
+
+        assertEquals(1, result.getFailed());
+        assertEquals(0, result.getCreated());
+    }
+
+    private long productCount(String category) {
+        return jdbcTemplate.queryForObject("SELECT product_count FROM categories WHERE name = ?", Long.class, category);
+    }
+
+    private ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,14 +1,16 @@
 package com.immfly.storeapi.service;
 
 import com.immfly.storeapi.dto.ProductDTO;
+import com.immfly.storeapi.enums.CatalogEntityType;
 import com.immfly.storeapi.exception.ProductAlreadyExistsException;
 import com.immfly.storeapi.exception.ProductDeletionException;
 import com.immfly.storeapi.exception.ResourceNotFoundException;
 import com.immfly.storeapi.mapper.ProductMapper;
 import com.immfly.storeapi.model.Category;
 import com.immfly.storeapi.model.Product;
-import com.immfly.storeapi.model.ProductOrder;
+import com.immfly.storeapi.repository.ArchivedProductOrderRepository;
 import com.immfly.storeapi.repository.CategoryRepository;
+import com.immfly.storeapi.repository.ProductOrderRepository;
 import com.immfly.storeapi.repository.ProductRepository;
 import com.immfly.storeapi.service.impl.ProductServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,13 +28,23 @@ class ProductServiceImplTest {
 
     private ProductRepository productRepository;
     private CategoryRepository categoryRepository;
+    private ProductOrderRepository productOrderRepository;
+    private ArchivedProductOrderRepository archivedProductOrderRepository;
+    private CatalogChangeService catalogChangeService;
+    private CatalogSnapshotService catalogSnapshotService;
+    private StockLedgerService stockLedgerService;
     private ProductServiceImpl productService;
 
     @BeforeEach
     void setUp() {
         productRepository = mock(ProductRepository.class);
         categoryRepository = mock(CategoryRepository.class);
-        productService = new ProductServiceImpl(productRepository, categoryRepository);
+        productOrderRepository = mock(ProductOrderRepository.class);
+        archivedProductOrderRepository = mock(ArchivedProductOrderRepository.class);
+        catalogChangeService = mock(CatalogChangeService.class);
+        catalogSnapshotService = mock(CatalogSnapshotService.class);
+        stockLedgerService = mock(StockLedgerService.class);
+        productService = new ProductServiceImpl(productRepository, categoryRepository, productOrderRepository, archivedProductOrderRepository, catalogChangeService, catalogSnapshotService, stockLedgerService);
     }
 
     @Test
@@ -63,6 +75,17 @@ class ProductServiceImplTest {
         assertThrows(ResourceNotFoundException.class, () -> productService.getProductById(99L));
     }
 
+    @Test
+    void getProductById_CurrentSnapshot_SkipsDatabase() {
+        ProductDTO snapshotProduct = new ProductDTO(1L, "Laptop", BigDecimal.valueOf(1200), null, 1L, 10);
+        when(catalogSnapshotService.findProduct(1L)).thenReturn(Optional.of(snapshotProduct));
+
+        ProductDTO result = productService.getProductById(1L);
+
+        assertSame(snapshotProduct, result);
+        verifyNoInteractions(productRepository);
+    }
+
     @Test
     void getAllProducts_ReturnsListOfProducts() {
         Product p1 = new Product();
@@ -120,6 +143,8 @@ class ProductServiceImplTest {
         assertEquals("iPhone", result.getName());
         assertEquals(1L, result.getId());
         verify(productRepository).save(any(Product.class));
+        verify(categoryRepository).adjustProductCount(1L, 1);
+        verify(catalogChangeService).recordUpsert(CatalogEntityType.PRODUCT, 1L);
     }
 
     @Test
@@ -135,6 +160,7 @@ class ProductServiceImplTest {
 
         assertThrows(ProductAlreadyExistsException.class, () -> productService.createProduct(dto));
         verify(productRepository, never()).save(any());
+        verify(catalogChangeService, never()).recordUpsert(any(), any());
     }
 
 
@@ -165,6 +191,10 @@ class ProductServiceImplTest {
         existingProduct.setStock(5);
         existingProduct.setImageUrl("old.jpg");
 
+        Category previousCategory = new Category();
+        previousCategory.setId(1L);
+        existingProduct.setCategory(previousCategory);
+
         Category category = new Category();
         category.setId(2L);
         category.setName("Tech");
@@ -190,6 +220,10 @@ class ProductServiceImplTest {
         assertEquals("new.jpg", result.getImageUrl());
         assertEquals(2L, result.getCategoryId());
         verify(productRepository).save(existingProduct);
+        verify(categoryRepository).adjustProductCount(1L, -1);
+        verify(categoryRepository).adjustProductCount(2L, 1);
+        verify(catalogChangeService).recordUpsert(CatalogEntityType.PRODUCT, productId);
+        verify(stockLedgerService).evict(productId);
     }
 
     @Test
@@ -252,7 +286,9 @@ class ProductServiceImplTest {
         Product product = new Product();
         product.setId(productId);
         product.setName("Auriculares");
-        product.setProductOrders(List.of());
+        Category category = new Category();
+        category.setId(2L);
+        product.setCategory(category);
 
         when(productRepository.findById(productId)).thenReturn(Optional.of(product));
         doNothing().when(productRepository).delete(product);
@@ -261,6 +297,9 @@ class ProductServiceImplTest {
 
         verify(productRepository).findById(productId);
         verify(productRepository).delete(product);
+        verify(categoryRepository).adjustProductCount(2L, -1);
+        verify(catalogChangeService).recordDeletion(CatalogEntityType.PRODUCT, productId);
+        verify(stockLedgerService).evict(productId);
     }
 
     @Test
@@ -283,14 +322,28 @@ class ProductServiceImplTest {
         product.setId(productId);
         product.setName("Tablet");
 
-        ProductOrder po = new ProductOrder();
-        product.setProductOrders(List.of(po));
-
         when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productOrderRepository.existsByIdProductId(productId)).thenReturn(true);
 
         assertThrows(ProductDeletionException.class, () -> productService.deleteProduct(productId));
 
         verify(productRepository).findById(productId);
         verify(productRepository, never()).delete(any());
     }
+
+    @Test
+    void deleteProduct_WithArchivedOrders_ShouldThrowException() {
+        Long productId = 1L;
+
+        Product product = new Product();
+        product.setId(productId);
+        product.setName("Tablet");
+
+        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(archivedProductOrderRepository.existsByIdProductId(productId)).thenReturn(true);
+
+        assertThrows(ProductDeletionException.class, () -> productService.deleteProduct(productId));
+
+        verify(productRepository, never()).delete(any());
+    }
 }
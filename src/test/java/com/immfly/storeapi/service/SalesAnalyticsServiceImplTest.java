@@ -0,0 +1,225 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.dto.CategorySalesDTO;
+import com.immfly.storeapi.dto.SalesVerificationDTO;
+import com.immfly.storeapi.model.Category;
+import com.immfly.storeapi.model.Product;
+import com.immfly.storeapi.repository.CategoryRepository;
+import com.immfly.storeapi.repository.HourlySalesRollupRepository;
+import com.immfly.storeapi.repository.ProductSalesRollupRepository;
+import com.immfly.storeapi.service.impl.SalesAnalyticsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SalesAnalyticsServiceImplTest {
+
+    private static final String FLIGHT = "IB3202";
+    private static final LocalDateTime PAID_AT = LocalDateTime.of(2025, 6, 1, 10, 25);
+
+    private JdbcTemplate jdbcTemplate;
+    private ProductSalesRollupRepository productSalesRollupRepository;
+    private CategoryRepository categoryRepository;
+    private SalesAnalyticsServiceImpl salesAnalyticsService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE products (product_id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, price DECIMAL(8,2) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE orders (order_id BIGINT PRIMARY KEY, flight_id VARCHAR(32) NOT NULL, total_price DECIMAL(8,2) NOT NULL, " +
+                "status VARCHAR(20) NOT NULL, payment_date TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE products_orders (product_id BIGINT NOT NULL, order_id BIGINT NOT NULL, PRIMARY KEY (product_id, order_id))");
+        jdbcTemplate.execute("CREATE TABLE orders_archive (order_id BIGINT PRIMARY KEY, flight_id VARCHAR(32) NOT NULL, total_price DECIMAL(8,2) NOT NULL, " +
+                "status VARCHAR(20) NOT NULL, payment_date TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE products_orders_archive (order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, PRIMARY KEY (order_id, product_id))");
+        jdbcTemplate.execute("CREATE TABLE sales_product_rollups (flight_id VARCHAR(32) NOT NULL, product_id BIGINT NOT NULL, units BIGINT NOT NULL, " +
+                "revenue DECIMAL(12,2) NOT NULL, PRIMARY KEY (flight_id, product_id))");
+        jdbcTemplate.execute("CREATE TABLE sales_hourly_rollups (flight_id VARCHAR(32) NOT NULL, hour_start TIMESTAMP NOT NULL, order_count BIGINT NOT NULL, " +
+                "units BIGINT NOT NULL, revenue DECIMAL(12,2) NOT NULL, PRIMARY KEY (flight_id, hour_start))");
+        jdbcTemplate.update("INSERT INTO products VALUES (1, 'Water', 1.50), (2, 'Sandwich', 6.00)");
+
+        productSalesRollupRepository = mock(ProductSalesRollupRepository.class);
+        categoryRepository = mock(CategoryRepository.class);
+        salesAnalyticsService = new SalesAnalyticsServiceImpl(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                productSalesRollupRepository, mock(HourlySalesRollupRepository.class), categoryRepository);
+    }
+
+    @Test
+    void recordSale_AccumulatesPerProductAndPerHour() {
+        salesAnalyticsService.recordSale(FLIGHT, PAID_AT, new BigDecimal("7.50"), List.of(product(1L, "1.50"), product(2L, "6.00")));
+        salesAnalyticsService.recordSale(FLIGHT, PAID_AT.plusMinutes(20), new BigDecimal("1.50"), List.of(product(1L, "1.50")));
+
+        assertEquals(2L, jdbcTemplate.queryForObject("SELECT units FROM sales_product_rollups WHERE product_id = 1", Long.class));
+        assertEquals(0, new BigDecimal("3.00").compareTo(
+                jdbcTemplate.queryForObject("SELECT revenue FROM sales_product_rollups WHERE product_id = 1", BigDecimal.class)));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT units FROM sales_product_rollups WHERE product_id = 2", Long.class));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales_hourly_rollups", Integer.class));
+        assertEquals(2L, jdbcTemplate.queryForObject("SELECT order_count FROM sales_hourly_rollups", Long.class));
+        assertEquals(3L, jdbcTemplate.queryForObject("SELECT units FROM sales_hourly_rollups", Long.class));
+        assertEquals(0, new BigDecimal("9.00").compareTo(jdbcTemplate.queryForObject("SELECT revenue FROM sales_hourly_rollups", BigDecimal.class)));
+    }
+
+    @Test
+    void recordSale_KeepsFlightsApart() {
+        salesAnalyticsService.recordSale(FLIGHT, PAID_AT, new BigDecimal("1.50"), List.of(product(1L, "1.50")));
+        salesAnalyticsService.recordSale("VY1001", PAID_AT, new BigDecimal("3.00"), List.of(product(1L, "1.50"), product(1L, "1.50")));
+
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT units FROM sales_product_rollups WHERE flight_id = 'IB3202' AND product_id = 1", Long.class));
+        assertEquals(2L, jdbcTemplate.queryForObject("SELECT units FROM sales_product_rollups WHERE flight_id = 'VY1001' AND product_id = 1", Long.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales_hourly_rollups", Integer.class));
+        assertEquals(2L, jdbcTemplate.queryForObject("SELECT units FROM sales_hourly_rollups WHERE flight_id = 'VY1001'", Long.class));
+    }
+
+    @Test
+    void verify_SaleRolledUpUnderWrongFlight_ReportsBothFlights() {
+        finishedOrder(10L, "VY1001", "1.50", PAID_AT, 1L);
+        salesAnalyticsService.recordSale(FLIGHT, PAID_AT, new BigDecimal("1.50"), List.of(product(1L, "1.50")));
+
+        SalesVerificationDTO result = salesAnalyticsService.verify();
+
+        assertFalse(result.isConsistent());
+        assertEquals(List.of(
+                "Flight IB3202, product 1: rollup has 1 units, orders have 0",
+                "Flight VY1001, product 1: rollup has 0 units, orders have 1"), result.getMismatches().subList(0, 2));
+        assertEquals(4, result.getMismatches().size());
+    }
+
+    @Test
+    void rebuild_SplitsRollupsPerFlight() {
+        finishedOrder(10L, "7.50", PAID_AT, 1L, 2L);
+        finishedOrder(11L, "VY1001", "1.50", PAID_AT, 1L);
+
+        salesAnalyticsService.rebuild();
+
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT units FROM sales_product_rollups WHERE flight_id = 'IB3202' AND product_id = 1", Long.class));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT units FROM sales_product_rollups WHERE flight_id = 'VY1001' AND product_id = 1", Long.class));
+        assertEquals(0, new BigDecimal("1.50").compareTo(
+                jdbcTemplate.queryForObject("SELECT revenue FROM sales_hourly_rollups WHERE flight_id = 'VY1001'", BigDecimal.class)));
+        assertTrue(salesAnalyticsService.verify().isConsistent());
+    }
+
+    @Test
+    void verify_RollupsMatchFinishedOrders_IsConsistent() {
+        finishedOrder(10L, "7.50", PAID_AT, 1L, 2L);
+        jdbcTemplate.update("INSERT INTO orders VALUES (11, 'IB3202', 1.50, 'OPEN', NULL)");
+        jdbcTemplate.update("INSERT INTO products_orders VALUES (1, 11)");
+        salesAnalyticsService.recordSale(FLIGHT, PAID_AT, new BigDecimal("7.50"), List.of(product(1L, "1.50"), product(2L, "6.00")));
+
+        SalesVerificationDTO result = salesAnalyticsService.verify();
+
+        assertTrue(result.isConsistent());
+        assertTrue(result.getMismatches().isEmpty());
+    }
+
+    @Test
+    void verify_MissedSale_ReportsMismatches() {
+        finishedOrder(10L, "7.50", PAID_AT, 1L, 2L);
+        finishedOrder(11L, "1.50", PAID_AT, 1L);
+        salesAnalyticsService.recordSale(FLIGHT, PAID_AT, new BigDecimal("7.50"), List.of(product(1L, "1.50"), product(2L, "6.00")));
+
+        SalesVerificationDTO result = salesAnalyticsService.verify();
+
+        assertFalse(result.isConsistent());
+        assertEquals(2, result.getMismatches().size());
+        assertTrue(result.getMismatches().get(0).startsWith("Flight IB3202, product 1:"));
+        assertTrue(result.getMismatches().get(1).startsWith("Flight IB3202, hour 2025-06-01T10:00:"));
+    }
+
+    @Test
+    void rebuild_ReplacesRollupsWithRecount() {
+        finishedOrder(10L, "7.50", PAID_AT, 1L, 2L);
+        finishedOrder(11L, "1.50", PAID_AT.plusHours(1), 1L);
+        jdbcTemplate.update("INSERT INTO sales_product_rollups VALUES ('IB3202', 2, 40, 240.00)");
+
+        salesAnalyticsService.rebuild();
+
+        assertEquals(2L, jdbcTemplate.queryForObject("SELECT units FROM sales_product_rollups WHERE product_id = 1", Long.class));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT units FROM sales_product_rollups WHERE product_id = 2", Long.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales_hourly_rollups", Integer.class));
+        assertTrue(salesAnalyticsService.verify().isConsistent());
+    }
+
+    @Test
+    void verify_ArchivedOrders_AreRecounted() {
+        finishedOrder(10L, "7.50", PAID_AT, 1L, 2L);
+        jdbcTemplate.update("INSERT INTO orders_archive VALUES (5, 'IB3202', 1.50, 'FINISHED', ?)", PAID_AT);
+        jdbcTemplate.update("INSERT INTO orders_archive VALUES (6, 'IB3202', 6.00, 'DROPPED', NULL)");
+        jdbcTemplate.update("INSERT INTO products_orders_archive VALUES (5, 1), (6, 2)");
+        salesAnalyticsService.recordSale(FLIGHT, PAID_AT, new BigDecimal("1.50"), List.of(product(1L, "1.50")));
+        salesAnalyticsService.recordSale(FLIGHT, PAID_AT, new BigDecimal("7.50"), List.of(product(1L, "1.50"), product(2L, "6.00")));
+
+        assertTrue(salesAnalyticsService.verify().isConsistent());
+    }
+
+    @Test
+    void getCategorySales_SumsSubtrees() {
+        Category food = category(1L, "Food", null);
+        Category drinks = category(2L, "Drinks", food);
+        Category snacks = category(3L, "Snacks", food);
+        when(categoryRepository.findAll(any(Sort.class))).thenReturn(List.of(food, drinks, snacks));
+        when(productSalesRollupRepository.sumByCategory(null)).thenReturn(List.of(
+                new Object[]{2L, 4L, new BigDecimal("6.00")},
+                new Object[]{3L, 1L, new BigDecimal("2.50")}));
+
+        List<CategorySalesDTO> result = salesAnalyticsService.getCategorySales(null);
+
+        assertEquals(3, result.size());
+        assertEquals(5L, result.get(0).getUnits());
+        assertEquals(new BigDecimal("8.50"), result.get(0).getRevenue());
+        assertEquals(4L, result.get(1).getUnits());
+        assertEquals(1L, result.get(1).getParentCategoryId());
+        assertEquals(1L, result.get(2).getUnits());
+    }
+
+    @Test
+    void getBestSellers_CapsLimit() {
+        salesAnalyticsService.getBestSellers(FLIGHT, 5000);
+
+        verify(productSalesRollupRepository).findProductSales(eq(FLIGHT), argThat((Pageable p) -> p.getPageSize() == 100));
+    }
+
+    private void finishedOrder(Long orderId, String totalPrice, LocalDateTime paidAt, Long... productIds) {
+        finishedOrder(orderId, FLIGHT, totalPrice, paidAt, productIds);
+    }
+
+    private void finishedOrder(Long orderId, String flightId, String totalPrice, LocalDateTime paidAt, Long... productIds) {
+        jdbcTemplate.update("INSERT INTO orders VALUES (?, ?, ?, 'FINISHED', ?)", orderId, flightId, new BigDecimal(totalPrice), paidAt);
+        for (Long productId : productIds) {
+            jdbcTemplate.update("INSERT INTO products_orders VALUES (?, ?)", productId, orderId);
+        }
+    }
+
+    private Product product(Long id, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+
+    private Category category(Long id, String name, Category parent) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        category.setParentCategory(parent);
+        return category;
+    }
+}
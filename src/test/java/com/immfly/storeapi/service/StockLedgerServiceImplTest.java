@@ -0,0 +1,280 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.enums.CatalogEntityType;
+import com.immfly.storeapi.model.StockLedgerCheckpoint;
+import com.immfly.storeapi.repository.StockLedgerCheckpointRepository;
+import com.immfly.storeapi.service.impl.StockLedgerServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StockLedgerServiceImplTest {
+
+    @TempDir
+    Path journalDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private StockLedgerCheckpointRepository checkpointRepository;
+    private CatalogChangeService catalogChangeService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE products (product_id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255) NOT NULL, stock INT NOT NULL, version BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO products (name, stock, version) VALUES ('Perfume', 1000, 0)");
+
+        checkpointRepository = mock(StockLedgerCheckpointRepository.class);
+        catalogChangeService = mock(CatalogChangeService.class);
+    }
+
+    @Test
+    void tryDecrement_ManyThreadsOnOneProduct_NeverOversells() throws Exception {
+        StockLedgerServiceImpl ledger = startLedger();
+        int threads = 64;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int taken = 0;
+                for (int i = 0; i < 20; i++) {
+                    if (ledger.tryDecrement(1L, 1)) {
+                        taken++;
+                    }
+                }
+                return taken;
+            }));
+        }
+        start.countDown();
+
+        int taken = 0;
+        for (Future<Integer> result : results) {
+            taken += result.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1000, taken);
+        assertFalse(ledger.tryDecrement(1L, 1));
+        assertEquals(1, ledger.flush());
+        assertEquals(0, stock());
+        verify(catalogChangeService).recordUpserts(CatalogEntityType.PRODUCT, List.of(1L));
+    }
+
+    @Test
+    void tryDecrement_RolledBackTransaction_ReleasesStock() {
+        StockLedgerServiceImpl ledger = startLedger();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(ledger.tryDecrement(1L, 600));
+            status.setRollbackOnly();
+        });
+
+        assertTrue(ledger.tryDecrement(1L, 1000));
+        ledger.flush();
+        assertEquals(0, stock());
+    }
+
+    @Test
+    void tryDecrement_InTransaction_JournalsOnlyCommittedCheckouts() throws Exception {
+        StockLedgerServiceImpl crashed = startLedger();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(crashed.tryDecrement(1L, 5));
+            assertEquals(0, crashed.flush());
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(crashed.tryDecrement(1L, 7));
+            status.setRollbackOnly();
+        });
+
+        // Only the committed checkout is replayed
+        startLedger();
+
+        assertEquals(995, stock());
+    }
+
+    @Test
+    void tryDecrement_CrashRightAfterCommit_CheckoutIsReplayed() throws Exception {
+        StockLedgerServiceImpl ledger = startLedger();
+        Path crashDir = journalDir.resolve("crashed");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(ledger.tryDecrement(1L, 5));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // What is on disk when the process dies just after the database commit
+                    copyJournal(crashDir);
+                }
+            });
+        });
+
+        startLedger(crashDir);
+
+        assertEquals(995, stock());
+    }
+
+    @Test
+    void tryDecrement_CommitFailsAfterJournaling_CompensatesAndReleasesStock() throws Exception {
+        StockLedgerServiceImpl ledger = startLedger();
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(ledger.tryDecrement(1L, 5));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    throw new IllegalStateException("commit refused");
+                }
+            });
+        }));
+
+        assertEquals(1000, ledger.getStock(1L));
+        // The journaled decrement and its compensation cancel out on replay
+        startLedger();
+        assertEquals(1000, stock());
+    }
+
+    @Test
+    void tryDecrement_RolledBackAfterCounterReseeded_ReleasesStockToNewCounter() throws Exception {
+        StockLedgerServiceImpl ledger = startLedger();
+        ExecutorService other = Executors.newSingleThreadExecutor();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(ledger.tryDecrement(1L, 600));
+            try {
+                other.submit(() -> ledger.evict(1L)).get();
+                assertEquals(400, other.submit(() -> ledger.getStock(1L)).get());
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+            status.setRollbackOnly();
+        });
+        other.shutdown();
+
+        assertEquals(1000, ledger.getStock(1L));
+        assertTrue(ledger.tryDecrement(1L, 1000));
+    }
+
+    @Test
+    void getStock_CounterReseededDuringTransaction_LeavesUncommittedStockOut() throws Exception {
+        StockLedgerServiceImpl ledger = startLedger();
+        ExecutorService other = Executors.newSingleThreadExecutor();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(ledger.tryDecrement(1L, 600));
+            try {
+                // An edit on another thread drops the counter while this checkout is still open
+                other.submit(() -> ledger.evict(1L)).get();
+                assertEquals(400, other.submit(() -> ledger.getStock(1L)).get());
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        other.shutdown();
+
+        assertEquals(400, ledger.getStock(1L));
+        assertFalse(ledger.tryDecrement(1L, 401));
+        ledger.flush();
+        assertEquals(400, stock());
+    }
+
+    @Test
+    void recover_ReplaysJournalNotYetFlushed() throws Exception {
+        StockLedgerServiceImpl crashed = startLedger();
+        assertTrue(crashed.tryDecrement(1L, 3));
+        assertTrue(crashed.tryDecrement(1L, 4));
+        assertEquals(1000, stock());
+
+        StockLedgerServiceImpl restarted = startLedger();
+
+        assertEquals(993, stock());
+        verify(checkpointRepository).save(argThat(c -> c.getSegment() == 1L));
+        assertTrue(restarted.tryDecrement(1L, 993));
+        assertFalse(restarted.tryDecrement(1L, 1));
+    }
+
+    @Test
+    void recover_SkipsSegmentAlreadyCoveredByCheckpoint() throws Exception {
+        StockLedgerServiceImpl crashed = startLedger();
+        assertTrue(crashed.tryDecrement(1L, 3));
+
+        // The flush committed but the process died before deleting the segment
+        when(checkpointRepository.findById(anyString())).thenReturn(Optional.of(new StockLedgerCheckpoint("default", 1L)));
+        startLedger();
+
+        assertEquals(1000, stock());
+        verify(checkpointRepository, never()).save(any());
+    }
+
+    @Test
+    void tryDecrement_UnknownProduct_ReturnsFalse() {
+        StockLedgerServiceImpl ledger = startLedger();
+
+        assertFalse(ledger.tryDecrement(42L, 1));
+        assertEquals(0, ledger.flush());
+    }
+
+    private StockLedgerServiceImpl startLedger() {
+        return startLedger(journalDir);
+    }
+
+    private StockLedgerServiceImpl startLedger(Path dir) {
+        StockLedgerServiceImpl ledger = new StockLedgerServiceImpl(jdbcTemplate, transactionTemplate, checkpointRepository, catalogChangeService);
+        ReflectionTestUtils.setField(ledger, "enabled", true);
+        ReflectionTestUtils.setField(ledger, "journalDir", dir.toString());
+        ReflectionTestUtils.setField(ledger, "fsync", false);
+        try {
+            ledger.recover();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+        return ledger;
+    }
+
+    private void copyJournal(Path target) {
+        try (Stream<Path> segments = Files.list(journalDir)) {
+            Files.createDirectories(target);
+            for (Path segment : segments.filter(Files::isRegularFile).toList()) {
+                Files.copy(segment, target.resolve(segment.getFileName()));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private int stock() {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE product_id = 1", Integer.class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.immfly.storeapi.service;
+
+import com.immfly.storeapi.exception.OutOfStockException;
+import com.immfly.storeapi.model.Product;
+import com.immfly.storeapi.service.impl.StockReservationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StockReservationServiceImplTest {
+
+    private StockLedgerService stockLedgerService;
+    private StockReservationServiceImpl stockReservationService;
+    private Product bottle;
+
+    @BeforeEach
+    void setUp() {
+        stockLedgerService = mock(StockLedgerService.class);
+        stockReservationService = new StockReservationServiceImpl(stockLedgerService);
+        bottle = new Product();
+        bottle.setId(1L);
+        bottle.setName("Whisky");
+        bottle.setStock(1);
+    }
+
+    @Test
+    void reserve_LastUnitAlreadyHeld_ShouldThrowException() {
+        stockReservationService.reserve(1L, List.of(bottle));
+
+        assertThrows(OutOfStockException.class, () -> stockReservationService.reserve(2L, List.of(bottle)));
+        assertEquals(1, stockReservationService.getReserved(1L));
+    }
+
+    @Test
+    void reserve_SameOrderAgain_ReplacesItsHold() {
+        bottle.setStock(2);
+        Product water = new Product();
+        water.setId(2L);
+        water.setName("Water");
+        water.setStock(1);
+        stockReservationService.reserve(1L, List.of(bottle, bottle));
+
+        // An update that asks for more than is left keeps the original hold
+        assertThrows(OutOfStockException.class, () -> stockReservationService.reserve(1L, List.of(water, water)));
+        assertEquals(2, stockReservationService.getReserved(1L));
+        assertEquals(0, stockReservationService.getReserved(2L));
+
+        stockReservationService.reserve(1L, List.of(bottle, water));
+        assertEquals(1, stockReservationService.getReserved(1L));
+        assertEquals(1, stockReservationService.getReserved(2L));
+    }
+
+    @Test
+    void reserve_LedgerEnabled_ChecksLedgerStock() {
+        // The row still says 1, but the ledger has already sold it
+        when(stockLedgerService.isEnabled()).thenReturn(true);
+        when(stockLedgerService.getStock(1L)).thenReturn(0);
+
+        assertThrows(OutOfStockException.class, () -> stockReservationService.reserve(1L, List.of(bottle)));
+        assertEquals(0, stockReservationService.getReserved(1L));
+    }
+
+    @Test
+    void release_FreesStockForOtherOrders() {
+        stockReservationService.reserve(1L, List.of(bottle));
+        stockReservationService.release(1L);
+
+        stockReservationService.reserve(2L, List.of(bottle));
+        assertEquals(1, stockReservationService.getReserved(1L));
+    }
+
+    @Test
+    void expireReservations_DropsHoldsPastTheirTtl() {
+        ReflectionTestUtils.setField(stockReservationService, "ttlMs", 0L);
+        stockReservationService.reserve(1L, List.of(bottle));
+
+        assertEquals(1, stockReservationService.expireReservations());
+        assertEquals(0, stockReservationService.getReserved(1L));
+        // Confirming an order whose hold already expired is harmless
+        stockReservationService.confirm(1L);
+        assertEquals(0, stockReservationService.expireReservations());
+    }
+
+    @Test
+    void reserve_RolledBackTransaction_RestoresPreviousHold() {
+        bottle.setStock(3);
+        stockReservationService.reserve(1L, List.of(bottle));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            stockReservationService.reserve(1L, List.of(bottle, bottle, bottle));
+            assertEquals(3, stockReservationService.getReserved(1L));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, stockReservationService.getReserved(1L));
+    }
+}
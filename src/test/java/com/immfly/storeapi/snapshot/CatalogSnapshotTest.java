@@ -0,0 +1,155 @@
+package com.immfly.storeapi.snapshot;
+
+import com.immfly.storeapi.dto.CategoryDTO;
+import com.immfly.storeapi.dto.ProductDTO;
+import com.immfly.storeapi.exception.InvalidCatalogSnapshotException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<CategoryDTO> categories = List.of(
+            new CategoryDTO(2L, "Perfumes", 1L),
+            new CategoryDTO(1L, "Duty Free", null)
+    );
+
+    private final List<ProductDTO> products = List.of(
+            new ProductDTO(30L, "Eau de Parfum", new BigDecimal("89.90"), "https://example.com/perfume.jpg", 2L, 4),
+            new ProductDTO(10L, "Crème brûlée", new BigDecimal("6.50"), null, 1L, 0),
+            new ProductDTO(20L, "Cologne", new BigDecimal("45.00"), "https://example.com/perfume.jpg", 2L, 12)
+    );
+
+    @Test
+    void writeAndOpen_RoundTripsEveryRecord() throws Exception {
+        Path file = tempDir.resolve("catalog.snapshot");
+        Files.write(file, CatalogSnapshotWriter.write(7L, categories, products));
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+
+        assertEquals(7L, snapshot.getCatalogVersion());
+        assertEquals(2, snapshot.getCategoryCount());
+        assertEquals(3, snapshot.getProductCount());
+
+        List<ProductDTO> read = snapshot.getProducts();
+        assertEquals(List.of(10L, 20L, 30L), read.stream().map(ProductDTO::getId).toList());
+
+        ProductDTO creme = read.get(0);
+        assertEquals("Crème brûlée", creme.getName());
+        assertEquals(new BigDecimal("6.50"), creme.getPrice());
+        assertNull(creme.getImageUrl());
+        assertEquals(1L, creme.getCategoryId());
+        assertEquals(0, creme.getStock());
+
+        CategoryDTO root = snapshot.getCategories().get(0);
+        assertEquals(1L, root.getId());
+        assertNull(root.getParentCategoryId());
+    }
+
+    @Test
+    void findById_UsesSortedRecords() {
+        CatalogSnapshot snapshot = CatalogSnapshot.wrap(CatalogSnapshotWriter.write(1L, categories, products));
+
+        ProductDTO perfume = snapshot.findProduct(30L).orElseThrow();
+        assertEquals("Eau de Parfum", perfume.getName());
+        assertEquals(new BigDecimal("89.90"), perfume.getPrice());
+        assertEquals("https://example.com/perfume.jpg", perfume.getImageUrl());
+        assertEquals(1L, snapshot.findCategory(2L).orElseThrow().getParentCategoryId());
+
+        assertTrue(snapshot.findProduct(15L).isEmpty());
+        assertTrue(snapshot.findProduct(31L).isEmpty());
+        assertTrue(snapshot.findCategory(3L).isEmpty());
+    }
+
+    @Test
+    void write_DeduplicatesRepeatedStrings() {
+        byte[] shared = CatalogSnapshotWriter.write(1L, categories, products);
+        byte[] distinct = CatalogSnapshotWriter.write(1L, categories, List.of(
+                products.get(0),
+                products.get(1),
+                new ProductDTO(20L, "Cologne", new BigDecimal("45.00"), "https://example.com/cologne.jpg", 2L, 12)
+        ));
+
+        assertTrue(shared.length < distinct.length);
+    }
+
+    @Test
+    void wrap_EmptyCatalog_IsValid() {
+        CatalogSnapshot snapshot = CatalogSnapshot.wrap(CatalogSnapshotWriter.write(0L, List.of(), List.of()));
+
+        assertTrue(snapshot.getProducts().isEmpty());
+        assertTrue(snapshot.findProduct(1L).isEmpty());
+    }
+
+    @Test
+    void wrap_CorruptedBytes_ShouldThrowException() {
+        byte[] bytes = CatalogSnapshotWriter.write(1L, categories, products);
+        bytes[bytes.length - 1] ^= 0x01;
+
+        assertThrows(InvalidCatalogSnapshotException.class, () -> CatalogSnapshot.wrap(bytes));
+    }
+
+    @Test
+    void wrap_NotASnapshot_ShouldThrowException() {
+        assertThrows(InvalidCatalogSnapshotException.class, () -> CatalogSnapshot.wrap("[{\"id\":1}]".getBytes()));
+    }
+
+    @Test
+    void write_PriceBeyondLongRange_RoundTrips() {
+        BigDecimal price = new BigDecimal("123456789012345678901234567890.125");
+        CatalogSnapshot snapshot = CatalogSnapshot.wrap(CatalogSnapshotWriter.write(1L, categories,
+                List.of(new ProductDTO(1L, "Jet", price, null, 1L, 1))));
+
+        assertEquals(price, snapshot.findProduct(1L).orElseThrow().getPrice());
+        assertEquals(3, snapshot.findProduct(1L).orElseThrow().getPrice().scale());
+    }
+
+    @Test
+    void contentHash_DependsOnContentOnly() {
+        byte[] hash = CatalogSnapshot.wrap(CatalogSnapshotWriter.write(1L, categories, products)).getContentHash();
+
+        assertArrayEquals(hash, CatalogSnapshot.wrap(CatalogSnapshotWriter.write(99L, categories, List.of(products.get(2), products.get(0), products.get(1)))).getContentHash());
+        assertFalse(Arrays.equals(hash, CatalogSnapshot.wrap(CatalogSnapshotWriter.write(1L, categories, products.subList(0, 2))).getContentHash()));
+    }
+
+    @Test
+    void wrap_TamperedHeader_ShouldThrowException() {
+        byte[] bytes = CatalogSnapshotWriter.write(1L, categories, products);
+        bytes[15] ^= 0x01;
+
+        InvalidCatalogSnapshotException ex = assertThrows(InvalidCatalogSnapshotException.class, () -> CatalogSnapshot.wrap(bytes));
+        assertEquals("Catalog snapshot checksum mismatch", ex.getMessage());
+    }
+
+    @Test
+    void wrap_NegativeOrOversizedCounts_ShouldThrowException() {
+        for (int count : new int[]{-1, Integer.MAX_VALUE, Integer.MAX_VALUE / CatalogSnapshot.PRODUCT_RECORD_SIZE + 1}) {
+            ByteBuffer bytes = ByteBuffer.wrap(CatalogSnapshotWriter.write(1L, categories, products));
+            bytes.putInt(20, count);
+            bytes.putLong(CatalogSnapshot.CRC_OFFSET, CatalogSnapshot.checksum(bytes));
+
+            assertThrows(InvalidCatalogSnapshotException.class, () -> CatalogSnapshot.wrap(bytes.array()), () -> "count " + count);
+        }
+    }
+
+    @Test
+    void wrap_StringRefOutOfRange_ShouldThrowException() {
+        ByteBuffer bytes = ByteBuffer.wrap(CatalogSnapshotWriter.write(1L, categories, products));
+        int firstProductName = CatalogSnapshot.HEADER_SIZE + 2 * CatalogSnapshot.CATEGORY_RECORD_SIZE + 24;
+        bytes.putInt(firstProductName, 1_000_000);
+        bytes.putLong(CatalogSnapshot.CRC_OFFSET, CatalogSnapshot.checksum(bytes));
+
+        assertThrows(InvalidCatalogSnapshotException.class, () -> CatalogSnapshot.wrap(bytes.array()));
+    }
+}